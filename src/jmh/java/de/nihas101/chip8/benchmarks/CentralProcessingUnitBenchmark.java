@@ -0,0 +1,49 @@
+package de.nihas101.chip8.benchmarks;
+
+import de.nihas101.chip8.debug.TraceLevel;
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
+import de.nihas101.chip8.opcodes.UnknownOPCodeException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static de.nihas101.chip8.hardware.Emulator.createHeadlessEmulator;
+import static de.nihas101.chip8.utils.Constants.PROGRAM_COUNTER_START;
+
+/**
+ * Measures the fetch, decode and execution of a single opcode of every class, with and without tracing
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class CentralProcessingUnitBenchmark {
+    @Param({"00E0", "1200", "3000", "6A12", "7A01", "8AB4", "8AB6", "A300",
+            "C0FF", "D015", "E09E", "F029", "FA1E", "FA33", "FA55", "FA65"})
+    public String opCode;
+
+    @Param({"OFF", "BINARY"})
+    public TraceLevel traceLevel;
+
+    private CentralProcessingUnit cpu;
+
+    @Setup
+    public void setup() {
+        cpu = createHeadlessEmulator().getCentralProcessingUnit();
+        cpu.setTraceLevel(traceLevel);
+
+        int value = Integer.parseInt(opCode, 16);
+        cpu.getMemory().write(PROGRAM_COUNTER_START, value >> 8);
+        cpu.getMemory().write(PROGRAM_COUNTER_START + 1, value);
+        cpu.getAddressRegister().setAddress(0x300);
+    }
+
+    @Benchmark
+    public CentralProcessingUnit decodeNextOpCode() throws UnknownOPCodeException {
+        cpu.getProgramCounter().jumpTo(PROGRAM_COUNTER_START);
+        cpu.decodeNextOpCode();
+        return cpu;
+    }
+}
@@ -0,0 +1,42 @@
+package de.nihas101.chip8.benchmarks;
+
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
+import de.nihas101.chip8.opcodes.UnknownOPCodeException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static de.nihas101.chip8.hardware.Emulator.createHeadlessEmulator;
+
+/**
+ * Measures DXYN for sprites of different heights, wrapping around the right edge of the screen
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class DrawSpriteBenchmark {
+    @Param({"1", "5", "15"})
+    public int height;
+
+    private CentralProcessingUnit cpu;
+    private int opCode;
+
+    @Setup
+    public void setup() {
+        cpu = createHeadlessEmulator().getCentralProcessingUnit();
+        cpu.getRegisters().poke(0, 60);
+        cpu.getRegisters().poke(1, 20);
+        /* The character sprites are stored at the start of the memory */
+        cpu.getAddressRegister().setAddress(0);
+        opCode = 0xD010 | height;
+    }
+
+    @Benchmark
+    public CentralProcessingUnit drawSprite() throws UnknownOPCodeException {
+        cpu.executeOpCode(opCode);
+        return cpu;
+    }
+}
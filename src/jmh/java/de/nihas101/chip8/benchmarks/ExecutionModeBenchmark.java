@@ -0,0 +1,48 @@
+package de.nihas101.chip8.benchmarks;
+
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
+import de.nihas101.chip8.hardware.ExecutionMode;
+import de.nihas101.chip8.opcodes.UnknownOPCodeException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static de.nihas101.chip8.hardware.Emulator.createHeadlessEmulator;
+import static de.nihas101.chip8.utils.Constants.PROGRAM_COUNTER_START;
+
+/**
+ * Measures the number of executed instructions per second of a register-heavy loop in every {@link ExecutionMode}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ExecutionModeBenchmark {
+    private static final int CYCLES = 1000;
+    /* V0 += 1, V1 = V0, V1 += V2, V2 -= V0, V3 >>= 1, I = 0x300, I += V3, dump V0 - V2, loop */
+    private static final int[] PROGRAM = {0x7001, 0x8100, 0x8124, 0x8205, 0x8336, 0xA300, 0xF31E, 0xF255, 0x1200};
+
+    @Param({"INTERPRETER", "TRANSLATION_CACHE", "JIT"})
+    public ExecutionMode executionMode;
+
+    private CentralProcessingUnit cpu;
+
+    @Setup
+    public void setup() {
+        cpu = createHeadlessEmulator().getCentralProcessingUnit();
+        for (int i = 0; i < PROGRAM.length; i++) {
+            cpu.getMemory().write(PROGRAM_COUNTER_START + 2 * i, PROGRAM[i] >> 8);
+            cpu.getMemory().write(PROGRAM_COUNTER_START + 2 * i + 1, PROGRAM[i]);
+        }
+        cpu.setExecutionMode(executionMode);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CYCLES)
+    public CentralProcessingUnit executeCycles() throws UnknownOPCodeException {
+        for (int executed = 0; executed < CYCLES; ) executed += cpu.executeCycles(CYCLES - executed);
+        return cpu;
+    }
+}
@@ -0,0 +1,72 @@
+package de.nihas101.chip8.benchmarks;
+
+import de.nihas101.chip8.hardware.memory.FrameBuffer;
+import de.nihas101.chip8.hardware.memory.ScreenMemory;
+import de.nihas101.chip8.utils.RenderMode;
+import de.nihas101.chip8.utils.ResizableCanvas;
+import javafx.embed.swing.JFXPanel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static de.nihas101.chip8.hardware.memory.ScreenMemory.SCREEN_HEIGHT;
+import static de.nihas101.chip8.hardware.memory.ScreenMemory.SCREEN_WIDTH;
+
+/**
+ * Measures drawing a full screen and drawing a single changed sprite line
+ * onto a {@link ResizableCanvas} that is not part of a scene
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ResizableCanvasBenchmark {
+    @Param({"RECTANGLES", "IMAGE"})
+    public RenderMode renderMode;
+
+    private ResizableCanvas canvas;
+    private ScreenMemory screenMemory;
+    private FrameBuffer frameBuffer;
+    private int spriteLine = 0;
+
+    @Setup
+    public void setup() {
+        /* Starts the JavaFX toolkit */
+        new JFXPanel();
+
+        screenMemory = new ScreenMemory();
+        Random random = new Random(0);
+        for (int x = 0; x < SCREEN_WIDTH; x++)
+            for (int y = 0; y < SCREEN_HEIGHT; y++)
+                screenMemory.write(x, y, random.nextBoolean());
+
+        frameBuffer = new FrameBuffer();
+        frameBuffer.publish(screenMemory);
+        canvas = new ResizableCanvas(frameBuffer);
+        canvas.setWidth(640);
+        canvas.setHeight(320);
+        canvas.setupGraphicsContext();
+        canvas.setRenderMode(renderMode);
+    }
+
+    @Benchmark
+    public ResizableCanvas redraw() {
+        /* The canvas is never rendered, clearing it discards the buffered commands of the previous invocation */
+        canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        canvas.redraw();
+        return canvas;
+    }
+
+    @Benchmark
+    public ResizableCanvas drawSpriteLine() {
+        canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        spriteLine = (spriteLine + 1) % SCREEN_HEIGHT;
+        screenMemory.drawSpriteLine(spriteLine, spriteLine, 0b10111101);
+        frameBuffer.publish(screenMemory);
+        canvas.draw();
+        return canvas;
+    }
+}
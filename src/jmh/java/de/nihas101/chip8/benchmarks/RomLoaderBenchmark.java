@@ -0,0 +1,56 @@
+package de.nihas101.chip8.benchmarks;
+
+import de.nihas101.chip8.hardware.memory.Memory;
+import de.nihas101.chip8.utils.RomLoader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static de.nihas101.chip8.utils.Constants.MEMORY_LENGTH;
+import static de.nihas101.chip8.utils.Constants.PROGRAM_COUNTER_START;
+
+/**
+ * Measures loading a ROM of the maximum size from a file and from memory
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class RomLoaderBenchmark {
+    private final RomLoader romLoader = new RomLoader();
+    private final Memory memory = new Memory();
+    private byte[] rom;
+    private File romFile;
+
+    @Setup
+    public void setup() throws IOException {
+        rom = new byte[MEMORY_LENGTH - PROGRAM_COUNTER_START];
+        new Random(0).nextBytes(rom);
+
+        romFile = File.createTempFile("benchmark", ".ch8");
+        Files.write(romFile.toPath(), rom);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(romFile.toPath());
+    }
+
+    @Benchmark
+    public Memory loadRomFromFile() {
+        romLoader.loadRom(romFile, memory);
+        return memory;
+    }
+
+    @Benchmark
+    public Memory loadRomFromBytes() {
+        romLoader.loadRom(rom, memory);
+        return memory;
+    }
+}
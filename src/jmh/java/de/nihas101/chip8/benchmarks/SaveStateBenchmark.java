@@ -0,0 +1,70 @@
+package de.nihas101.chip8.benchmarks;
+
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
+import de.nihas101.chip8.savestates.SaveState;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static de.nihas101.chip8.hardware.Emulator.createHeadlessEmulator;
+import static de.nihas101.chip8.utils.Constants.MEMORY_LENGTH;
+import static de.nihas101.chip8.utils.Constants.PROGRAM_COUNTER_START;
+
+/**
+ * Measures writing and reading save states
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class SaveStateBenchmark {
+    private SaveState saveState;
+    private String saveStateString;
+    private ByteBuffer saveStateBuffer;
+    private CentralProcessingUnit target;
+
+    @Setup
+    public void setup() {
+        CentralProcessingUnit cpu = createHeadlessEmulator().getCentralProcessingUnit();
+        Random random = new Random(0);
+        byte[] rom = new byte[MEMORY_LENGTH - PROGRAM_COUNTER_START];
+        random.nextBytes(rom);
+        cpu.getMemory().load(PROGRAM_COUNTER_START, rom);
+        for (int i = 0; i < 16; i++) cpu.getRegisters().poke(i, random.nextInt(256));
+
+        saveState = SaveState.createSaveState(cpu);
+        saveStateString = saveState.toString();
+        saveStateBuffer = saveState.toByteBuffer();
+        target = createHeadlessEmulator().getCentralProcessingUnit();
+    }
+
+    @Benchmark
+    public String saveStateToString() {
+        return saveState.toString();
+    }
+
+    @Benchmark
+    public SaveState createSaveStateFromString() {
+        return SaveState.createSaveState(saveStateString);
+    }
+
+    @Benchmark
+    public ByteBuffer saveStateToByteBuffer() {
+        return saveState.toByteBuffer();
+    }
+
+    @Benchmark
+    public SaveState createSaveStateFromByteBuffer() {
+        return SaveState.createSaveState(saveStateBuffer.duplicate());
+    }
+
+    @Benchmark
+    public CentralProcessingUnit restoreSaveState() {
+        SaveState.restoreSaveState(saveStateBuffer.duplicate(), target);
+        return target;
+    }
+}
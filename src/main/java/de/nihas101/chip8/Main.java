@@ -1,14 +1,18 @@
 package de.nihas101.chip8;
 
 import de.nihas101.chip8.debug.Debugger;
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
 import de.nihas101.chip8.hardware.Emulator;
+import de.nihas101.chip8.hardware.RunState;
+import de.nihas101.chip8.hardware.RunStateMachine;
 import de.nihas101.chip8.savestates.SaveState;
+import de.nihas101.chip8.utils.RenderLoop;
 import de.nihas101.chip8.utils.ResizableCanvas;
-import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.event.EventHandler;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.Pane;
@@ -20,9 +24,7 @@ import static de.nihas101.chip8.hardware.Emulator.createEmulator;
 import static de.nihas101.chip8.hardware.memory.ScreenMemory.SCREEN_HEIGHT;
 import static de.nihas101.chip8.hardware.memory.ScreenMemory.SCREEN_WIDTH;
 import static de.nihas101.chip8.utils.Constants.CYCLE_WAIT_TIME;
-import static de.nihas101.chip8.utils.Constants.STEP_WAIT_TIME;
 import static de.nihas101.chip8.utils.keyConfiguration.KeyConfigurationManager.loadKeyConfiguration;
-import static de.nihas101.chip8.utils.keyConfiguration.Keys.NO_KEY;
 import static java.lang.Thread.*;
 
 public final class Main extends Application {
@@ -31,7 +33,7 @@ public final class Main extends Application {
     private Pane root;
     public MainController mainController;
     public ResizableCanvas canvas;
-    private Timeline timeline;
+    private RenderLoop renderLoop;
 
     private EventHandler<KeyEvent> keyPressedEventEventHandler;
     private EventHandler<KeyEvent> keyReleasedEventHandler;
@@ -39,8 +41,6 @@ public final class Main extends Application {
     /* Debugging */
     private Debugger debugger;
     private Stage debuggerStage;
-    private boolean stepByStep = false;
-    private boolean nextStep = false;
 
     private Logger logger = Logger.getLogger(Main.class.getName());
 
@@ -105,11 +105,11 @@ public final class Main extends Application {
 
     private void setupCanvas() {
         /* Create resizable canvas and add it to the scene */
-        canvas = new ResizableCanvas(emulator.getCentralProcessingUnit().getScreenMemory());
+        canvas = new ResizableCanvas(emulator.getFrameBuffer());
         canvas.setupGraphicsContext();
         ((BorderPane) root.getChildren().get(0)).setCenter(canvas);
 
-        timeline = canvas.setupTimeLine();
+        renderLoop = new RenderLoop(canvas);
     }
 
     private void setupController() {
@@ -117,22 +117,24 @@ public final class Main extends Application {
         Runnable cpuThreadRunner = () -> {
             /* Start the thread to execute cpu cycles */
             new Thread(() -> {
+                RunStateMachine runStateMachine = emulator.getCentralProcessingUnit().getRunStateMachine();
                 double cycles = 1;
                 double leftCycle;
-                while (!emulator.getCentralProcessingUnit().isStop()) {
-                    if (emulator.getCentralProcessingUnit().isPause()) {
-                        yield();
-                        continue;
-                    }
-                    leftCycle = emulator.executeCPUCycles(cycles);
-                    waitForStep();
-                    /* Wait and calculate how many cycles to execute */
-                    if (stepByStep) cycles = 1; // Always execute one step in step-by-step mode
-                    else {
-                        cycles = System.currentTimeMillis() + CYCLE_WAIT_TIME;
-                        waitFor(CYCLE_WAIT_TIME);
-                        cycles = (System.currentTimeMillis() / cycles) * mainController.getSpeed() + leftCycle;
+                RunState runState;
+                try {
+                    /* Parks this thread while the emulation is paused or waits for the next step */
+                    while ((runState = runStateMachine.awaitExecution()) != RunState.STOPPED) {
+                        if (runState == RunState.STEPPING) cycles = 1; // Always execute one step in step-by-step mode
+                        leftCycle = emulator.executeCPUCycles(cycles);
+                        /* Wait and calculate how many cycles to execute */
+                        if (runState == RunState.RUNNING) {
+                            cycles = System.currentTimeMillis() + CYCLE_WAIT_TIME;
+                            waitFor(CYCLE_WAIT_TIME);
+                            cycles = (System.currentTimeMillis() / cycles) * mainController.getSpeed() + leftCycle;
+                        }
                     }
+                } finally {
+                    runStateMachine.finishExecution();
                 }
             }).start();
         };
@@ -155,16 +157,6 @@ public final class Main extends Application {
         }
     }
 
-    /**
-     * Waits for the user to hit the key to calculate the next step
-     */
-    private void waitForStep() {
-        if (stepByStep && !emulator.getCentralProcessingUnit().isStop()) {
-            nextStep = false;
-            while (stepByStep && !nextStep && !emulator.getCentralProcessingUnit().isStop()) waitFor(STEP_WAIT_TIME);
-        }
-    }
-
     /**
      * Stops the main loop executing cpu cycles
      */
@@ -172,7 +164,11 @@ public final class Main extends Application {
     public void stop() {
         /* Stop the thread that is used as timer */
         emulator.stop();
-        timeline.stop();
+        renderLoop.stop();
+        logger.info(renderLoop.toString());
+        mainController.closeSaveStateSlots();
+        mainController.stopTraceRecording();
+        mainController.stopMovieRecording();
         if (debugger.isDebugging()) debugger.stop();
     }
 
@@ -187,7 +183,7 @@ public final class Main extends Application {
             scene.removeEventHandler(KeyEvent.KEY_RELEASED, keyReleasedEventHandler);
 
         keyPressedEventEventHandler = createKeyPressedEventHandler();
-        keyReleasedEventHandler = (event) -> emulator.getCentralProcessingUnit().setKeyCode(NO_KEY);
+        keyReleasedEventHandler = (event) -> emulator.getKeyConfiguration().getOrNOP(event.getCode()).release();
 
         scene.addEventHandler(KeyEvent.KEY_PRESSED, keyPressedEventEventHandler);
         scene.addEventHandler(KeyEvent.KEY_RELEASED, keyReleasedEventHandler);
@@ -197,7 +193,9 @@ public final class Main extends Application {
         emulator.setKeyConfiguration(loadKeyConfiguration(emulator));
 
         return (event) -> {
-            if (emulator.getKeyConfiguration().contains(event.getCode()))
+            if (event.isControlDown() && event.getCode().isDigitKey())
+                mainController.selectSaveStateSlot(slotOf(event.getCode()));
+            else if (emulator.getKeyConfiguration().contains(event.getCode()))
                 emulator.getKeyConfiguration().getOrNOP(event.getCode()).trigger();
             else handleSpecialEmulatorKeyEvents(event);
         };
@@ -206,7 +204,7 @@ public final class Main extends Application {
     private void handleSpecialEmulatorKeyEvents(KeyEvent event) {
         switch (event.getCode()) {
             case F3:
-                nextStep = true;
+                emulator.getCentralProcessingUnit().getRunStateMachine().step();
                 break;
             case F1:
                 handleDebugger();
@@ -215,21 +213,42 @@ public final class Main extends Application {
                 switchStepByStep();
                 break;
             case F4:
+                mainController.stopMovieRecording();
                 emulator.getCentralProcessingUnit().reset();
                 break;
             case F5:
-                mainController.saveStateButton.fire();
+                if (event.isShiftDown()) mainController.saveStateButton.fire();
+                else mainController.quickSave();
                 break;
             case F6:
-                mainController.loadStateButton.fire();
+                if (event.isShiftDown()) mainController.loadStateButton.fire();
+                else mainController.quickLoad();
+                break;
+            case F7:
+                mainController.switchTraceRecording();
+                break;
+            case F8:
+                mainController.switchMovieRecording();
                 break;
             default: /* NOP */
         }
     }
 
+    /**
+     * Returns the save state slot selected by a digit key
+     *
+     * @param keyCode The code of a digit key, DIGIT0 - DIGIT9 or NUMPAD0 - NUMPAD9
+     * @return The digit of the key
+     */
+    private static int slotOf(KeyCode keyCode) {
+        String name = keyCode.name();
+        return name.charAt(name.length() - 1) - '0';
+    }
+
     private void switchStepByStep() {
-        stepByStep = !stepByStep;
-        debugger.setStepByStep(stepByStep);
+        RunStateMachine runStateMachine = emulator.getCentralProcessingUnit().getRunStateMachine();
+        runStateMachine.setStepping(!runStateMachine.isStepping());
+        debugger.setStepByStep(runStateMachine.isStepping());
     }
 
     private void handleDebugger() {
@@ -244,13 +263,12 @@ public final class Main extends Application {
     }
 
     private void setupEmulation() {
-        canvas.setMemory(emulator.getCentralProcessingUnit().getScreenMemory());
+        canvas.setFrameBuffer(emulator.getFrameBuffer());
         setupController();
         setupEventHandler();
         debugger = new Debugger();
         debugger.setDebuggable(emulator.getCentralProcessingUnit());
-        timeline = canvas.setupTimeLine();
-        timeline.play();
+        renderLoop.start();
     }
 
     public void startEmulation() {
@@ -261,10 +279,21 @@ public final class Main extends Application {
         return SaveState.createSaveState(emulator.getCentralProcessingUnit());
     }
 
+    /**
+     * Restores a {@link SaveState} into the running {@link CentralProcessingUnit},
+     * keeping the canvas, the controller and the key handlers
+     *
+     * @param saveState The {@link SaveState} to restore
+     */
     public void setState(SaveState saveState) {
-        stop();
-        emulator.setCentralProcessingUnit(saveState.cpu);
-        setupEmulation();
-        startEmulation();
+        CentralProcessingUnit centralProcessingUnit = emulator.getCentralProcessingUnit();
+        boolean pause = centralProcessingUnit.isPause();
+
+        centralProcessingUnit.setPause(true);
+        try {
+            saveState.restoreInto(centralProcessingUnit);
+        } finally {
+            centralProcessingUnit.setPause(pause);
+        }
     }
 }
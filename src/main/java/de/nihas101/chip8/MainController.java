@@ -1,9 +1,11 @@
 package de.nihas101.chip8;
 
 import de.nihas101.chip8.config.ConfigureWindow;
+import de.nihas101.chip8.debug.TraceRecorder;
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
 import de.nihas101.chip8.hardware.memory.Memory;
 import de.nihas101.chip8.savestates.FailedReadingStateException;
-import de.nihas101.chip8.savestates.SaveState;
+import de.nihas101.chip8.savestates.MovieRecorder;
 import de.nihas101.chip8.savestates.SaveStateHandler;
 import de.nihas101.chip8.utils.ResizableCanvas;
 import de.nihas101.chip8.utils.RomLoader;
@@ -24,6 +26,11 @@ import java.nio.file.Paths;
 import java.util.function.UnaryOperator;
 import java.util.logging.Logger;
 
+import static de.nihas101.chip8.debug.TraceRecorder.openTraceRecorder;
+import static de.nihas101.chip8.headless.HeadlessRunner.DEFAULT_CYCLES_PER_FRAME;
+import static de.nihas101.chip8.savestates.MovieRecorder.openMovieRecorder;
+import static de.nihas101.chip8.utils.Constants.MOVIE_FILE;
+import static de.nihas101.chip8.utils.Constants.TRACE_FILE;
 import static java.lang.Double.parseDouble;
 
 public final class MainController {
@@ -50,6 +57,8 @@ public final class MainController {
     private FileChooser saveFileChooser;
     private FileChooser loadFileChooser;
     private SaveStateHandler saveStateHandler;
+    /* The quick-save slot used by quickSave and quickLoad */
+    private int saveStateSlot = 0;
 
     private Window ownerWindow;
     private File romFile;
@@ -66,14 +75,9 @@ public final class MainController {
         main.emulator.getCentralProcessingUnit().setPause(false);
 
         if (romFile != null) {
-            /* Stop last threadRunner */
+            /* Stop last threadRunner, this returns once it executes no more instructions */
             main.emulator.getCentralProcessingUnit().setStop(true);
-            try {
-                Thread.sleep(150);
-            } catch (InterruptedException e) {
-                logger.severe(e.getMessage());
-                Thread.currentThread().interrupt();
-            }
+            stopMovieRecording();
             /* Clear memory and load in new ROM */
             main.emulator.getCentralProcessingUnit().clearMemory();
             main.emulator.getCentralProcessingUnit().reset();
@@ -191,21 +195,155 @@ public final class MainController {
     }
 
     public void loadState(ActionEvent actionEvent) {
-        SaveState saveState = null;
         File loadFile = loadFileChooser.showOpenDialog(ownerWindow);
 
         if (loadFile != null) {
+            stopMovieRecording();
             try {
-                saveState = saveStateHandler.readState(loadFile);
+                main.setState(saveStateHandler.readState(loadFile));
             } catch (FailedReadingStateException e) {
                 logger.severe(e.getMessage());
             }
-            main.setState(saveState);
         }
 
         actionEvent.consume();
     }
 
+    /**
+     * Selects the slot used by {@link #quickSave()} and {@link #quickLoad()}
+     *
+     * @param slot The index of the slot
+     */
+    public void selectSaveStateSlot(int slot) {
+        saveStateSlot = slot;
+        logger.info("Selected save state slot " + slot);
+    }
+
+    /**
+     * Writes the current state into the selected slot of the slot file, without asking for a file
+     */
+    public void quickSave() {
+        CentralProcessingUnit centralProcessingUnit = main.emulator.getCentralProcessingUnit();
+        boolean pause = centralProcessingUnit.isPause();
+        centralProcessingUnit.setPause(true);
+
+        try {
+            saveStateHandler.writeState(saveStateSlot, main.createSaveState());
+        } catch (IOException | RuntimeException e) {
+            logger.severe(e.getMessage());
+        }
+
+        centralProcessingUnit.setPause(pause);
+    }
+
+    /**
+     * Restores the state of the selected slot of the slot file, without asking for a file
+     */
+    public void quickLoad() {
+        CentralProcessingUnit centralProcessingUnit = main.emulator.getCentralProcessingUnit();
+        boolean pause = centralProcessingUnit.isPause();
+        centralProcessingUnit.setPause(true);
+        stopMovieRecording();
+
+        try {
+            if (!saveStateHandler.readState(saveStateSlot, centralProcessingUnit))
+                logger.info("Save state slot " + saveStateSlot + " is empty");
+        } catch (IOException | RuntimeException e) {
+            logger.severe(e.getMessage());
+        }
+
+        centralProcessingUnit.setPause(pause);
+    }
+
+    public void closeSaveStateSlots() {
+        saveStateHandler.close();
+    }
+
+    /**
+     * Starts recording every executed instruction into the trace file, or stops recording if it already is
+     */
+    public void switchTraceRecording() {
+        CentralProcessingUnit centralProcessingUnit = main.emulator.getCentralProcessingUnit();
+        boolean pause = centralProcessingUnit.isPause();
+        centralProcessingUnit.setPause(true);
+
+        if (centralProcessingUnit.getTraceRecorder() != null) stopTraceRecording();
+        else {
+            try {
+                centralProcessingUnit.setTraceRecorder(openTraceRecorder(new File(TRACE_FILE)));
+                logger.info("Recording trace into " + TRACE_FILE);
+            } catch (IOException e) {
+                logger.severe(e.getMessage());
+            }
+        }
+
+        centralProcessingUnit.setPause(pause);
+    }
+
+    /**
+     * Stops recording the executed instructions and closes the trace file, if a trace is being recorded
+     */
+    public void stopTraceRecording() {
+        CentralProcessingUnit centralProcessingUnit = main.emulator.getCentralProcessingUnit();
+        TraceRecorder traceRecorder = centralProcessingUnit.getTraceRecorder();
+        if (traceRecorder == null) return;
+
+        centralProcessingUnit.setTraceRecorder(null);
+        try {
+            traceRecorder.close();
+            logger.info("Recorded " + traceRecorder.getRecords() + " instructions into " + TRACE_FILE);
+        } catch (IOException e) {
+            logger.severe(e.getMessage());
+        }
+    }
+
+    /**
+     * Starts recording the keys read by the instructions into the movie file, or stops recording if it already is.
+     * The timers are cycle-counted from then on, so the recording can be replayed exactly
+     */
+    public void switchMovieRecording() {
+        CentralProcessingUnit centralProcessingUnit = main.emulator.getCentralProcessingUnit();
+        boolean pause = centralProcessingUnit.isPause();
+        centralProcessingUnit.setPause(true);
+
+        if (centralProcessingUnit.getKeyInput() instanceof MovieRecorder) stopMovieRecording();
+        else {
+            if (!centralProcessingUnit.hasCycleCountedTimers())
+                main.emulator.useCycleCountedTimers(DEFAULT_CYCLES_PER_FRAME);
+            try {
+                centralProcessingUnit.setKeyInput(openMovieRecorder(new File(MOVIE_FILE), centralProcessingUnit));
+                logger.info("Recording movie into " + MOVIE_FILE);
+            } catch (IOException e) {
+                logger.severe(e.getMessage());
+            }
+        }
+
+        centralProcessingUnit.setPause(pause);
+    }
+
+    /**
+     * Stops recording the keys and closes the movie file, if a movie is being recorded
+     */
+    public void stopMovieRecording() {
+        CentralProcessingUnit centralProcessingUnit = main.emulator.getCentralProcessingUnit();
+        if (!(centralProcessingUnit.getKeyInput() instanceof MovieRecorder)) return;
+
+        boolean pause = centralProcessingUnit.isPause();
+        centralProcessingUnit.setPause(true);
+
+        MovieRecorder movieRecorder = (MovieRecorder) centralProcessingUnit.getKeyInput();
+        centralProcessingUnit.setKeyInput(null);
+        try {
+            movieRecorder.close();
+            logger.info("Recorded " + movieRecorder.getLength() + " instructions and " + movieRecorder.getChanges()
+                    + " key changes into " + MOVIE_FILE);
+        } catch (IOException e) {
+            logger.severe(e.getMessage());
+        }
+
+        centralProcessingUnit.setPause(pause);
+    }
+
     public void openControlConfigurationWindow(ActionEvent actionEvent) {
         main.emulator.getCentralProcessingUnit().setPause(true);
         main.emulator.setKeyConfiguration(ConfigureWindow.configureControls(main.emulator));
@@ -90,7 +90,9 @@ public final class ConfigureController {
     }
 
     private void insertIntoKeyHashMap(String keyCodeString, String keyName, int emulatorKeyCode) {
-        keyHashMap.put(getKeyCode(keyCodeString), createEmulatorKey(keyName, () -> emulator.getCentralProcessingUnit().setKeyCode(emulatorKeyCode)));
+        keyHashMap.put(getKeyCode(keyCodeString), createEmulatorKey(keyName,
+                () -> emulator.getCentralProcessingUnit().pressKey(emulatorKeyCode),
+                () -> emulator.getCentralProcessingUnit().releaseKey(emulatorKeyCode)));
     }
 
     public void setup(Emulator emulator) {
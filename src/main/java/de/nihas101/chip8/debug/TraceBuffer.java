@@ -0,0 +1,152 @@
+package de.nihas101.chip8.debug;
+
+import static de.nihas101.chip8.utils.OpCodeStringFactory.createOpCodeString;
+import static java.lang.String.format;
+
+/**
+ * A class representing a ring buffer of the last executed instructions, each one stored as two longs:
+ * the cycle it was executed in, its address and its opcode, followed by the values of I, VX and VF after executing it.
+ * Nothing is rendered to text until an entry is read as text.
+ * A {@link TraceBuffer} is written by a single thread, reading it while it is written may return mixed entries
+ */
+public class TraceBuffer {
+    /**
+     * The default number of recorded instructions, about one second at 1000 instructions per second
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final long[] entries;
+    private final int capacity;
+    private long recorded = 0;
+
+    private TraceBuffer(int capacity) {
+        this.capacity = capacity;
+        this.entries = new long[capacity * 2];
+    }
+
+    /**
+     * Creates a {@link TraceBuffer}
+     *
+     * @param capacity The number of instructions that are kept
+     * @return The created {@link TraceBuffer}
+     */
+    public static TraceBuffer createTraceBuffer(int capacity) {
+        if (capacity < 1 || capacity > Integer.MAX_VALUE / 2)
+            throw new IllegalArgumentException("The capacity has to be between 1 and "
+                    + Integer.MAX_VALUE / 2 + ": " + capacity);
+
+        return new TraceBuffer(capacity);
+    }
+
+    /**
+     * Records an executed instruction, replacing the oldest one if the buffer is full
+     *
+     * @param cycle           The number of instructions executed before it
+     * @param address         The address of the instruction
+     * @param opCode          The opcode of the instruction
+     * @param addressRegister The value of the address register I after executing the instruction
+     * @param registerX       The value of the register VX of the opcode after executing the instruction
+     * @param registerF       The value of the flag register VF after executing the instruction
+     */
+    public void record(int cycle, int address, int opCode, int addressRegister, int registerX, int registerF) {
+        int index = (int) (recorded++ % capacity) * 2;
+
+        entries[index] = ((long) cycle << 32) | ((address & 0xFFFFL) << 16) | (opCode & 0xFFFF);
+        entries[index + 1] = ((addressRegister & 0xFFFFL) << 16) | ((registerX & 0xFF) << 8) | (registerF & 0xFF);
+    }
+
+    /**
+     * Removes all recorded instructions
+     */
+    public void clear() {
+        recorded = 0;
+    }
+
+    /**
+     * Returns the number of instructions that can be read
+     *
+     * @return The number of kept instructions, at most the capacity
+     */
+    public int getSize() {
+        return (int) Math.min(recorded, capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of instructions recorded since the buffer was created or cleared
+     *
+     * @return The number of recorded instructions, including the ones that were replaced
+     */
+    public long getRecorded() {
+        return recorded;
+    }
+
+    public int getCycle(int index) {
+        return (int) (first(index) >>> 32);
+    }
+
+    public int getAddress(int index) {
+        return (int) (first(index) >>> 16) & 0xFFFF;
+    }
+
+    public int getOpCode(int index) {
+        return (int) first(index) & 0xFFFF;
+    }
+
+    public int getAddressRegister(int index) {
+        return (int) (second(index) >>> 16) & 0xFFFF;
+    }
+
+    public int getRegisterX(int index) {
+        return (int) (second(index) >>> 8) & 0xFF;
+    }
+
+    public int getRegisterF(int index) {
+        return (int) second(index) & 0xFF;
+    }
+
+    private long first(int index) {
+        return entries[entryIndex(index)];
+    }
+
+    private long second(int index) {
+        return entries[entryIndex(index) + 1];
+    }
+
+    /**
+     * Translates the index of an entry, the oldest one having index 0, into the index of its first long
+     */
+    private int entryIndex(int index) {
+        int size = getSize();
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Entry " + index + " is out of bounds (0 - " + (size - 1) + ")");
+
+        return (int) ((recorded - size + index) % capacity) * 2;
+    }
+
+    /**
+     * Renders a recorded instruction as text
+     *
+     * @param index The index of the instruction, the oldest one having index 0
+     * @return The instruction as text, e.g. "12: 0x200 6a02 -> Va = 2 (I=0x0, Va=0x2, VF=0x0)"
+     */
+    public String toString(int index) {
+        int opCode = getOpCode(index);
+        return format("%d: 0x%x %s (I=0x%x, V%x=0x%x, VF=0x%x)", Integer.toUnsignedLong(getCycle(index)),
+                getAddress(index), createOpCodeString(opCode), getAddressRegister(index), (opCode >> 8) & 0xF,
+                getRegisterX(index), getRegisterF(index));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+        for (int index = 0; index < getSize(); index++) stringBuilder.append(toString(index)).append("\n");
+        return stringBuilder.toString();
+    }
+}
@@ -0,0 +1,128 @@
+package de.nihas101.chip8.debug;
+
+import java.io.File;
+import java.io.IOException;
+
+import static de.nihas101.chip8.debug.TraceReader.openTraceReader;
+import static de.nihas101.chip8.utils.Constants.REGISTER_LENGTH;
+
+/**
+ * A class comparing two trace files written by {@link TraceRecorder}s record by record and reporting
+ * the first record in which they diverge, together with the last record both have in common.
+ * Both traces are streamed side by side, so the comparison takes time linear in their length and constant memory
+ */
+public final class TraceDiff {
+    private final long divergentRecord;
+    private final String report;
+
+    private TraceDiff(long divergentRecord, String report) {
+        this.divergentRecord = divergentRecord;
+        this.report = report;
+    }
+
+    /**
+     * Compares two trace files
+     *
+     * @param expectedTrace The trace of the reference run
+     * @param actualTrace   The trace of the run to check
+     * @return The {@link TraceDiff} describing the first divergence, if there is one
+     * @throws IOException If a trace file can't be read
+     */
+    public static TraceDiff compare(File expectedTrace, File actualTrace) throws IOException {
+        try (TraceReader expected = openTraceReader(expectedTrace);
+             TraceReader actual = openTraceReader(actualTrace)) {
+            while (true) {
+                boolean expectedHasNext = expected.next();
+                boolean actualHasNext = actual.next();
+
+                if (!expectedHasNext && !actualHasNext)
+                    return new TraceDiff(-1, "The traces are identical (" + (expected.getIndex() + 1) + " records)");
+                if (!expectedHasNext || !actualHasNext || !expected.recordEquals(actual))
+                    return new TraceDiff(Math.max(expected.getIndex(), actual.getIndex()),
+                            createReport(expected, expectedHasNext, actual, actualHasNext));
+            }
+        }
+    }
+
+    private static String createReport(TraceReader expected, boolean expectedHasNext,
+                                       TraceReader actual, boolean actualHasNext) {
+        TraceReader diverging = expectedHasNext ? expected : actual;
+        StringBuilder stringBuilder = new StringBuilder();
+
+        stringBuilder.append("First divergence at record #").append(diverging.getIndex()).append("\n\n");
+        stringBuilder.append("Last common record:\n").append(diverging.previousToString()).append("\n\n");
+        appendRecord(stringBuilder, expected, expectedHasNext);
+        appendRecord(stringBuilder, actual, actualHasNext);
+        if (expectedHasNext && actualHasNext)
+            stringBuilder.append("Differences: ").append(differences(expected, actual)).append("\n");
+
+        return stringBuilder.toString();
+    }
+
+    private static void appendRecord(StringBuilder stringBuilder, TraceReader traceReader, boolean hasNext) {
+        stringBuilder.append(traceReader.getTraceFile().getName()).append(":\n");
+        if (hasNext) stringBuilder.append(traceReader).append("\n\n");
+        else stringBuilder.append("Ends after ").append(traceReader.getIndex() + 1).append(" records\n\n");
+    }
+
+    private static String differences(TraceReader expected, TraceReader actual) {
+        StringBuilder stringBuilder = new StringBuilder();
+
+        appendIfDifferent(stringBuilder, "cycle", expected.getCycle(), actual.getCycle());
+        appendIfDifferent(stringBuilder, "address", expected.getAddress(), actual.getAddress());
+        appendIfDifferent(stringBuilder, "opcode", expected.getOpCode(), actual.getOpCode());
+        appendIfDifferent(stringBuilder, "I", expected.getAddressRegister(), actual.getAddressRegister());
+        appendIfDifferent(stringBuilder, "delay", expected.getDelayTimer(), actual.getDelayTimer());
+        appendIfDifferent(stringBuilder, "sound", expected.getSoundTimer(), actual.getSoundTimer());
+        appendIfDifferent(stringBuilder, "stack", expected.getStackSize(), actual.getStackSize());
+        for (int register = 0; register < REGISTER_LENGTH; register++)
+            appendIfDifferent(stringBuilder, "V" + Integer.toHexString(register),
+                    expected.getRegister(register), actual.getRegister(register));
+
+        return stringBuilder.toString().trim();
+    }
+
+    private static void appendIfDifferent(StringBuilder stringBuilder, String name, int expected, int actual) {
+        if (expected != actual)
+            stringBuilder.append(name).append(" (0x").append(Integer.toHexString(expected))
+                    .append(" != 0x").append(Integer.toHexString(actual)).append(") ");
+    }
+
+    /**
+     * Compares two trace files and prints the first divergence
+     *
+     * @param args The paths of the expected and the actual trace file
+     * @throws IOException If a trace file can't be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: TraceDiff <expected trace> <actual trace>");
+            System.exit(2);
+        }
+
+        TraceDiff traceDiff = compare(new File(args[0]), new File(args[1]));
+        System.out.println(traceDiff);
+        if (traceDiff.isDivergent()) System.exit(1);
+    }
+
+    public boolean isDivergent() {
+        return divergentRecord >= 0;
+    }
+
+    /**
+     * Returns the index of the first record that differs
+     *
+     * @return The index, or -1 if the traces are identical
+     */
+    public long getDivergentRecord() {
+        return divergentRecord;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return report;
+    }
+}
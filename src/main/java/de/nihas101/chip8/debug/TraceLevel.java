@@ -0,0 +1,21 @@
+package de.nihas101.chip8.debug;
+
+/**
+ * The amount of information a {@link de.nihas101.chip8.hardware.CentralProcessingUnit} records about the instructions
+ * it executes
+ */
+public enum TraceLevel {
+    /**
+     * Only the last executed opcode is kept, its text is rendered when it is read
+     */
+    OFF,
+    /**
+     * Every executed instruction is recorded into a {@link TraceBuffer}
+     */
+    BINARY,
+    /**
+     * Like {@link #BINARY}, but every instruction is also logged as text if the logger of the
+     * {@link de.nihas101.chip8.hardware.CentralProcessingUnit} is enabled for {@link java.util.logging.Level#FINE}
+     */
+    TEXT
+}
@@ -0,0 +1,205 @@
+package de.nihas101.chip8.debug;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static de.nihas101.chip8.debug.TraceRecorder.*;
+import static de.nihas101.chip8.utils.Constants.REGISTER_LENGTH;
+import static de.nihas101.chip8.utils.OpCodeStringFactory.createOpCodeString;
+import static java.lang.String.format;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * A class reading the records of a trace file written by a {@link TraceRecorder} one after another,
+ * through a buffer of a fixed size, so traces of any length can be read with constant memory
+ */
+public class TraceReader implements Closeable {
+    private static final int BUFFER_RECORDS = 2048;
+
+    private final File traceFile;
+    private final FileChannel fileChannel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_SIZE);
+    /* Copies of the current and the previous record */
+    private ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private ByteBuffer previousRecord = ByteBuffer.allocate(RECORD_SIZE);
+    private long index = -1;
+
+    private TraceReader(File traceFile, FileChannel fileChannel) {
+        this.traceFile = traceFile;
+        this.fileChannel = fileChannel;
+        buffer.limit(0);
+    }
+
+    /**
+     * Opens a trace file
+     *
+     * @param traceFile The file to read from
+     * @return The opened {@link TraceReader}, positioned before the first record
+     * @throws IOException If the file can't be opened or isn't a trace file
+     */
+    public static TraceReader openTraceReader(File traceFile) throws IOException {
+        FileChannel fileChannel = FileChannel.open(traceFile.toPath(), READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining())
+                if (fileChannel.read(header) < 0) break;
+            header.flip();
+
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getShort() != VERSION
+                    || header.getShort() != RECORD_SIZE)
+                throw new IOException(traceFile.getAbsolutePath() + " is not a trace file");
+        } catch (IOException | RuntimeException e) {
+            fileChannel.close();
+            throw e;
+        }
+
+        return new TraceReader(traceFile, fileChannel);
+    }
+
+    /**
+     * Advances to the next record
+     *
+     * @return False if there are no more records
+     * @throws IOException If reading the file fails
+     */
+    public boolean next() throws IOException {
+        if (buffer.remaining() < RECORD_SIZE && !fill()) return false;
+
+        ByteBuffer next = buffer.duplicate();
+        next.limit(next.position() + RECORD_SIZE);
+        ByteBuffer swap = previousRecord;
+        previousRecord = record;
+        record = swap;
+        record.clear();
+        record.put(next).clear();
+        buffer.position(buffer.position() + RECORD_SIZE);
+
+        index++;
+        return true;
+    }
+
+    private boolean fill() throws IOException {
+        buffer.compact();
+        while (buffer.hasRemaining())
+            if (fileChannel.read(buffer) < 0) break;
+        buffer.flip();
+
+        return buffer.remaining() >= RECORD_SIZE;
+    }
+
+    /**
+     * Checks whether the current record equals the current record of another {@link TraceReader}
+     *
+     * @param other The other {@link TraceReader}
+     * @return True if both records are the same
+     */
+    public boolean recordEquals(TraceReader other) {
+        return record.equals(other.record);
+    }
+
+    /**
+     * Returns the index of the current record
+     *
+     * @return The index, the first record having index 0, or -1 before the first call to {@link #next()}
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    public int getCycle() {
+        return record.getInt(0);
+    }
+
+    public int getAddress() {
+        return Short.toUnsignedInt(record.getShort(4));
+    }
+
+    public int getOpCode() {
+        return Short.toUnsignedInt(record.getShort(6));
+    }
+
+    public int getAddressRegister() {
+        return Short.toUnsignedInt(record.getShort(8));
+    }
+
+    public int getDelayTimer() {
+        return Byte.toUnsignedInt(record.get(10));
+    }
+
+    public int getSoundTimer() {
+        return Byte.toUnsignedInt(record.get(11));
+    }
+
+    /**
+     * Returns the registers the instruction changed
+     *
+     * @return A mask with one bit per register, the bit of V0 being the least significant one
+     */
+    public int getChangedRegisters() {
+        return Short.toUnsignedInt(record.getShort(12));
+    }
+
+    public int getStackSize() {
+        return Byte.toUnsignedInt(record.get(14));
+    }
+
+    public int getRegister(int register) {
+        if (register < 0 || register >= REGISTER_LENGTH)
+            throw new IndexOutOfBoundsException("Register " + register + " is out of bounds (0 - "
+                    + (REGISTER_LENGTH - 1) + ")");
+
+        return Byte.toUnsignedInt(record.get(16 + register));
+    }
+
+    public File getTraceFile() {
+        return traceFile;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return toString(record, index);
+    }
+
+    /**
+     * Renders the record before the current one, e.g. as context for the current one
+     *
+     * @return The previous record as text
+     */
+    public String previousToString() {
+        return toString(previousRecord, index - 1);
+    }
+
+    /**
+     * Renders a record, registers changed by its instruction being marked with "*"
+     */
+    private static String toString(ByteBuffer record, long index) {
+        if (index < 0) return "No record";
+
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(format("#%d cycle %d: 0x%x %s\n", index, Integer.toUnsignedLong(record.getInt(0)),
+                Short.toUnsignedInt(record.getShort(4)), createOpCodeString(Short.toUnsignedInt(record.getShort(6)))));
+        stringBuilder.append(format("I=0x%x delay=%d sound=%d stack=%d\n", Short.toUnsignedInt(record.getShort(8)),
+                Byte.toUnsignedInt(record.get(10)), Byte.toUnsignedInt(record.get(11)),
+                Byte.toUnsignedInt(record.get(14))));
+
+        int changedRegisters = Short.toUnsignedInt(record.getShort(12));
+        for (int register = 0; register < REGISTER_LENGTH; register++) {
+            boolean changed = (changedRegisters & (1 << register)) != 0;
+            stringBuilder.append(format("V%x=%02x%s ", register, Byte.toUnsignedInt(record.get(16 + register)),
+                    changed ? "*" : ""));
+        }
+
+        return stringBuilder.toString().trim();
+    }
+
+    @Override
+    public void close() throws IOException {
+        fileChannel.close();
+    }
+}
@@ -0,0 +1,140 @@
+package de.nihas101.chip8.debug;
+
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
+import de.nihas101.chip8.hardware.memory.Registers;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static de.nihas101.chip8.utils.Constants.REGISTER_LENGTH;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * A class recording every instruction a {@link CentralProcessingUnit} executes into an append-only trace file.
+ * The file is memory-mapped in chunks, so recording an instruction only writes into the mapped region.
+ * The file starts with a header consisting of the magic number "C8TR", the version and the size of a record,
+ * followed by one record per instruction:
+ * the cycle, the address, the opcode, I, the delay timer, the sound timer, a mask of the registers that changed
+ * since the previous record, the depth of the stack and the values of all registers after executing the instruction.
+ * A {@link TraceRecorder} is meant to be used by a single thread, see {@link TraceReader} for reading the file
+ */
+public class TraceRecorder implements Closeable {
+    /**
+     * The first four bytes of a trace file, "C8TR"
+     */
+    public static final int MAGIC = 0x43385452;
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + Short.BYTES;
+    public static final int RECORD_SIZE = 32;
+
+    /* The number of records mapped at once */
+    private static final int CHUNK_RECORDS = 32 * 1024;
+
+    private final FileChannel fileChannel;
+    private MappedByteBuffer chunk;
+    private long records = 0;
+    private final int[] registers = new int[REGISTER_LENGTH];
+
+    private TraceRecorder(FileChannel fileChannel) {
+        this.fileChannel = fileChannel;
+    }
+
+    /**
+     * Creates a trace file, replacing an existing one
+     *
+     * @param traceFile The file to record into
+     * @return The opened {@link TraceRecorder}
+     * @throws IOException If the file can't be created
+     */
+    public static TraceRecorder openTraceRecorder(File traceFile) throws IOException {
+        FileChannel fileChannel = FileChannel.open(traceFile.toPath(), READ, WRITE, CREATE, TRUNCATE_EXISTING);
+        TraceRecorder traceRecorder = new TraceRecorder(fileChannel);
+
+        try {
+            traceRecorder.mapChunk();
+        } catch (IOException e) {
+            fileChannel.close();
+            throw e;
+        }
+        traceRecorder.chunk.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE);
+
+        return traceRecorder;
+    }
+
+    /**
+     * Records an executed instruction together with the state of the {@link CentralProcessingUnit} after executing it
+     *
+     * @param cycle   The number of instructions executed before it
+     * @param address The address of the instruction
+     * @param opCode  The opcode of the instruction
+     * @param cpu     The {@link CentralProcessingUnit} that executed the instruction
+     * @throws UncheckedIOException If the next chunk of the file can't be mapped
+     */
+    public void record(int cycle, int address, int opCode, CentralProcessingUnit cpu) {
+        if (chunk.remaining() < RECORD_SIZE) {
+            try {
+                mapChunk();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        Registers cpuRegisters = cpu.getRegisters();
+        int changedRegisters = 0;
+        for (int register = 0; register < REGISTER_LENGTH; register++) {
+            int value = cpuRegisters.peekUnsigned(register);
+            if (value != registers[register]) changedRegisters |= 1 << register;
+            registers[register] = value;
+        }
+
+        chunk.putInt(cycle)
+                .putShort((short) address)
+                .putShort((short) opCode)
+                .putShort((short) cpu.getAddressRegister().getAddressUnsigned())
+                .put((byte) cpu.getDelayTimer().getValue())
+                .put((byte) cpu.getSoundTimer().getValue())
+                .putShort((short) changedRegisters)
+                .put((byte) cpu.getStack().getSize())
+                .put((byte) 0);
+        for (int value : registers) chunk.put((byte) value);
+
+        records++;
+    }
+
+    /**
+     * Maps the region of the file following the records written so far, which grows the file
+     */
+    private void mapChunk() throws IOException {
+        long size = (long) CHUNK_RECORDS * RECORD_SIZE;
+
+        /* The first chunk also holds the header */
+        if (records == 0) chunk = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + size);
+        else chunk = fileChannel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + records * RECORD_SIZE, size);
+    }
+
+    /**
+     * Returns the number of recorded instructions
+     *
+     * @return The number of records in the file
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * Writes the records to the disk, cuts off the unused part of the last chunk and closes the file
+     *
+     * @throws IOException If closing the file fails
+     */
+    @Override
+    public void close() throws IOException {
+        chunk.force();
+        chunk = null;
+        fileChannel.truncate(HEADER_SIZE + records * RECORD_SIZE);
+        fileChannel.close();
+    }
+}
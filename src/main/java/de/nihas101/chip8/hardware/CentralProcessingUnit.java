@@ -1,16 +1,22 @@
 package de.nihas101.chip8.hardware;
 
 import de.nihas101.chip8.debug.Debuggable;
+import de.nihas101.chip8.debug.TraceBuffer;
+import de.nihas101.chip8.debug.TraceLevel;
+import de.nihas101.chip8.debug.TraceRecorder;
+import de.nihas101.chip8.hardware.jit.BlockCompiler;
+import de.nihas101.chip8.hardware.keys.KeyInput;
+import de.nihas101.chip8.hardware.keys.KeyState;
 import de.nihas101.chip8.hardware.memory.*;
 import de.nihas101.chip8.hardware.timers.DelayTimer;
 import de.nihas101.chip8.hardware.timers.SoundTimer;
+import de.nihas101.chip8.opcodes.Instruction;
 import de.nihas101.chip8.opcodes.OPCode;
 import de.nihas101.chip8.opcodes.UnknownOPCodeException;
 import de.nihas101.chip8.unsignedDataTypes.BinaryOperation;
-import de.nihas101.chip8.unsignedDataTypes.UnsignedByte;
-import de.nihas101.chip8.unsignedDataTypes.UnsignedDataType;
 import de.nihas101.chip8.unsignedDataTypes.UnsignedShort;
-import de.nihas101.chip8.utils.RegisterAction;
+import de.nihas101.chip8.utils.RandomAdapter;
+import de.nihas101.chip8.utils.RandomNumberGenerator;
 
 import javax.sound.midi.Instrument;
 import javax.sound.midi.MidiChannel;
@@ -18,10 +24,13 @@ import javax.sound.midi.Synthesizer;
 import java.util.Random;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static de.nihas101.chip8.utils.Constants.HERTZ_60;
-import static de.nihas101.chip8.utils.OpCodeStringFactory.*;
+import static de.nihas101.chip8.utils.Constants.PROGRAM_COUNTER_START;
+import static de.nihas101.chip8.utils.OpCodeStringFactory.createOpCodeString;
+import static de.nihas101.chip8.utils.RandomAdapter.asRandomNumberGenerator;
 import static de.nihas101.chip8.utils.keyConfiguration.Keys.NO_KEY;
 import static java.lang.Integer.toHexString;
 
@@ -37,22 +46,53 @@ public class CentralProcessingUnit implements Debuggable {
     private final ScreenMemory screenMemory;
     private final Synthesizer synthesizer;
 
-    private final Random random;
+    private RandomNumberGenerator random;
 
-    private int keyCode = NO_KEY;
+    private final KeyState keyState = new KeyState();
+    /* The source of the keys the instructions read, or null if they read keyState directly */
+    private KeyInput keyInput = null;
 
     private Timer timer;
 
     private final DelayTimer delayTimer;
     private final SoundTimer soundTimer;
 
+    /* The last executed opcode, or NO_OP_CODE if opCodeString was set instead */
+    private int opCode = NO_OP_CODE;
     private String opCodeString = "";
+    private TraceLevel traceLevel = TraceLevel.OFF;
+    private TraceBuffer traceBuffer = null;
+    private TraceRecorder traceRecorder = null;
+    /* Whether instructions are traced at all, checked before every instruction */
+    private boolean tracing = false;
     private int cycles;
-    private boolean stop = false;
-    private boolean pause = false;
+    private final RunStateMachine runStateMachine = new RunStateMachine(keyState::wakeUp);
+    private boolean blockingInput = true;
+
+    /**
+     * The number of instructions after which the timers are decremented, or 0 if a {@link Timer} decrements them
+     */
+    private int instructionsPerFrame = 0;
+    private int cyclesUntilTimerTick = 0;
+    private long timerTicks = 0;
+    /* The number of executed instructions, which unlike cycles is neither reset nor halted */
+    private long instructions = 0;
+
+    private FrameBuffer frameBuffer = null;
+
+    private ExecutionMode executionMode = ExecutionMode.INTERPRETER;
+    private TranslationCache translationCache = null;
+    private BlockCompiler blockCompiler = null;
 
     private Logger logger = Logger.getLogger(CentralProcessingUnit.class.getName());
 
+    /**
+     * One pre-bound {@link Instruction} for every possible opcode, built once
+     */
+    private static final Instruction[] INSTRUCTIONS = createInstructionTable();
+
+    private static final int NO_OP_CODE = -1;
+
     public CentralProcessingUnit(Memory memory, ScreenMemory screenMemory, Registers registers,
                                  AddressRegister addressRegister, ProgramCounter programCounter,
                                  Chip8Stack chip8Stack, Timer timer, DelayTimer delayTimer, SoundTimer soundTimer,
@@ -64,18 +104,13 @@ public class CentralProcessingUnit implements Debuggable {
 
         this.programCounter = programCounter;
         this.stack = chip8Stack;
-        this.random = random;
+        this.random = asRandomNumberGenerator(random);
 
         this.synthesizer = synthesizer;
 
-        /* Set up timer */
+        /* Set up timer, without one the timers have to be ticked through tickTimers() */
         this.timer = timer;
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                updateTimer();
-            }
-        }, HERTZ_60, HERTZ_60);
+        if (timer != null) scheduleTimer(HERTZ_60);
 
         this.delayTimer = delayTimer;
         this.soundTimer = soundTimer;
@@ -108,17 +143,12 @@ public class CentralProcessingUnit implements Debuggable {
 
         this.programCounter = programCounter;
         this.stack = chip8Stack;
-        this.random = random;
+        this.random = asRandomNumberGenerator(random);
         this.synthesizer = null;
 
-        /* Set up timer */
+        /* Set up timer, without one the timers have to be ticked through tickTimers() */
         this.timer = timer;
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                updateTimer();
-            }
-        }, HERTZ_60, HERTZ_60);
+        if (timer != null) scheduleTimer(HERTZ_60);
 
         this.delayTimer = delayTimer;
         this.soundTimer = soundTimer;
@@ -134,15 +164,21 @@ public class CentralProcessingUnit implements Debuggable {
      * @param factor The factor by which the timers' speed should increase/decrease
      */
     public void changeTimerSpeed(double factor) {
+        if (timer == null) return;
+
         long newSpeed = (long) (HERTZ_60 / factor);
         timer.cancel();
         timer = new Timer();
+        scheduleTimer(newSpeed);
+    }
+
+    private void scheduleTimer(long period) {
         timer.schedule(new TimerTask() {
             @Override
             public void run() {
                 updateTimer();
             }
-        }, newSpeed, newSpeed);
+        }, period, period);
     }
 
     /**
@@ -150,10 +186,11 @@ public class CentralProcessingUnit implements Debuggable {
      */
     public void reset() {
         cycles = 0;
+        cyclesUntilTimerTick = instructionsPerFrame;
         registers.clear();
-        programCounter.jumpTo(new UnsignedShort(0x200));
+        programCounter.jumpTo(PROGRAM_COUNTER_START);
         screenMemory.reset();
-        addressRegister.setAddress(new UnsignedShort(0));
+        addressRegister.setAddress(0);
         delayTimer.reset();
         soundTimer.reset();
         stack.clear();
@@ -171,161 +208,381 @@ public class CentralProcessingUnit implements Debuggable {
         soundTimer.decrementValue();
     }
 
+    /**
+     * Stops the {@link Timer} and decrements both timers from {@link #executeCycles(int)} instead,
+     * once every given number of executed instructions.
+     * Speeding up the emulation therefore speeds up the timers by the same factor
+     *
+     * @param instructionsPerFrame The number of instructions after which the timers are decremented
+     */
+    public void useCycleCountedTimers(int instructionsPerFrame) {
+        if (instructionsPerFrame < 1)
+            throw new IllegalArgumentException("The number of instructions per frame has to be positive: "
+                    + instructionsPerFrame);
+
+        stopTimer();
+        timer = null;
+        this.instructionsPerFrame = instructionsPerFrame;
+        this.cyclesUntilTimerTick = instructionsPerFrame;
+    }
+
+    public boolean hasCycleCountedTimers() {
+        return instructionsPerFrame > 0;
+    }
+
+    public int getInstructionsPerFrame() {
+        return instructionsPerFrame;
+    }
+
+    public int getCyclesUntilTimerTick() {
+        return cyclesUntilTimerTick;
+    }
+
+    /**
+     * Returns how often the cycle-counted timers were decremented
+     *
+     * @return The number of timer ticks
+     */
+    public long getTimerTicks() {
+        return timerTicks;
+    }
+
+    /**
+     * Sets how often the cycle-counted timers were decremented, e.g. when going back to an earlier frame
+     *
+     * @param timerTicks The number of timer ticks
+     */
+    public void setTimerTicks(long timerTicks) {
+        this.timerTicks = timerTicks;
+    }
+
+    /**
+     * Decrements both timers once, for {@link CentralProcessingUnit}s that were created without a {@link Timer}
+     * and are driven by their caller instead
+     */
+    public void tickTimers() {
+        updateTimer();
+    }
+
     /**
      * Fetches the next opcode from the hardware
      *
      * @throws UnknownOPCodeException Thrown if the given opcode is unknown
      */
     public void decodeNextOpCode() throws UnknownOPCodeException {
-        OPCode opCode = getNextOpCode();
-        opCodeString = toHexString(opCode.getOpCode()) + " -> ";
-        decodeOpCode(opCode);
-        if (!stop && !pause && cycles < Integer.MAX_VALUE) cycles++;
+        executeOpCode(getNextOpCode());
+        instructions++;
+        if (!isHalted() && cycles < Integer.MAX_VALUE) cycles++;
     }
 
     /**
-     * Decodes an opcode and executes the appropriate instruction
+     * Executes an opcode without fetching it, the {@link ProgramCounter} has to point to the next instruction already
+     *
+     * @param opCode The opcode to execute
+     * @throws UnknownOPCodeException Thrown if the given opcode is unknown
+     */
+    public void executeOpCode(int opCode) throws UnknownOPCodeException {
+        this.opCode = opCode;
+        if (!tracing) INSTRUCTIONS[opCode].execute(this);
+        else executeTraced(INSTRUCTIONS[opCode], opCode);
+    }
+
+    /**
+     * Executes an instruction and records it, the {@link ProgramCounter} has to point to the next instruction already
+     *
+     * @param instruction The {@link Instruction} to execute
+     * @param opCode      The opcode of the instruction
+     * @throws UnknownOPCodeException Thrown if the given opcode is unknown
+     */
+    private void executeTraced(Instruction instruction, int opCode) throws UnknownOPCodeException {
+        int address = (programCounter.getCounterUnsigned() - 2) & 0xFFFF;
+        instruction.execute(this);
+
+        if (traceLevel != TraceLevel.OFF) {
+            traceBuffer.record(cycles, address, opCode, addressRegister.getAddressUnsigned(),
+                    registers.peekUnsigned((opCode >> 8) & 0xF), registers.peekUnsigned(0xF));
+            if (traceLevel == TraceLevel.TEXT && logger.isLoggable(Level.FINE))
+                logger.fine(traceBuffer.toString(traceBuffer.getSize() - 1));
+        }
+        if (traceRecorder != null) traceRecorder.record(cycles, address, opCode, this);
+    }
+
+    /**
+     * Executes up to the given number of instructions, using the current {@link ExecutionMode},
+     * and decrements the timers if they are cycle-counted
+     *
+     * @param maxCycles The maximum number of instructions to execute
+     * @return The number of instructions that were executed
+     * @throws UnknownOPCodeException Thrown if an unknown opcode is encountered
+     */
+    public int executeCycles(int maxCycles) throws UnknownOPCodeException {
+        if (instructionsPerFrame == 0) return executeUntimedCycles(maxCycles);
+
+        /* Never execute past the next timer tick, so the timers are decremented at exact cycle counts */
+        int executed = executeUntimedCycles(Math.min(maxCycles, cyclesUntilTimerTick));
+        cyclesUntilTimerTick -= executed;
+        if (cyclesUntilTimerTick <= 0) {
+            updateTimer();
+            timerTicks++;
+            cyclesUntilTimerTick = instructionsPerFrame;
+            publishFrame();
+        }
+
+        return executed;
+    }
+
+    private int executeUntimedCycles(int maxCycles) throws UnknownOPCodeException {
+        if (translationCache != null) {
+            TranslationCache.Block block = translationCache.lookup(programCounter.getCounterUnsigned());
+            if (block != null && blockCompiler != null) return executeHotBlock(block, maxCycles);
+            if (block != null) return executeBlock(block, maxCycles);
+        }
+
+        decodeNextOpCode();
+        return 1;
+    }
+
+    /**
+     * Executes the instructions of a cached block, stopping early if the block is
+     * invalidated by one of its own instructions
+     *
+     * @param block     The block to execute
+     * @param maxCycles The maximum number of instructions to execute
+     * @return The number of instructions that were executed
+     * @throws UnknownOPCodeException Thrown if an unknown opcode is encountered
+     */
+    private int executeBlock(TranslationCache.Block block, int maxCycles) throws UnknownOPCodeException {
+        int length = Math.min(block.length, maxCycles);
+        int executed = 0;
+
+        while (executed < length && block.valid) {
+            int opCode = block.opCodes[executed];
+            programCounter.incrementCounterN(2);
+            this.opCode = opCode;
+            if (!tracing) block.instructions[executed++].execute(this);
+            else executeTraced(block.instructions[executed++], opCode);
+            instructions++;
+            if (!isHalted() && cycles < Integer.MAX_VALUE) cycles++;
+        }
+
+        return executed;
+    }
+
+    /**
+     * Counts the executions of a cached block, compiling it once it reaches the threshold of the {@link BlockCompiler}.
+     * Blocks that are not compiled are executed by {@link #executeBlock}, compiled blocks that do not fit into
+     * the remaining cycles return once the cycles are used up
+     *
+     * @param block     The block to execute
+     * @param maxCycles The maximum number of instructions to execute
+     * @return The number of instructions that were executed
+     * @throws UnknownOPCodeException Thrown if an unknown opcode is encountered
+     */
+    private int executeHotBlock(TranslationCache.Block block, int maxCycles) throws UnknownOPCodeException {
+        if (block.compiledBlock == null && ++block.executions == blockCompiler.getThreshold())
+            block.compiledBlock = blockCompiler.compile(block);
+
+        /* Compiled blocks can't record the single instructions they execute, nor count them for a KeyInput */
+        if (block.compiledBlock == null || tracing || keyInput != null)
+            return executeBlock(block, maxCycles);
+
+        int executed = block.compiledBlock.execute(this, registers, addressRegister, programCounter, block,
+                maxCycles);
+        if (executed > 0) opCode = block.opCodes[executed - 1];
+        instructions += executed;
+        if (!isHalted()) cycles = (int) Math.min((long) cycles + executed, Integer.MAX_VALUE);
+        return executed;
+    }
+
+    /**
+     * Returns the pre-bound {@link Instruction} executing the given opcode
+     *
+     * @param opCode The opcode
+     * @return The {@link Instruction} executing the opcode
+     */
+    static Instruction instructionFor(int opCode) {
+        return INSTRUCTIONS[opCode];
+    }
+
+    /**
+     * Creates the table of pre-bound {@link Instruction}s for every possible opcode
+     *
+     * @return The table, indexed by the opcode
+     */
+    private static Instruction[] createInstructionTable() {
+        Instruction[] instructions = new Instruction[0x10000];
+        for (int opCode = 0; opCode < instructions.length; opCode++)
+            instructions[opCode] = decodeOpCode(new OPCode(opCode));
+        return instructions;
+    }
+
+    /**
+     * Decodes an opcode into the {@link Instruction} executing it, with its operands already extracted
      * See en.wikipedia.org/wiki/CHIP-8#Opcode_table for a breakdown of the codes
      *
      * @param opCode The opcode to be decoded
-     * @throws UnknownOPCodeException Thrown if the given opcode is unknown
+     * @return The {@link Instruction} executing the opcode
      */
-    private void decodeOpCode(OPCode opCode) throws UnknownOPCodeException {
+    private static Instruction decodeOpCode(OPCode opCode) {
+        /* Extract X, Y, N, NN and NNN from opCode */
+        int X = opCode.getByte(1);
+        int Y = opCode.getByte(2);
+        int N = opCode.getByte(3);
+        int NN = opCode.applyMask(0x00FF);
+        int NNN = opCode.applyMask(0x0FFF);
+
         switch (opCode.getByte(0)) {
             case 0x0:
-                opCode0XYZ(opCode);
-                break;
+                return opCode0XYZ(opCode);
             case 0x1:
-                gotoOp(opCode.applyMask(0x0FFF));
-                break;
+                return cpu -> cpu.gotoOp(NNN);
             case 0x2:
-                callSubRoutine(opCode.applyMask(0x0FFF));
-                break;
-            case 0x3: {
-                /* Extract X and NN from opCode */
-                skipIfEqual(opCode.getByte(1), new UnsignedByte(opCode.applyMask(0x00FF)));
-                break;
-            }
-            case 0x4: {
-                /* Extract X and NN from opCode */
-                skipIfNotEqual(opCode.getByte(1), new UnsignedByte(opCode.applyMask(0x00FF)));
-                break;
-            }
+                return cpu -> cpu.callSubRoutine(NNN);
+            case 0x3:
+                return cpu -> cpu.skipIfEqual(X, NN);
+            case 0x4:
+                return cpu -> cpu.skipIfNotEqual(X, NN);
             case 0x5:
-                skipIfEqualReg(opCode.getByte(1), opCode.getByte(2));
-                break;
-            case 0x6: {
-                /* Extract X and NN from opCode */
-                setRegister(opCode.getByte(1), new UnsignedByte(opCode.applyMask(0x00FF)));
-                break;
-            }
-            case 0x7: {
-                /* Extract X and NN from opCode */
-                addRegister(opCode.getByte(1), new UnsignedByte(opCode.applyMask(0x00FF)));
-                break;
-            }
+                return cpu -> cpu.skipIfEqualReg(X, Y);
+            case 0x6:
+                return cpu -> cpu.setRegister(X, NN);
+            case 0x7:
+                return cpu -> cpu.addRegister(X, NN);
             case 0x8:
-                opCode8XYN(opCode);
-                break;
+                return opCode8XYN(opCode, X, Y);
             case 0x9:
-                skipIfNotEqualReg(opCode.getByte(1), opCode.getByte(2));
-                break;
+                return cpu -> cpu.skipIfNotEqualReg(X, Y);
             case 0xA:
-                setAddress(new UnsignedShort(opCode.applyMask(0x0FFF)));
-                break;
+                return cpu -> cpu.setAddress(NNN);
             case 0xB:
-                setPC(new UnsignedShort(opCode.applyMask(0x0FFF)));
-                break;
+                return cpu -> cpu.setPC(NNN);
             case 0xC:
-                randomAND(opCode.getByte(1), new UnsignedByte(opCode.applyMask(0x00FF)));
-                break;
+                return cpu -> cpu.randomAND(X, NN);
             case 0xD:
-                drawSprite(opCode.getByte(1), opCode.getByte(2), opCode.getByte(3));
-                break;
+                return cpu -> cpu.drawSprite(X, Y, N);
             case 0xE:
-                opCodeEXYZ(opCode);
-                break;
-            case 0xF:
-                opCodeFXYZ(opCode);
-                break;
-            default:
-                throw new UnknownOPCodeException(opCode);
+                return opCodeEXYZ(opCode, X);
+            default: // 0xF
+                return opCodeFXYZ(opCode, X);
         }
     }
 
     /**
-     * Further decodes {@link OPCode} instances that begin with 0xF
+     * Further decodes {@link OPCode} instances beginning with 0x0
      *
      * @param opCode The {@link OPCode} to be decoded
-     * @throws UnknownOPCodeException If an unknown {@link OPCode} is encountered
+     * @return The {@link Instruction} executing the opcode
      */
-    private void opCodeFXYZ(OPCode opCode) throws UnknownOPCodeException {
-        switch (opCode.getByte(2)) {
+    private static Instruction opCode0XYZ(OPCode opCode) {
+        if (opCode.getByte(1) == 0x0) {
+            if (opCode.getByte(3) == 0) return CentralProcessingUnit::clearScreen;
+            else return CentralProcessingUnit::returnFromSubRoutine;
+        }
+        /* Call RCA 1802 program at address NNN. Not necessary for most ROMs. */
+        return unknownOpCode("RCA 1802 is not  supported: " + toHexString(opCode.getOpCode()));
+    }
+
+    /**
+     * Further decodes {@link OPCode} instances beginning with 0x8
+     *
+     * @param opCode The {@link OPCode} to be decoded
+     * @param X      The X operand of the opcode
+     * @param Y      The Y operand of the opcode
+     * @return The {@link Instruction} executing the opcode
+     */
+    private static Instruction opCode8XYN(OPCode opCode, int X, int Y) {
+        switch (opCode.getByte(3)) {
             case 0x0:
-                opCodeFX0Y(opCode);
-                break;
+                return cpu -> cpu.assign(X, Y);
             case 0x1:
-                opCodeFX1Y(opCode);
-                break;
+                return cpu -> cpu.assignLogicOperation((x, y) -> x | y, X, Y);
             case 0x2:
-                gotoSpriteAddress(opCode.getByte(1));
-                break;
+                return cpu -> cpu.assignLogicOperation((x, y) -> x & y, X, Y);
             case 0x3:
-                opCodeFX3Y(opCode);
-                break;
+                return cpu -> cpu.assignLogicOperation((x, y) -> x ^ y, X, Y);
+            case 0x4:
+                return cpu -> cpu.assignSum(X, Y);
             case 0x5:
-                opCodeFX5Y(opCode);
-                break;
+                return cpu -> cpu.assignDifference(X, Y, X);
             case 0x6:
-                opCodeFX6Y(opCode);
-                break;
+                return cpu -> cpu.shiftRight(X);
+            case 0x7:
+                return cpu -> cpu.assignDifference(Y, X, X);
+            case 0xE:
+                return cpu -> cpu.shiftLeft(X);
             default:
-                throw new UnknownOPCodeException(opCode);
+                return unknownOpCode(opCode);
         }
     }
 
     /**
-     * Sets the address register to the sprite for the character
-     * in VX
+     * Further decodes {@link OPCode} instances beginning with 0xE
      *
-     * @param Vx The register holding the character
+     * @param opCode The {@link OPCode} to be decoded
+     * @param X      The X operand of the opcode
+     * @return The {@link Instruction} executing the opcode
      */
-    private void gotoSpriteAddress(int Vx) {
-        opCodeString += "I=sprite_addr[" + toHexString(Vx) + "]";
-        int address = this.registers.peek(Vx).apply(x -> x * 5).unsignedDataType;
-        this.addressRegister.setAddress(new UnsignedShort(address));
+    private static Instruction opCodeEXYZ(OPCode opCode, int X) {
+        switch (opCode.getByte(2)) {
+            case 0x9:
+                return cpu -> cpu.skipIfKeyPressed(X);
+            case 0xA:
+                return cpu -> cpu.skipIfKeyNotPressed(X);
+            default:
+                return unknownOpCode(opCode);
+        }
     }
 
     /**
-     * Further decodes {@link OPCode} instances that in the form 0xF_6_
+     * Further decodes {@link OPCode} instances beginning with 0xF
      *
      * @param opCode The {@link OPCode} to be decoded
-     * @throws UnknownOPCodeException If an unknown {@link OPCode} is encountered
+     * @param X      The X operand of the opcode
+     * @return The {@link Instruction} executing the opcode
      */
-    private void opCodeFX6Y(OPCode opCode) throws UnknownOPCodeException {
-        switch (opCode.getByte(3)) {
-            case 0x5:
-                loadReg(opCode.getByte(1));
-                break;
+    private static Instruction opCodeFXYZ(OPCode opCode, int X) {
+        switch (opCode.applyMask(0x00FF)) {
+            case 0x07:
+                return cpu -> cpu.getDelayTimer(X);
+            case 0x0A:
+                return cpu -> cpu.waitForInput(X);
+            case 0x15:
+                return cpu -> cpu.setDelayTimer(X);
+            case 0x18:
+                return cpu -> cpu.setSoundTimer(X);
+            case 0x1E:
+                return cpu -> cpu.setAddressReg(X);
+            case 0x33:
+                return cpu -> cpu.storeBinaryCodedDecimals(X);
+            case 0x55:
+                return cpu -> cpu.dumpReg(X);
+            case 0x65:
+                return cpu -> cpu.loadReg(X);
             default:
-                throw new UnknownOPCodeException(opCode);
+                if (opCode.getByte(2) == 0x2) return cpu -> cpu.gotoSpriteAddress(X);
+                return unknownOpCode(opCode);
         }
     }
 
+    private static Instruction unknownOpCode(OPCode opCode) {
+        return unknownOpCode(new UnknownOPCodeException(opCode).getMessage());
+    }
+
+    private static Instruction unknownOpCode(String message) {
+        return cpu -> {
+            throw new UnknownOPCodeException(message);
+        };
+    }
+
     /**
-     * Further decodes {@link OPCode} instances that in the form 0xF_5_
+     * Sets the address register to the sprite for the character
+     * in VX
      *
-     * @param opCode The {@link OPCode} to be decoded
-     * @throws UnknownOPCodeException If an unknown {@link OPCode} is encountered
+     * @param Vx The register holding the character
      */
-    private void opCodeFX5Y(OPCode opCode) throws UnknownOPCodeException {
-        switch (opCode.getByte(3)) {
-            case 0x5:
-                dumpReg(opCode.getByte(1));
-                break;
-            default:
-                throw new UnknownOPCodeException(opCode);
-        }
+    private void gotoSpriteAddress(int Vx) {
+        int address = (this.registers.peekUnsigned(Vx) * 5) & 0xFF;
+        this.addressRegister.setAddress(address);
     }
 
     /**
@@ -334,8 +591,7 @@ public class CentralProcessingUnit implements Debuggable {
      * @param Vx The index of the registers to be dumped up to
      */
     private void dumpReg(int Vx) {
-        opCodeString += createRegOpCodeString("dump", Vx);
-        interactWithReg(Vx, (memoryAddress, registerAddress) -> this.memory.write(memoryAddress, this.registers.peek(registerAddress)));
+        this.registers.dump(this.memory, this.addressRegister.getAddressUnsigned(), Vx + 1);
     }
 
     /**
@@ -344,31 +600,7 @@ public class CentralProcessingUnit implements Debuggable {
      * @param Vx The index of the registers to be loaded up to
      */
     private void loadReg(int Vx) {
-        opCodeString += createRegOpCodeString("load", Vx);
-        interactWithReg(Vx, ((memoryAddress, registerAddress) -> this.registers.poke(registerAddress, this.memory.read(memoryAddress))));
-    }
-
-    private void interactWithReg(int Vx, RegisterAction registerAction) {
-        for (int i = 0; i <= Vx; i++) {
-            int address = this.addressRegister.getAddress().apply((x, y) -> x + y, new UnsignedShort(i)).unsignedDataType;
-            registerAction.execute(address, i);
-        }
-    }
-
-    /**
-     * Further decodes {@link OPCode} instances that in the form 0xF_3_
-     *
-     * @param opCode The {@link OPCode} to be decoded
-     * @throws UnknownOPCodeException If an unknown {@link OPCode} is encountered
-     */
-    private void opCodeFX3Y(OPCode opCode) throws UnknownOPCodeException {
-        switch (opCode.getByte(3)) {
-            case 0x3:
-                storeBinaryCodedDecimals(opCode.getByte(1));
-                break;
-            default:
-                throw new UnknownOPCodeException(opCode);
-        }
+        this.registers.load(this.memory, this.addressRegister.getAddressUnsigned(), Vx + 1);
     }
 
     /**
@@ -377,58 +609,12 @@ public class CentralProcessingUnit implements Debuggable {
      * @param Vx The index of the register from which the decimal should be read
      */
     private void storeBinaryCodedDecimals(int Vx) {
-        opCodeString += "BCD V" + toHexString(Vx);
-
-        int decimalValue = this.registers.peek(Vx).unsignedDataType;
+        int decimalValue = this.registers.peekUnsigned(Vx);
+        int address = this.addressRegister.getAddressUnsigned();
 
-        UnsignedByte hundreds = new UnsignedByte((decimalValue / 100));
-        UnsignedByte tens = new UnsignedByte(((decimalValue % 100) / 10));
-        UnsignedByte units = new UnsignedByte(((decimalValue % 100) % 10));
-
-        this.memory.write(this.addressRegister.getAddress().unsignedDataType, hundreds);
-        this.memory.write(this.addressRegister.getAddress().apply(x -> x + 1).unsignedDataType, tens);
-        this.memory.write(this.addressRegister.getAddress().apply(x -> x + 2).unsignedDataType, units);
-    }
-
-    /**
-     * Further decodes {@link OPCode} instances that in the form 0xF_0_
-     *
-     * @param opCode The {@link OPCode} to be decoded
-     * @throws UnknownOPCodeException If an unknown {@link OPCode} is encountered
-     */
-    private void opCodeFX0Y(OPCode opCode) throws UnknownOPCodeException {
-        switch (opCode.getByte(3)) {
-            case 0x7:
-                getDelayTimer(opCode.getByte(1));
-                break;
-            case 0xA:
-                waitForInput(opCode.getByte(1));
-                break;
-            default:
-                throw new UnknownOPCodeException(opCode);
-        }
-    }
-
-    /**
-     * Further decodes {@link OPCode} instances that in the form 0xF_1_
-     *
-     * @param opCode The {@link OPCode} to be decoded
-     * @throws UnknownOPCodeException If an unknown {@link OPCode} is encountered
-     */
-    private void opCodeFX1Y(OPCode opCode) throws UnknownOPCodeException {
-        switch (opCode.getByte(3)) {
-            case 0x5:
-                setDelayTimer(opCode.getByte(1));
-                break;
-            case 0x8:
-                setSoundTimer(opCode.getByte(1));
-                break;
-            case 0xE:
-                setAddressReg(opCode.getByte(1));
-                break;
-            default:
-                throw new UnknownOPCodeException(opCode);
-        }
+        this.memory.write(address, decimalValue / 100);
+        this.memory.write((address + 1) & 0xFFFF, (decimalValue % 100) / 10);
+        this.memory.write((address + 2) & 0xFFFF, (decimalValue % 100) % 10);
     }
 
     /**
@@ -437,10 +623,7 @@ public class CentralProcessingUnit implements Debuggable {
      * @param Vx The index of the register
      */
     private void setAddressReg(int Vx) {
-        opCodeString += "I +=V" + toHexString(Vx);
-
-        UnsignedShort result = this.registers.peek(Vx).apply((x, y) -> x + y, this.addressRegister.getAddress());
-        this.addressRegister.setAddress(result);
+        this.addressRegister.setAddress(this.registers.peekUnsigned(Vx) + this.addressRegister.getAddressUnsigned());
     }
 
     /**
@@ -449,9 +632,7 @@ public class CentralProcessingUnit implements Debuggable {
      * @param Vx The index of the register
      */
     private void setSoundTimer(int Vx) {
-        opCodeString += createTimerOpString("sound_timer", Vx);
-
-        this.soundTimer.setValue(this.registers.peek(Vx).unsignedDataType);
+        this.soundTimer.setValue(this.registers.peekUnsigned(Vx));
     }
 
     /**
@@ -460,9 +641,7 @@ public class CentralProcessingUnit implements Debuggable {
      * @param Vx The index of the register
      */
     private void setDelayTimer(int Vx) {
-        opCodeString += createTimerOpString("delay_timer", Vx);
-
-        this.delayTimer.setValue(this.registers.peek(Vx).unsignedDataType);
+        this.delayTimer.setValue(this.registers.peekUnsigned(Vx));
     }
 
     /**
@@ -471,109 +650,33 @@ public class CentralProcessingUnit implements Debuggable {
      * @param Vx The index of the register
      */
     private void waitForInput(int Vx) {
-        opCodeString += "V" + toHexString(Vx) + " = get_key()";
-
-        /* Halt execution until a key is pressed */
-        while (keyCode == NO_KEY && !stop) {
-            try {
-                Thread.sleep(300);
-            } catch (InterruptedException e) {
-                logger.severe(e.getMessage());
-                Thread.currentThread().interrupt();
-            }
+        /* Halt execution until the user presses a key, unless the calling thread mustn't be halted */
+        if (blockingInput && (keyInput == null || keyInput.isInteractive())) keyState.awaitKeyPress(this::isHalted);
+        int key = readKeys().getPressedKey();
+
+        /* Execute this instruction again if no key was pressed, e.g. because the CPU was paused while waiting */
+        if (key == NO_KEY) {
+            programCounter.jumpTo(programCounter.getCounterUnsigned() - 2);
+            return;
         }
-        this.registers.poke(Vx, new UnsignedByte(keyCode));
-    }
 
-    /**
-     * Further decodes {@link OPCode} instances beginning with 0x0
-     *
-     * @param opCode The {@link OPCode} to be decoded
-     * @throws UnknownOPCodeException If an unknown {@link OPCode} is encountered
-     */
-    private void opCode0XYZ(OPCode opCode) throws UnknownOPCodeException {
-        switch (opCode.getByte(1)) {
-            case 0x0: {
-                if (opCode.getByte(3) == 0) {
-                    this.getScreenMemory().reset();
-                    break;
-                } else {
-                    returnFromSubRoutine();
-                    break;
-                }
-            }
-            default: {
-                /* Call RCA 1802 program at address NNN. Not necessary for most ROMs. */
-                throw new UnknownOPCodeException("RCA 1802 is not  supported: " + toHexString(opCode.getOpCode()));
-            }
-        }
+        this.registers.poke(Vx, key);
     }
 
     /**
-     * Sets the {@link ProgramCounter} to a value popped from a stack
-     */
-    private void returnFromSubRoutine() {
-        opCodeString += "return;";
-        this.programCounter.jumpTo(this.stack.pop());
-    }
-
-    /**
-     * Further decodes {@link OPCode} instances beginning with 0x8
+     * Returns the keys the current instruction reads
      *
-     * @param opCode The {@link OPCode} to be decoded
-     * @throws UnknownOPCodeException If an unknown {@link OPCode} is encountered
+     * @return The {@link KeyState} to read the keys from
      */
-    private void opCode8XYN(OPCode opCode) throws UnknownOPCodeException {
-        switch (opCode.getByte(3)) {
-            case 0x0:
-                assign(opCode.getByte(1), opCode.getByte(2));
-                break;
-            case 0x1:
-                assignLogicOperation("|", opCode.getByte(1), opCode.getByte(2));
-                break;
-            case 0x2:
-                assignLogicOperation("&", opCode.getByte(1), opCode.getByte(2));
-                break;
-            case 0x3:
-                assignLogicOperation("^", opCode.getByte(1), opCode.getByte(2));
-                break;
-            case 0x4:
-                assignArithmeticOperation("+", opCode.getByte(1), opCode.getByte(2), opCode.getByte(1));
-                break;
-            case 0x5:
-                assignArithmeticOperation("-", opCode.getByte(1), opCode.getByte(2), opCode.getByte(1));
-                break;
-            case 0x6:
-                shiftRight(opCode.getByte(1));
-                break;
-            case 0x7:
-                assignArithmeticOperation("-", opCode.getByte(2), opCode.getByte(1), opCode.getByte(1));
-                break;
-            case 0xE:
-                shiftLeft(opCode.getByte(1));
-                break;
-            default:
-                throw new UnknownOPCodeException(opCode);
-        }
+    private KeyState readKeys() {
+        return keyInput == null ? keyState : keyInput.readKeys(instructions, keyState);
     }
 
     /**
-     * Further decodes {@link OPCode} instances beginning with 0xE
-     *
-     * @param opCode The {@link OPCode} to be decoded
-     * @throws UnknownOPCodeException If an unknown {@link OPCode} is encountered
+     * Sets the {@link ProgramCounter} to a value popped from a stack
      */
-    private void opCodeEXYZ(OPCode opCode) throws UnknownOPCodeException {
-        switch (opCode.getByte(2)) {
-            case 0x9:
-                skipIfKeyPressed(opCode.getByte(1));
-                break;
-            case 0xA:
-                skipIfKeyNotPressed(opCode.getByte(1));
-                break;
-            default:
-                throw new UnknownOPCodeException(opCode);
-        }
+    private void returnFromSubRoutine() {
+        this.programCounter.jumpTo(this.stack.popAddress());
     }
 
     /**
@@ -582,8 +685,7 @@ public class CentralProcessingUnit implements Debuggable {
      * @param Vx The index of the register
      */
     private void getDelayTimer(int Vx) {
-        opCodeString += "V" + toHexString(Vx) + " = get_delay()";
-        this.getRegisters().poke(Vx, new UnsignedByte(delayTimer.getValue()));
+        this.registers.poke(Vx, delayTimer.getValue());
     }
 
     /**
@@ -592,10 +694,8 @@ public class CentralProcessingUnit implements Debuggable {
      * @param Vx The value of the register
      */
     private void skipIfKeyNotPressed(int Vx) {
-        opCodeString += "if(key()!=V" + toHexString(Vx) + ")";
-
-        if (!(this.registers.peek(Vx).unsignedDataType == keyCode))
-            this.getProgramCounter().incrementCounterN(2);
+        if (!readKeys().isPressed(this.registers.peekUnsigned(Vx)))
+            this.programCounter.incrementCounterN(2);
     }
 
     /**
@@ -604,10 +704,8 @@ public class CentralProcessingUnit implements Debuggable {
      * @param Vx The value of the register
      */
     private void skipIfKeyPressed(int Vx) {
-        opCodeString += "if(key()==V" + toHexString(Vx) + ")";
-
-        if (this.registers.peek(Vx).unsignedDataType == keyCode)
-            this.getProgramCounter().incrementCounterN(2);
+        if (readKeys().isPressed(this.registers.peekUnsigned(Vx)))
+            this.programCounter.incrementCounterN(2);
     }
 
     /**
@@ -618,54 +716,60 @@ public class CentralProcessingUnit implements Debuggable {
      * @param height The height of the pixel
      */
     private void drawSprite(int Vx, int Vy, int height) {
-        int mask = 0x80;
-        opCodeString += "draw(V" + toHexString(Vx) + ",V" + toHexString(Vy) + "," + height + ")";
-
         /* Reset flag-register */
-        this.registers.poke(0xF, new UnsignedByte(0));
+        this.registers.poke(0xF, 0);
 
         /* Get coordinates of sprite */
-        int coordX = this.registers.peek(Vx).unsignedDataType;
-        int coordY = this.registers.peek(Vy).unsignedDataType;
+        int coordX = this.registers.peekUnsigned(Vx);
+        int coordY = this.registers.peekUnsigned(Vy);
+        int address = this.addressRegister.getAddressUnsigned();
 
-        UnsignedShort yLine = new UnsignedShort(0);
-        for (; yLine.unsignedDataType < height; yLine = yLine.apply(v -> v + 1)) {
+        for (int yLine = 0; yLine < height; yLine++) {
             /* Get memory at addressRegister + yLine */
-            UnsignedByte data = this.memory.read(this.addressRegister.getAddress().apply((x1, y1) -> x1 + y1, yLine).unsignedDataType);
-            drawLineOfSprite(coordX, coordY, data, mask, yLine);
+            int data = this.memory.readUnsigned((address + yLine) & 0xFFFF);
+            if (screenMemory.drawSpriteLine(coordX, coordY + yLine, data)) this.registers.poke(0xF, 1);
         }
+
+        publishFrame();
     }
 
-    private void drawLineOfSprite(int xCoordinate, int yCoordinate, UnsignedByte data, int mask, UnsignedShort yLine) {
-        for (int xPixel = 0; xPixel < 8; xPixel++) {
-            if (0 != data.apply((x, y) -> x & y, new UnsignedByte(mask)).unsignedDataType) {
-                int x = xCoordinate + xPixel;
-                int y = yCoordinate + yLine.unsignedDataType;
+    /**
+     * Clears the {@link ScreenMemory}
+     */
+    private void clearScreen() {
+        screenMemory.reset();
+        publishFrame();
+    }
 
-                setCollisionRegister(x, y);
+    /**
+     * Publishes the screen to the {@link FrameBuffer}, if one is set and the screen changed
+     */
+    private void publishFrame() {
+        if (frameBuffer != null) frameBuffer.publish(screenMemory);
+    }
 
-                /* Set the pixel */
-                screenMemory.write(x, y, !screenMemory.read(x, y));
-            }
-            mask = mask >> 1;
-        }
+    /**
+     * Sets the {@link FrameBuffer} the screen is published to after DXYN, 00E0 and every cycle-counted timer tick.
+     * Only the thread executing this {@link CentralProcessingUnit} may publish to it
+     *
+     * @param frameBuffer The {@link FrameBuffer} to publish to, or null to not publish the screen
+     */
+    public void setFrameBuffer(FrameBuffer frameBuffer) {
+        this.frameBuffer = frameBuffer;
     }
 
-    private void setCollisionRegister(int x, int y) {
-        if (screenMemory.read(x, y)) this.registers.poke(0xF, new UnsignedByte(1));
+    public FrameBuffer getFrameBuffer() {
+        return frameBuffer;
     }
 
     /**
      * Uses the AND operation on the given number and a random number and writes it into Vx
      *
-     * @param Vx           The register
-     * @param unsignedByte The number
+     * @param Vx    The register
+     * @param value The number
      */
-    private void randomAND(int Vx, UnsignedByte unsignedByte) {
-        opCodeString += "V" + toHexString(Vx) + "=rand()&" + unsignedByte.unsignedDataType;
-
-        UnsignedByte result = unsignedByte.apply((x, y) -> x & y, new UnsignedByte(random.nextInt(255)));
-        this.getRegisters().poke(Vx, result);
+    private void randomAND(int Vx, int value) {
+        this.registers.poke(Vx, value & random.nextByte());
     }
 
     /**
@@ -673,9 +777,7 @@ public class CentralProcessingUnit implements Debuggable {
      *
      * @param address The new address of the I register
      */
-    private void setAddress(UnsignedShort address) {
-        opCodeString += "I = " + toHexString(address.unsignedDataType);
-
+    private void setAddress(int address) {
         this.addressRegister.setAddress(address);
     }
 
@@ -684,35 +786,28 @@ public class CentralProcessingUnit implements Debuggable {
      *
      * @param address The new address of the {@link ProgramCounter}
      */
-    private void setPC(UnsignedShort address) {
-        opCodeString += "PC=V0+" + toHexString(address.unsignedDataType);
-
-        UnsignedShort result = this.getRegisters().peek(0).apply((x, y) -> x + y, address);
-        this.getProgramCounter().jumpTo(result);
+    private void setPC(int address) {
+        this.programCounter.jumpTo(this.registers.peekUnsigned(0) + address);
     }
 
     /**
-     * Sets the register Vx to the given unsignedByte
+     * Sets the register Vx to the given value
      *
-     * @param Vx           The register which will hold the unsignedByte
-     * @param unsignedByte The unsigned byte to be written into the register
+     * @param Vx    The register which will hold the value
+     * @param value The unsigned byte to be written into the register
      */
-    private void setRegister(int Vx, UnsignedByte unsignedByte) {
-        opCodeString += "V" + toHexString(Vx) + " = " + toHexString(unsignedByte.unsignedDataType);
-
-        registers.poke(Vx, unsignedByte);
+    private void setRegister(int Vx, int value) {
+        registers.poke(Vx, value);
     }
 
     /**
-     * Adds the unsigned byte to the register Vx
+     * Adds the value to the register Vx
      *
-     * @param Vx           The register which will hold the result of this operation
-     * @param unsignedByte The unsigned byte to be added to the register
+     * @param Vx    The register which will hold the result of this operation
+     * @param value The unsigned byte to be added to the register
      */
-    private void addRegister(int Vx, UnsignedByte unsignedByte) {
-        opCodeString += "V" + toHexString(Vx) + " += " + toHexString(unsignedByte.unsignedDataType);
-
-        registers.poke(Vx, registers.peek(Vx).apply((x, y) -> x + y, unsignedByte));
+    private void addRegister(int Vx, int value) {
+        registers.poke(Vx, registers.peekUnsigned(Vx) + value);
     }
 
     /**
@@ -722,55 +817,41 @@ public class CentralProcessingUnit implements Debuggable {
      * @param Vy The register which value will replace the one in Vx
      */
     private void assign(int Vx, int Vy) {
-        opCodeString += "V" + toHexString(Vx) + "=V" + toHexString(Vy);
-
-        registers.poke(Vx, registers.peek(Vy));
+        registers.poke(Vx, registers.peekUnsigned(Vy));
     }
 
-    private void assignLogicOperation(String operation, int Vx, int Vy) {
-        opCodeString += createLogicOpOpCodeString(operation, Vx, Vy);
-        UnsignedByte result;
-
-        switch (operation) {
-            case "|":
-                result = registers.peek(Vx).apply((x, y) -> x | y, registers.peek(Vy));
-                break;
-            case "&":
-                result = registers.peek(Vx).apply((x, y) -> x & y, registers.peek(Vy));
-                break;
-            default: // "^"
-                result = registers.peek(Vx).apply((x, y) -> x ^ y, registers.peek(Vy));
-                break;
-        }
+    private void assignLogicOperation(BinaryOperation logicOperation, int Vx, int Vy) {
+        registers.poke(Vx, logicOperation.operation(registers.peekUnsigned(Vx), registers.peekUnsigned(Vy)));
+    }
 
+    /**
+     * Adds Vy to Vx and sets VF to 1 on a carry
+     *
+     * @param Vx The register which will hold the result of this operation
+     * @param Vy The register which value will be added to Vx
+     */
+    private void assignSum(int Vx, int Vy) {
+        int result = registers.peekUnsigned(Vx) + registers.peekUnsigned(Vy);
+        setBorrowCarryFlag(result, 1, 0);
         registers.poke(Vx, result);
     }
 
-    private void assignArithmeticOperation(String operation, int Vx, int Vy, int Vz) {
-        opCodeString += createArithmeticOpCodeString(operation, Vx, Vy);
-        UnsignedByte result;
-
-        switch (operation) {
-            case "+":
-                result = arithmeticOperation(Vx, Vy, ((x, y) -> x + y), 1, 0);
-                break;
-            default: // "-"
-                result = arithmeticOperation(Vx, Vy, ((x, y) -> x - y), 0, 1);
-                break;
-        }
-
+    /**
+     * Subtracts Vy from Vx, writes the result into Vz and sets VF to 0 on a borrow
+     *
+     * @param Vx The register holding the minuend
+     * @param Vy The register holding the subtrahend
+     * @param Vz The register which will hold the result of this operation
+     */
+    private void assignDifference(int Vx, int Vy, int Vz) {
+        int result = registers.peekUnsigned(Vx) - registers.peekUnsigned(Vy);
+        setBorrowCarryFlag(result, 0, 1);
         registers.poke(Vz, result);
     }
 
-    private UnsignedByte arithmeticOperation(int Vx, int Vy, BinaryOperation arithmeticOperation, int onOverFlow, int noOverFlow) {
-        UnsignedByte unsignedByte = registers.peek(Vx).apply(arithmeticOperation, registers.peek(Vy));
-        setBorrowCarryFlag(unsignedByte, onOverFlow, noOverFlow);
-        return unsignedByte;
-    }
-
-    private void setBorrowCarryFlag(UnsignedDataType unsignedDataType, int onOverFlow, int noOverFlow) {
-        if (unsignedDataType.lastOperationLeadToOverflow()) registers.poke(0xF, new UnsignedByte(onOverFlow));
-        else registers.poke(0xF, new UnsignedByte(noOverFlow));
+    private void setBorrowCarryFlag(int result, int onOverFlow, int noOverFlow) {
+        if (result < 0 || result > 0xFF) registers.poke(0xF, onOverFlow);
+        else registers.poke(0xF, noOverFlow);
     }
 
     /**
@@ -779,11 +860,9 @@ public class CentralProcessingUnit implements Debuggable {
      * @param Vx The index of the register
      */
     private void shiftRight(int Vx) {
-        opCodeString += "V" + toHexString(Vx) + " >> 1";
-
         /* Calc flag and result */
-        UnsignedByte leastSignificantBit = registers.peek(Vx).apply(x -> x & 1);
-        UnsignedByte result = registers.peek(Vx).apply(x -> x >> 1);
+        int leastSignificantBit = registers.peekUnsigned(Vx) & 1;
+        int result = registers.peekUnsigned(Vx) >> 1;
 
         registers.poke(Vx, result);
         registers.poke(0xF, leastSignificantBit);
@@ -795,11 +874,9 @@ public class CentralProcessingUnit implements Debuggable {
      * @param Vx The index of the register
      */
     private void shiftLeft(int Vx) {
-        opCodeString += "V" + toHexString(Vx) + " << 1";
-
         /* Calc flag and result */
-        UnsignedByte mostSignificantBit = registers.peek(Vx).apply(x -> (x & 0x80) >> 7);
-        UnsignedByte result = registers.peek(Vx).apply(x -> x << 1);
+        int mostSignificantBit = (registers.peekUnsigned(Vx) & 0x80) >> 7;
+        int result = registers.peekUnsigned(Vx) << 1;
 
         registers.poke(Vx, result);
         registers.poke(0xF, mostSignificantBit);
@@ -808,29 +885,21 @@ public class CentralProcessingUnit implements Debuggable {
     /**
      * Skips the next instruction if Reg[Vx] == compValue
      *
-     * @param Vx           The register used for comparison
-     * @param unsignedByte The value to be compared
+     * @param Vx    The register used for comparison
+     * @param value The value to be compared
      */
-    private void skipIfNotEqual(int Vx, UnsignedByte unsignedByte) {
-        opCodeString += "if(V" + toHexString(Vx) + "!=" + toHexString(unsignedByte.unsignedDataType) + ")";
-
-        UnsignedByte registerValue = registers.peek(Vx);
-
-        if (!registerValue.equals(unsignedByte)) programCounter.incrementCounterN(2);
+    private void skipIfNotEqual(int Vx, int value) {
+        if (registers.peekUnsigned(Vx) != value) programCounter.incrementCounterN(2);
     }
 
     /**
      * Skips the next instruction if Reg[Vx] != compValue
      *
-     * @param Vx           The register used for comparison
-     * @param unsignedByte The value to be compared
+     * @param Vx    The register used for comparison
+     * @param value The value to be compared
      */
-    private void skipIfEqual(int Vx, UnsignedByte unsignedByte) {
-        opCodeString += "if(V" + toHexString(Vx) + "==" + toHexString(unsignedByte.unsignedDataType) + ")";
-
-        UnsignedByte registerValue = registers.peek(Vx);
-
-        if (registerValue.equals(unsignedByte)) programCounter.incrementCounterN(2);
+    private void skipIfEqual(int Vx, int value) {
+        if (registers.peekUnsigned(Vx) == value) programCounter.incrementCounterN(2);
     }
 
     /**
@@ -840,9 +909,7 @@ public class CentralProcessingUnit implements Debuggable {
      * @param Vy The index of the register
      */
     private void skipIfEqualReg(int Vx, int Vy) {
-        opCodeString += "if(V" + toHexString(Vx) + "==V" + toHexString(Vy) + ")";
-
-        if (registers.peek(Vx).equals(registers.peek(Vy))) programCounter.incrementCounterN(2);
+        if (registers.peekUnsigned(Vx) == registers.peekUnsigned(Vy)) programCounter.incrementCounterN(2);
     }
 
     /**
@@ -852,9 +919,7 @@ public class CentralProcessingUnit implements Debuggable {
      * @param Vy The index of the register
      */
     private void skipIfNotEqualReg(int Vx, int Vy) {
-        opCodeString += "if(V" + toHexString(Vx) + "!=V" + toHexString(Vy) + ")";
-
-        if (!registers.peek(Vx).equals(registers.peek(Vy))) programCounter.incrementCounterN(2);
+        if (registers.peekUnsigned(Vx) != registers.peekUnsigned(Vy)) programCounter.incrementCounterN(2);
     }
 
     /**
@@ -863,13 +928,11 @@ public class CentralProcessingUnit implements Debuggable {
      * @param address The address at which the subroutine to be called is located
      */
     private void callSubRoutine(int address) {
-        opCodeString += "*(0x" + toHexString(address) + ")()";
-
         /* Save current PC on the stack */
-        stack.push(programCounter.getCounter());
+        stack.push(programCounter.getCounterUnsigned());
 
         /* Update PC */
-        programCounter.jumpTo(new UnsignedShort(address));
+        programCounter.jumpTo(address);
     }
 
     /**
@@ -878,8 +941,7 @@ public class CentralProcessingUnit implements Debuggable {
      * @param address The Address to go to
      */
     private void gotoOp(int address) {
-        opCodeString += "goto " + toHexString(address) + ";";
-        programCounter.jumpTo(new UnsignedShort(address));
+        programCounter.jumpTo(address);
     }
 
     /**
@@ -887,17 +949,17 @@ public class CentralProcessingUnit implements Debuggable {
      *
      * @return the read opcode
      */
-    private OPCode getNextOpCode() {
+    private int getNextOpCode() {
         /* Get first part of opcode */
-        int opCode = memory.read(programCounter.getCounter().unsignedDataType).unsignedDataType;
+        int opCode = memory.readUnsigned(programCounter.getCounterUnsigned());
         /* Shift 8 bits to the left */
         opCode = opCode << 8;
         /* Build finished opcode by using OR */
         programCounter.incrementCounter();
-        opCode |= memory.read(programCounter.getCounter().unsignedDataType).unsignedDataType;
+        opCode |= memory.readUnsigned(programCounter.getCounterUnsigned());
 
         programCounter.incrementCounter();
-        return new OPCode(opCode);
+        return opCode;
     }
 
     @Override
@@ -907,7 +969,7 @@ public class CentralProcessingUnit implements Debuggable {
 
         return "State:\n"
                 + "Cycles executed: " + cycleString + "\n"
-                + "OpCode: " + opCodeString + "\n"
+                + "OpCode: " + getOpCodeString() + "\n"
                 + this.registers.getState() + "\n"
                 + this.addressRegister.getState() + "\t"
                 + this.programCounter.getState() + "\n"
@@ -940,12 +1002,60 @@ public class CentralProcessingUnit implements Debuggable {
         return stack;
     }
 
+    /**
+     * Sets the only key that is currently pressed, releasing all others
+     *
+     * @param keyCode The code of the pressed key, or {@link de.nihas101.chip8.utils.keyConfiguration.Keys#NO_KEY}
+     */
     public void setKeyCode(int keyCode) {
-        this.keyCode = keyCode;
+        if (keyCode == NO_KEY) keyState.releaseAll();
+        else keyState.setPressedKeys(1 << keyCode);
+    }
+
+    /**
+     * Presses a key, keeping all other keys pressed
+     *
+     * @param keyCode The code of the key (0x0 - 0xF)
+     */
+    public void pressKey(int keyCode) {
+        keyState.press(keyCode);
+    }
+
+    public void releaseKey(int keyCode) {
+        keyState.release(keyCode);
+    }
+
+    public KeyState getKeyState() {
+        return keyState;
+    }
+
+    /**
+     * Lets the instructions read the keys from a {@link KeyInput} instead of the keys pressed by the user,
+     * e.g. to record or replay them.
+     * Instructions are not executed by compiled blocks while a {@link KeyInput} is set
+     *
+     * @param keyInput The {@link KeyInput} to read the keys from, or null to read the keys pressed by the user
+     */
+    public void setKeyInput(KeyInput keyInput) {
+        this.keyInput = keyInput;
+    }
+
+    public KeyInput getKeyInput() {
+        return keyInput;
+    }
+
+    /**
+     * Returns the number of instructions executed since the {@link CentralProcessingUnit} was created,
+     * which is neither reset nor halted while paused, unlike {@link #getCycles()}
+     *
+     * @return The number of executed instructions
+     */
+    public long getInstructions() {
+        return instructions;
     }
 
     public void stopTimer() {
-        timer.cancel();
+        if (timer != null) timer.cancel();
     }
 
     public DelayTimer getDelayTimer() {
@@ -956,8 +1066,14 @@ public class CentralProcessingUnit implements Debuggable {
         return soundTimer;
     }
 
+    /**
+     * Stops or starts execution, stopping waits until the thread executing instructions finished its current batch
+     *
+     * @param isStop True if execution should stop
+     */
     public void setStop(boolean isStop) {
-        this.stop = isStop;
+        if (isStop) runStateMachine.stop();
+        else runStateMachine.start();
     }
 
     public void closeSynthesizer() {
@@ -966,23 +1082,53 @@ public class CentralProcessingUnit implements Debuggable {
     }
 
     public boolean isStop() {
-        return stop;
+        return runStateMachine.getRunState() == RunState.STOPPED;
     }
 
+    /**
+     * Pauses or resumes execution, pausing waits until the thread executing instructions finished its current batch
+     *
+     * @param pause True if execution should pause
+     */
     public void setPause(boolean pause) {
-        this.pause = pause;
+        if (pause) runStateMachine.pause();
+        else runStateMachine.resume();
     }
 
     public boolean isPause() {
-        return pause;
+        return runStateMachine.getRunState() == RunState.PAUSED;
+    }
+
+    private boolean isHalted() {
+        RunState runState = runStateMachine.getRunState();
+        return runState == RunState.PAUSED || runState == RunState.STOPPED;
+    }
+
+    public RunStateMachine getRunStateMachine() {
+        return runStateMachine;
     }
 
     public int getCycles() {
         return cycles;
     }
 
+    /**
+     * Returns the last executed opcode as text, which is only rendered now
+     *
+     * @return The rendered opcode, e.g. "6a02 -> Va = 2", or the text set through {@link #setOpCode(String)}
+     */
     public String getOpCodeString() {
-        return opCodeString;
+        int lastOpCode = opCode;
+        return lastOpCode == NO_OP_CODE ? opCodeString : createOpCodeString(lastOpCode);
+    }
+
+    /**
+     * Returns the last executed opcode
+     *
+     * @return The opcode, or -1 if none was executed since {@link #setOpCode(String)} was called
+     */
+    public int getOpCode() {
+        return opCode;
     }
 
     public void setCycles(int cycles) {
@@ -991,13 +1137,174 @@ public class CentralProcessingUnit implements Debuggable {
 
     public void setOpCode(String opCodeString) {
         this.opCodeString = opCodeString;
+        this.opCode = NO_OP_CODE;
+    }
+
+    /**
+     * Sets the last executed opcode, which is only rendered as text once {@link #getOpCodeString()} is called
+     *
+     * @param opCode The opcode
+     */
+    public void setOpCode(int opCode) {
+        this.opCode = opCode & 0xFFFF;
+    }
+
+    /**
+     * Sets the last executed opcode to the one of another {@link CentralProcessingUnit}, without rendering it as text
+     *
+     * @param source The {@link CentralProcessingUnit} to copy the opcode from
+     */
+    public void copyOpCode(CentralProcessingUnit source) {
+        this.opCodeString = source.opCodeString;
+        this.opCode = source.opCode;
+    }
+
+    /**
+     * Sets how much is recorded about the executed instructions, creating a {@link TraceBuffer} if none is set
+     *
+     * @param traceLevel The {@link TraceLevel} to use from now on
+     */
+    public void setTraceLevel(TraceLevel traceLevel) {
+        if (traceLevel != TraceLevel.OFF && traceBuffer == null)
+            traceBuffer = TraceBuffer.createTraceBuffer(TraceBuffer.DEFAULT_CAPACITY);
+        this.traceLevel = traceLevel;
+        tracing = traceLevel != TraceLevel.OFF || traceRecorder != null;
+    }
+
+    public TraceLevel getTraceLevel() {
+        return traceLevel;
+    }
+
+    public void setTraceBuffer(TraceBuffer traceBuffer) {
+        if (traceBuffer == null && traceLevel != TraceLevel.OFF)
+            throw new IllegalArgumentException("A TraceBuffer is needed while tracing");
+        this.traceBuffer = traceBuffer;
+    }
+
+    /**
+     * Returns the instructions recorded while tracing
+     *
+     * @return The {@link TraceBuffer}, or null if tracing was never enabled
+     */
+    public TraceBuffer getTraceBuffer() {
+        return traceBuffer;
+    }
+
+    /**
+     * Records every executed instruction into a trace file from now on, independently of the {@link TraceLevel}
+     *
+     * @param traceRecorder The {@link TraceRecorder} to record into, or null to stop recording
+     */
+    public void setTraceRecorder(TraceRecorder traceRecorder) {
+        this.traceRecorder = traceRecorder;
+        tracing = traceLevel != TraceLevel.OFF || traceRecorder != null;
     }
 
+    public TraceRecorder getTraceRecorder() {
+        return traceRecorder;
+    }
+
+    /**
+     * Returns the random number generator used by CXNN as a {@link Random}
+     *
+     * @return The {@link Random}, or null if the generator isn't one
+     */
     public Random getRandom() {
+        if (random instanceof Random) return (Random) random;
+        if (random instanceof RandomAdapter) return ((RandomAdapter) random).getRandom();
+        return null;
+    }
+
+    /**
+     * Replaces the random number generator used by CXNN, e.g. when a {@link de.nihas101.chip8.savestates.SaveState}
+     * is restored whose generator can't be copied into the current one
+     *
+     * @param random The new random number generator
+     */
+    public void setRandom(Random random) {
+        this.random = asRandomNumberGenerator(random);
+    }
+
+    public RandomNumberGenerator getRandomNumberGenerator() {
         return random;
     }
 
+    /**
+     * Replaces the random number generator used by CXNN, e.g. by a seeded or forked one
+     *
+     * @param randomNumberGenerator The new {@link RandomNumberGenerator}
+     */
+    public void setRandomNumberGenerator(RandomNumberGenerator randomNumberGenerator) {
+        this.random = randomNumberGenerator;
+    }
+
+    /**
+     * Returns a single pressed key, preferring the one pressed last
+     *
+     * @return The code of the pressed key, or {@link de.nihas101.chip8.utils.keyConfiguration.Keys#NO_KEY}
+     */
     public int getKeyCode() {
-        return keyCode;
+        return keyState.getPressedKey();
+    }
+
+    /**
+     * Sets whether FX0A halts the executing thread until a key is pressed,
+     * or is executed again on the next cycle instead
+     *
+     * @param blockingInput True if FX0A should halt the executing thread
+     */
+    public void setBlockingInput(boolean blockingInput) {
+        this.blockingInput = blockingInput;
+    }
+
+    /**
+     * Sets the way in which instructions are executed
+     *
+     * @param executionMode The {@link ExecutionMode} to use from now on
+     */
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+
+        if (executionMode == ExecutionMode.INTERPRETER) {
+            translationCache = null;
+            memory.setWriteListener(null);
+        } else {
+            translationCache = new TranslationCache(memory);
+            memory.setWriteListener(translationCache);
+        }
+
+        blockCompiler = executionMode == ExecutionMode.JIT ? new BlockCompiler() : null;
+    }
+
+    /**
+     * Switches to {@link ExecutionMode#JIT}, compiling blocks after the given number of executions
+     *
+     * @param threshold The number of executions after which a block is compiled
+     */
+    public void enableJit(int threshold) {
+        setExecutionMode(ExecutionMode.JIT);
+        blockCompiler = new BlockCompiler(threshold);
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    /**
+     * Returns the {@link BlockCompiler} used in {@link ExecutionMode#JIT}
+     *
+     * @return The {@link BlockCompiler}, or null if it is not in use
+     */
+    public BlockCompiler getBlockCompiler() {
+        return blockCompiler;
+    }
+
+    /**
+     * Returns the {@link TranslationCache} used in {@link ExecutionMode#TRANSLATION_CACHE} and {@link ExecutionMode#JIT}
+     *
+     * @return The {@link TranslationCache}, or null if it is not in use
+     */
+    public TranslationCache getTranslationCache() {
+        return translationCache;
     }
 }
@@ -6,6 +6,7 @@ import de.nihas101.chip8.hardware.timers.DelayTimer;
 import de.nihas101.chip8.hardware.timers.SoundTimer;
 import de.nihas101.chip8.unsignedDataTypes.UnsignedShort;
 import de.nihas101.chip8.utils.SynthesizerFactory;
+import de.nihas101.chip8.utils.XorShiftRandom;
 import de.nihas101.chip8.utils.keyConfiguration.KeyConfiguration;
 
 import javax.sound.midi.MidiUnavailableException;
@@ -20,6 +21,10 @@ import static de.nihas101.chip8.utils.keyConfiguration.KeyConfiguration.createKe
 public final class Emulator implements Debuggable {
     private CentralProcessingUnit centralProcessingUnit;
     private KeyConfiguration keyConfiguration;
+    private ExecutionMode executionMode = ExecutionMode.INTERPRETER;
+    private int instructionsPerFrame = 0;
+    /* Only created once a display asks for it, headless emulators never copy their frames */
+    private FrameBuffer frameBuffer = null;
 
     private Logger logger = Logger.getLogger(Emulator.class.getName());
 
@@ -31,6 +36,25 @@ public final class Emulator implements Debuggable {
         return new Emulator(setupCentralProcessingUnit());
     }
 
+    /**
+     * Creates an {@link Emulator} without a {@link Synthesizer} and without a thread decrementing its timers,
+     * which have to be ticked through {@link CentralProcessingUnit#tickTimers()} instead.
+     * Waiting for a key press does not halt the calling thread
+     *
+     * @return The created {@link Emulator}
+     */
+    public static Emulator createHeadlessEmulator() {
+        CentralProcessingUnit centralProcessingUnit = new CentralProcessingUnit(
+                new Memory(), new ScreenMemory(),
+                new Registers(), new AddressRegister(), new ProgramCounter(PROGRAM_COUNTER_START),
+                new Chip8Stack(),
+                null, new DelayTimer(), new SoundTimer(),
+                new XorShiftRandom());
+        centralProcessingUnit.setBlockingInput(false);
+
+        return new Emulator(centralProcessingUnit);
+    }
+
     public void setStandardKeyConfiguration() {
         setKeyConfiguration(createKeyConfiguration(this));
     }
@@ -50,11 +74,11 @@ public final class Emulator implements Debuggable {
         Registers registers = new Registers();
         AddressRegister addressRegister = new AddressRegister();
         ProgramCounter programCounter = new ProgramCounter(new UnsignedShort(PROGRAM_COUNTER_START));
-        Chip8Stack chip8Stack = new Chip8Stack(new java.util.Stack<>());
+        Chip8Stack chip8Stack = new Chip8Stack();
         Timer timer = new Timer("Timer");
         DelayTimer delayTimer = new DelayTimer();
         SoundTimer soundTimer = new SoundTimer();
-        Random random = new Random();
+        Random random = new XorShiftRandom();
         Synthesizer synthesizer = null;
 
         try {
@@ -81,15 +105,18 @@ public final class Emulator implements Debuggable {
      * equals a full cycle
      */
     public double executeCPUCycles(double cycles) {
-        for (; cycles >= 1; cycles--) {
+        while (cycles >= 1) {
             try {
-                centralProcessingUnit.decodeNextOpCode();
+                cycles -= centralProcessingUnit.executeCycles((int) Math.min(cycles, Integer.MAX_VALUE));
             } catch (Exception e) {
+                cycles--;
                 centralProcessingUnit.setStop(true);
                 logger.severe(centralProcessingUnit.getState());
                 logger.severe(e.getMessage());
             }
         }
+        /* Publish changes that were not made by instructions, e.g. by resetting the CPU or restoring a state */
+        if (frameBuffer != null) frameBuffer.publish(centralProcessingUnit.getScreenMemory());
         return cycles;
     }
 
@@ -105,8 +132,53 @@ public final class Emulator implements Debuggable {
         return centralProcessingUnit;
     }
 
+    /**
+     * Returns the {@link FrameBuffer} the {@link CentralProcessingUnit} publishes the screen to,
+     * which is kept when the {@link CentralProcessingUnit} is replaced.
+     * The {@link FrameBuffer} is created and attached by the first call, until then no frames are published
+     *
+     * @return The {@link FrameBuffer} of the emulator
+     */
+    public FrameBuffer getFrameBuffer() {
+        if (frameBuffer == null) {
+            frameBuffer = new FrameBuffer();
+            centralProcessingUnit.setFrameBuffer(frameBuffer);
+        }
+
+        return frameBuffer;
+    }
+
     public void setCentralProcessingUnit(CentralProcessingUnit centralProcessingUnit) {
         this.centralProcessingUnit = centralProcessingUnit;
+        centralProcessingUnit.setFrameBuffer(frameBuffer);
+        centralProcessingUnit.setExecutionMode(executionMode);
+        if (instructionsPerFrame > 0) centralProcessingUnit.useCycleCountedTimers(instructionsPerFrame);
+    }
+
+    /**
+     * Decrements the timers of the {@link CentralProcessingUnit} once every given number of instructions
+     * instead of on a separate thread, which is kept when the {@link CentralProcessingUnit} is replaced
+     *
+     * @param instructionsPerFrame The number of instructions after which the timers are decremented
+     */
+    public void useCycleCountedTimers(int instructionsPerFrame) {
+        centralProcessingUnit.useCycleCountedTimers(instructionsPerFrame);
+        this.instructionsPerFrame = instructionsPerFrame;
+    }
+
+    /**
+     * Sets the way in which the {@link CentralProcessingUnit} of this emulator executes instructions,
+     * which is kept when the {@link CentralProcessingUnit} is replaced
+     *
+     * @param executionMode The {@link ExecutionMode} to use
+     */
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+        centralProcessingUnit.setExecutionMode(executionMode);
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
     }
 
     @Override
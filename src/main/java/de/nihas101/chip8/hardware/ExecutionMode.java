@@ -0,0 +1,19 @@
+package de.nihas101.chip8.hardware;
+
+/**
+ * The ways in which a {@link CentralProcessingUnit} can execute instructions
+ */
+public enum ExecutionMode {
+    /**
+     * Fetches, decodes and executes one instruction at a time
+     */
+    INTERPRETER,
+    /**
+     * Executes straight-line runs of instructions that were decoded once and cached in a {@link TranslationCache}
+     */
+    TRANSLATION_CACHE,
+    /**
+     * Like {@link #TRANSLATION_CACHE}, but compiles frequently executed blocks into JVM classes
+     */
+    JIT
+}
@@ -0,0 +1,23 @@
+package de.nihas101.chip8.hardware;
+
+/**
+ * The states a {@link RunStateMachine} can be in
+ */
+public enum RunState {
+    /**
+     * Instructions are executed continuously
+     */
+    RUNNING,
+    /**
+     * No instructions are executed until execution is resumed
+     */
+    PAUSED,
+    /**
+     * One instruction is executed per requested step
+     */
+    STEPPING,
+    /**
+     * No instructions are executed and the executing thread is meant to finish
+     */
+    STOPPED
+}
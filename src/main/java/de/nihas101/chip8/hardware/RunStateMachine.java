@@ -0,0 +1,189 @@
+package de.nihas101.chip8.hardware;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static de.nihas101.chip8.hardware.RunState.*;
+
+/**
+ * A class representing whether a {@link CentralProcessingUnit} is running, paused, stepping or stopped.
+ * A single thread executes instructions, asking {@link #awaitExecution()} before each batch of them,
+ * which parks the thread until it may execute again instead of polling.
+ * Pausing and stopping wait until that thread has finished its current batch, so the state of the
+ * {@link CentralProcessingUnit} may be changed safely afterwards.
+ * Apart from the executing thread stopping itself, the state is meant to be changed by a single thread at a time
+ */
+public class RunStateMachine {
+    private volatile RunState runState = RUNNING;
+    /* Whether RUNNING or STEPPING is entered when resuming or starting */
+    private volatile boolean stepping = false;
+    private final AtomicBoolean stepRequested = new AtomicBoolean(false);
+    private final Runnable onTransition;
+
+    /* The thread executing a batch of instructions, or null if no instructions are being executed */
+    private volatile Thread executingThread = null;
+    /* The thread parked in awaitExecution() */
+    private volatile Thread waitingThread = null;
+    /* The thread waiting for the executing thread to finish its batch */
+    private volatile Thread transitioningThread = null;
+
+    public RunStateMachine() {
+        this(() -> { /* DO NOTHING */ });
+    }
+
+    /**
+     * Creates a {@link RunStateMachine}
+     *
+     * @param onTransition Called after every change of the state, e.g. to wake up an instruction
+     *                     that halts the executing thread itself
+     */
+    public RunStateMachine(Runnable onTransition) {
+        this.onTransition = onTransition;
+    }
+
+    /**
+     * Halts the calling thread until it may execute instructions, this has to be called before every batch of them.
+     * In {@link RunState#STEPPING} this returns once per call to {@link #step()}
+     *
+     * @return {@link RunState#RUNNING} or {@link RunState#STEPPING} if instructions may be executed,
+     * {@link RunState#STOPPED} if the calling thread should finish
+     */
+    public RunState awaitExecution() {
+        Thread currentThread = Thread.currentThread();
+
+        while (true) {
+            /* Claim execution before checking the state, so a concurrent transition waits for this batch */
+            executingThread = currentThread;
+            RunState state = runState;
+            if (state == RUNNING || (state == STEPPING && stepRequested.getAndSet(false))) return state;
+
+            finishExecution();
+            if (state == STOPPED || currentThread.isInterrupted()) return STOPPED;
+
+            /* Register before checking the state again, so a transition in between unparks this thread */
+            waitingThread = currentThread;
+            if (runState == state && !(state == STEPPING && stepRequested.get())) LockSupport.park(this);
+            /* Claim execution before unregistering, so a concurrent stop never sees neither */
+            executingThread = currentThread;
+            waitingThread = null;
+        }
+    }
+
+    /**
+     * Marks the calling thread as no longer executing instructions, e.g. if it finishes without being stopped
+     */
+    public void finishExecution() {
+        executingThread = null;
+
+        Thread thread = transitioningThread;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+
+    /**
+     * Pauses execution and waits until the current batch of instructions was executed
+     */
+    public void pause() {
+        synchronized (this) {
+            if (runState != RUNNING && runState != STEPPING) return;
+            runState = PAUSED;
+        }
+        transitioned();
+    }
+
+    /**
+     * Resumes execution, in {@link RunState#STEPPING} if step-by-step execution is enabled
+     */
+    public void resume() {
+        synchronized (this) {
+            if (runState != PAUSED) return;
+            runState = stepping ? STEPPING : RUNNING;
+        }
+        transitioned();
+    }
+
+    /**
+     * Stops execution and waits until the current batch of instructions was executed
+     */
+    public void stop() {
+        synchronized (this) {
+            if (runState == STOPPED) return;
+            runState = STOPPED;
+        }
+        transitioned();
+    }
+
+    /**
+     * Allows execution again after it was stopped, in {@link RunState#STEPPING} if step-by-step execution is enabled
+     */
+    public void start() {
+        synchronized (this) {
+            if (runState != STOPPED) return;
+            runState = stepping ? STEPPING : RUNNING;
+        }
+        transitioned();
+    }
+
+    /**
+     * Enables or disables step-by-step execution, which takes effect immediately unless execution is paused or stopped
+     *
+     * @param stepping True if one instruction should be executed per call to {@link #step()}
+     */
+    public void setStepping(boolean stepping) {
+        synchronized (this) {
+            this.stepping = stepping;
+            stepRequested.set(false);
+            if (runState == RUNNING || runState == STEPPING) runState = stepping ? STEPPING : RUNNING;
+        }
+        transitioned();
+    }
+
+    /**
+     * Lets the executing thread execute the next instruction in {@link RunState#STEPPING}
+     */
+    public void step() {
+        stepRequested.set(true);
+        wakeUp();
+    }
+
+    private void transitioned() {
+        wakeUp();
+        onTransition.run();
+        if (runState == PAUSED) awaitIdle(false);
+        /* A parked thread has to notice the stop before execution may be started again */
+        else if (runState == STOPPED) awaitIdle(true);
+    }
+
+    private void wakeUp() {
+        Thread thread = waitingThread;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+
+    /**
+     * Waits until no thread other than the calling one executes instructions
+     *
+     * @param includeWaiting True if a thread parked in {@link #awaitExecution()} has to return from it as well
+     */
+    private void awaitIdle(boolean includeWaiting) {
+        Thread currentThread = Thread.currentThread();
+        transitioningThread = currentThread;
+
+        while (isBusy(executingThread, currentThread) || (includeWaiting && isBusy(waitingThread, currentThread))) {
+            if (currentThread.isInterrupted()) break;
+            LockSupport.park(this);
+        }
+
+        transitioningThread = null;
+    }
+
+    private static boolean isBusy(Thread thread, Thread currentThread) {
+        return thread != null && thread != currentThread && thread.isAlive();
+    }
+
+    public RunState getRunState() {
+        return runState;
+    }
+
+    public boolean isStepping() {
+        return stepping;
+    }
+}
@@ -0,0 +1,208 @@
+package de.nihas101.chip8.hardware;
+
+import de.nihas101.chip8.debug.Debuggable;
+import de.nihas101.chip8.hardware.jit.CompiledBlock;
+import de.nihas101.chip8.hardware.memory.Memory;
+import de.nihas101.chip8.hardware.memory.WriteListener;
+import de.nihas101.chip8.opcodes.Instruction;
+
+import static de.nihas101.chip8.utils.Constants.MEMORY_LENGTH;
+
+/**
+ * A cache of decoded straight-line runs of instructions (blocks), keyed by the address of their first instruction.
+ * Blocks are dropped as soon as the {@link Memory} they were decoded from is written to.
+ */
+public class TranslationCache implements WriteListener, Debuggable {
+    /**
+     * The maximum number of instructions in a single block
+     */
+    public static final int MAX_BLOCK_LENGTH = 32;
+    private static final int MAX_BLOCK_BYTES = MAX_BLOCK_LENGTH * 2;
+
+    private final Memory memory;
+    private final Block[] blocks = new Block[MEMORY_LENGTH];
+    /**
+     * The number of cached blocks that were decoded from each cell of the memory
+     */
+    private final short[] coverage = new short[MEMORY_LENGTH];
+    private int cachedBlocks = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long invalidations = 0;
+
+    public TranslationCache(Memory memory) {
+        this.memory = memory;
+    }
+
+    /**
+     * Returns the block starting at the given address, decoding and caching it if necessary
+     *
+     * @param address The address of the first instruction of the block
+     * @return The block, or null if no full instruction can be read at the address
+     */
+    public Block lookup(int address) {
+        if (address + 1 >= MEMORY_LENGTH) return null;
+
+        Block block = blocks[address];
+        if (block != null) {
+            hits++;
+            return block;
+        }
+
+        misses++;
+        block = translate(address);
+        cache(block);
+        return block;
+    }
+
+    private Block translate(int address) {
+        int[] opCodes = new int[MAX_BLOCK_LENGTH];
+        int length = 0;
+
+        for (int pc = address; length < MAX_BLOCK_LENGTH && pc + 1 < MEMORY_LENGTH; pc += 2) {
+            int opCode = (memory.readUnsigned(pc) << 8) | memory.readUnsigned(pc + 1);
+            opCodes[length++] = opCode;
+            if (endsBlock(opCode)) break;
+        }
+
+        return new Block(address, opCodes, length);
+    }
+
+    private void cache(Block block) {
+        blocks[block.address] = block;
+        for (int i = block.address; i < block.address + block.byteLength; i++) coverage[i]++;
+        cachedBlocks++;
+    }
+
+    /**
+     * Checks whether an opcode can change the program counter in any other way than moving on to the next
+     * instruction, or halts execution, and therefore has to be the last instruction of a block
+     *
+     * @param opCode The opcode to check
+     * @return True if the opcode has to end a block
+     */
+    static boolean endsBlock(int opCode) {
+        switch (opCode >> 12) {
+            case 0x0:
+                /* Only 00E0 (clear screen) continues, 00EE returns and 0NNN is unsupported */
+                return (opCode & 0x0F0F) != 0;
+            case 0x6:
+            case 0x7:
+            case 0x8:
+            case 0xA:
+            case 0xC:
+            case 0xD:
+                return false;
+            case 0xF:
+                /* FX0A halts until a key is pressed */
+                return (opCode & 0x00FF) == 0x0A;
+            default:
+                /* Jumps, calls and skips */
+                return true;
+        }
+    }
+
+    /**
+     * {@inheritDoc}.
+     * Drops every block that was decoded from one of the written cells
+     */
+    @Override
+    public void onWrite(int index, int length) {
+        if (cachedBlocks == 0) return;
+
+        int end = Math.min(index + length, MEMORY_LENGTH);
+        for (int i = Math.max(index, 0); i < end; i++)
+            if (coverage[i] > 0) invalidateBlocksCovering(i);
+    }
+
+    private void invalidateBlocksCovering(int index) {
+        for (int address = Math.max(0, index - MAX_BLOCK_BYTES + 1); address <= index; address++) {
+            Block block = blocks[address];
+            if (block != null && index < address + block.byteLength) invalidate(block);
+        }
+    }
+
+    private void invalidate(Block block) {
+        block.valid = false;
+        blocks[block.address] = null;
+        for (int i = block.address; i < block.address + block.byteLength; i++) coverage[i]--;
+        cachedBlocks--;
+        invalidations++;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getState() {
+        return "TranslationCache: hits: " + hits + "\tmisses: " + misses + "\tinvalidations: " + invalidations;
+    }
+
+    /**
+     * A straight-line run of decoded instructions, ending with the first jump, skip, call or return
+     */
+    public static final class Block {
+        final int address;
+        final int byteLength;
+        final int length;
+        final int[] opCodes;
+        final Instruction[] instructions;
+        boolean valid = true;
+        /**
+         * The number of times the block was executed, used to find blocks worth compiling
+         */
+        int executions = 0;
+        CompiledBlock compiledBlock = null;
+
+        private Block(int address, int[] opCodes, int length) {
+            this.address = address;
+            this.length = length;
+            this.byteLength = length * 2;
+            this.opCodes = opCodes;
+            this.instructions = new Instruction[length];
+
+            for (int i = 0; i < length; i++) instructions[i] = CentralProcessingUnit.instructionFor(opCodes[i]);
+        }
+
+        public int getAddress() {
+            return address;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * Returns the opcode of one of the instructions of the block
+         *
+         * @param index The index of the instruction within the block
+         * @return The opcode of the instruction
+         */
+        public int getOpCode(int index) {
+            if (index < 0 || index >= length)
+                throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length);
+            return opCodes[index];
+        }
+
+        public CompiledBlock getCompiledBlock() {
+            return compiledBlock;
+        }
+
+        public boolean isValid() {
+            return valid;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package de.nihas101.chip8.hardware.jit;
+
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
+import de.nihas101.chip8.hardware.TranslationCache.Block;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.logging.Logger;
+
+import static de.nihas101.chip8.hardware.jit.Opcodes.*;
+import static java.util.logging.Level.WARNING;
+
+/**
+ * A class compiling hot {@link Block}s into JVM classes, which are defined through their own {@link ClassLoader},
+ * so that they can be unloaded again once their block was invalidated.
+ * Register, address and arithmetic instructions are translated into bytecode, every other instruction
+ * is delegated to {@link CentralProcessingUnit#executeOpCode(int)}.
+ */
+public class BlockCompiler {
+    private static final Logger LOGGER = Logger.getLogger(BlockCompiler.class.getName());
+
+    /**
+     * The default number of executions after which a block is compiled
+     */
+    public static final int DEFAULT_THRESHOLD = 100;
+
+    private static final String PACKAGE = "de/nihas101/chip8/hardware/jit/";
+    private static final String COMPILED_BLOCK = PACKAGE + "CompiledBlock";
+    private static final String CPU = "de/nihas101/chip8/hardware/CentralProcessingUnit";
+    private static final String REGISTERS = "de/nihas101/chip8/hardware/memory/Registers";
+    private static final String ADDRESS_REGISTER = "de/nihas101/chip8/hardware/memory/AddressRegister";
+    private static final String PROGRAM_COUNTER = "de/nihas101/chip8/hardware/memory/ProgramCounter";
+    private static final String BLOCK = "de/nihas101/chip8/hardware/TranslationCache$Block";
+    private static final String EXECUTE_DESCRIPTOR = "(L" + CPU + ";L" + REGISTERS + ";L" + ADDRESS_REGISTER
+            + ";L" + PROGRAM_COUNTER + ";L" + BLOCK + ";I)I";
+
+    /* Local variables of the compiled method */
+    private static final int PROGRAM_COUNTER_LOCAL = 4;
+    private static final int BLOCK_LOCAL = 5;
+    private static final int MAX_CYCLES_LOCAL = 6;
+    private static final int MAX_LOCALS = 7;
+    private static final int MAX_STACK = 8;
+
+    private static final int VF = 0xF;
+
+    private final int threshold;
+    private int compiledBlocks = 0;
+
+    public BlockCompiler() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates a {@link BlockCompiler}
+     *
+     * @param threshold The number of executions after which a block is compiled
+     */
+    public BlockCompiler(int threshold) {
+        if (threshold < 1) throw new IllegalArgumentException("The threshold has to be positive: " + threshold);
+        this.threshold = threshold;
+    }
+
+    /**
+     * Checks whether a block can be compiled.
+     * Blocks waiting for a key press (FX0A) are always left to the interpreter
+     *
+     * @param block The block to check
+     * @return True if the block can be compiled
+     */
+    public static boolean canCompile(Block block) {
+        int last = block.getOpCode(block.getLength() - 1);
+        return (last & 0xF0FF) != 0xF00A;
+    }
+
+    /**
+     * Compiles a block into a new JVM class
+     *
+     * @param block The block to compile
+     * @return The {@link CompiledBlock}, or null if the block could not be compiled
+     */
+    public CompiledBlock compile(Block block) {
+        if (!canCompile(block)) return null;
+
+        String className = PACKAGE + "Block_" + Integer.toHexString(block.getAddress()) + "_" + compiledBlocks;
+        byte[] classFile = generate(className, block);
+
+        try {
+            Class<?> compiledClass = new BlockClassLoader(CompiledBlock.class.getClassLoader())
+                    .define(className.replace('/', '.'), classFile);
+            CompiledBlock compiledBlock = (CompiledBlock) compiledClass.getDeclaredConstructor().newInstance();
+            compiledBlocks++;
+            return compiledBlock;
+        } catch (LinkageError | InstantiationException | IllegalAccessException
+                | InvocationTargetException | NoSuchMethodException e) {
+            LOGGER.log(WARNING, "Unable to compile the block at " + Integer.toHexString(block.getAddress()), e);
+            return null;
+        }
+    }
+
+    /**
+     * Generates the class file of a compiled block
+     *
+     * @param className The internal name of the class
+     * @param block     The block to compile
+     * @return The bytes of the class file
+     */
+    static byte[] generate(String className, Block block) {
+        ClassFileWriter writer = new ClassFileWriter();
+        ClassFileWriter.ByteVector code = writer.code();
+        int length = block.getLength();
+        boolean programCounterSet = false;
+
+        for (int i = 0; i < length; i++) {
+            int opCode = block.getOpCode(i);
+            int nextAddress = block.getAddress() + 2 * (i + 1);
+
+            if (i > 0) returnIfOutOfCycles(writer, i, programCounterSet ? -1 : block.getAddress() + 2 * i);
+
+            if (emitInline(writer, opCode)) {
+                programCounterSet = false;
+                continue;
+            }
+
+            /* The delegated instruction expects the program counter to point to the next instruction */
+            setProgramCounter(writer, nextAddress);
+            code.putByte(ALOAD_1);
+            pushInt(writer, opCode);
+            code.putByte(INVOKEVIRTUAL).putShort(writer.methodRef(CPU, "executeOpCode", "(I)V"));
+            programCounterSet = true;
+
+            if (writesMemory(opCode) && i < length - 1) returnIfInvalidated(writer, i + 1);
+        }
+
+        if (!programCounterSet) setProgramCounter(writer, block.getAddress() + 2 * length);
+        pushInt(writer, length);
+        code.putByte(IRETURN);
+
+        return writer.toByteArray(className, COMPILED_BLOCK, "execute", EXECUTE_DESCRIPTOR, MAX_STACK, MAX_LOCALS);
+    }
+
+    /**
+     * Translates an instruction into bytecode, if it only touches the registers
+     *
+     * @param writer The {@link ClassFileWriter} to append the bytecode to
+     * @param opCode The opcode to translate
+     * @return True if the instruction was translated
+     */
+    private static boolean emitInline(ClassFileWriter writer, int opCode) {
+        int x = (opCode & 0x0F00) >> 8;
+        int y = (opCode & 0x00F0) >> 4;
+        int nn = opCode & 0x00FF;
+        int nnn = opCode & 0x0FFF;
+        ClassFileWriter.ByteVector code = writer.code();
+
+        switch (opCode >> 12) {
+            case 0x6:
+                /* Vx = NN */
+                code.putByte(ALOAD_2);
+                pushInt(writer, x);
+                pushInt(writer, nn);
+                poke(writer);
+                return true;
+            case 0x7:
+                /* Vx += NN */
+                code.putByte(ALOAD_2);
+                pushInt(writer, x);
+                peek(writer, x);
+                pushInt(writer, nn);
+                code.putByte(IADD);
+                poke(writer);
+                return true;
+            case 0x8:
+                return emitInline8XYN(writer, opCode & 0x000F, x, y);
+            case 0xA:
+                /* I = NNN */
+                code.putByte(ALOAD_3);
+                pushInt(writer, nnn);
+                code.putByte(INVOKEVIRTUAL).putShort(writer.methodRef(ADDRESS_REGISTER, "setAddress", "(I)V"));
+                return true;
+            case 0xF:
+                if (nn != 0x1E) return false;
+                /* I += Vx */
+                code.putByte(ALOAD_3);
+                peek(writer, x);
+                code.putByte(ALOAD_3);
+                code.putByte(INVOKEVIRTUAL).putShort(writer.methodRef(ADDRESS_REGISTER, "getAddressUnsigned", "()I"));
+                code.putByte(IADD);
+                code.putByte(INVOKEVIRTUAL).putShort(writer.methodRef(ADDRESS_REGISTER, "setAddress", "(I)V"));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean emitInline8XYN(ClassFileWriter writer, int n, int x, int y) {
+        ClassFileWriter.ByteVector code = writer.code();
+
+        switch (n) {
+            case 0x0:
+                /* Vx = Vy */
+                code.putByte(ALOAD_2);
+                pushInt(writer, x);
+                peek(writer, y);
+                poke(writer);
+                return true;
+            case 0x1:
+            case 0x2:
+            case 0x3:
+                /* Vx = Vx | Vy, Vx = Vx & Vy, Vx = Vx ^ Vy */
+                code.putByte(ALOAD_2);
+                pushInt(writer, x);
+                peek(writer, x);
+                peek(writer, y);
+                code.putByte(n == 0x1 ? IOR : n == 0x2 ? IAND : IXOR);
+                poke(writer);
+                return true;
+            case 0x4:
+                /* Vx += Vy, VF = carry */
+                code.putByte(ALOAD_2);
+                pushInt(writer, x);
+                peek(writer, x);
+                peek(writer, y);
+                code.putByte(IADD);
+                flagFromResult(writer, 8, false);
+                return true;
+            case 0x5:
+            case 0x7:
+                /* Vx = Vx - Vy or Vx = Vy - Vx, VF = not borrow */
+                code.putByte(ALOAD_2);
+                pushInt(writer, x);
+                peek(writer, n == 0x5 ? x : y);
+                peek(writer, n == 0x5 ? y : x);
+                code.putByte(ISUB);
+                flagFromResult(writer, 31, true);
+                return true;
+            case 0x6:
+            case 0xE:
+                /* Vx >>= 1 or Vx <<= 1, VF = shifted out bit */
+                shift(writer, x, n == 0x6);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Sets VF from a result on top of the stack, then stores the result, the same order as the interpreter uses.
+     * Expects the stack to hold the {@link de.nihas101.chip8.hardware.memory.Registers}, the target register
+     * and the result.
+     */
+    private static void flagFromResult(ClassFileWriter writer, int shift, boolean invert) {
+        ClassFileWriter.ByteVector code = writer.code();
+
+        /* [registers, x, result] -> [registers, x, result, registers, VF, result] */
+        code.putByte(DUP).putByte(ALOAD_2).putByte(SWAP);
+        pushInt(writer, VF);
+        code.putByte(SWAP);
+        pushInt(writer, shift);
+        code.putByte(IUSHR);
+        if (invert) code.putByte(ICONST_1).putByte(IXOR);
+        poke(writer);
+        poke(writer);
+    }
+
+    private static void shift(ClassFileWriter writer, int x, boolean right) {
+        ClassFileWriter.ByteVector code = writer.code();
+
+        /* [value] -> [value, registers, x, shifted value] */
+        peek(writer, x);
+        code.putByte(DUP).putByte(ALOAD_2).putByte(SWAP);
+        pushInt(writer, x);
+        code.putByte(SWAP).putByte(ICONST_1).putByte(right ? ISHR : ISHL);
+        poke(writer);
+
+        /* [value] -> [registers, VF, shifted out bit] */
+        code.putByte(ALOAD_2).putByte(SWAP);
+        pushInt(writer, VF);
+        code.putByte(SWAP);
+        if (right) {
+            code.putByte(ICONST_1).putByte(IAND);
+        } else {
+            pushInt(writer, 0x80);
+            code.putByte(IAND);
+            pushInt(writer, 7);
+            code.putByte(ISHR);
+        }
+        poke(writer);
+    }
+
+    private static void peek(ClassFileWriter writer, int register) {
+        writer.code().putByte(ALOAD_2);
+        pushInt(writer, register);
+        writer.code().putByte(INVOKEVIRTUAL).putShort(writer.methodRef(REGISTERS, "peekUnsigned", "(I)I"));
+    }
+
+    private static void poke(ClassFileWriter writer) {
+        writer.code().putByte(INVOKEVIRTUAL).putShort(writer.methodRef(REGISTERS, "poke", "(II)V"));
+    }
+
+    private static void setProgramCounter(ClassFileWriter writer, int address) {
+        writer.code().putByte(ALOAD).putByte(PROGRAM_COUNTER_LOCAL);
+        pushInt(writer, address);
+        writer.code().putByte(INVOKEVIRTUAL).putShort(writer.methodRef(PROGRAM_COUNTER, "jumpTo", "(I)V"));
+    }
+
+    /**
+     * Returns the number of executed instructions if the block was invalidated by the previous instruction,
+     * as the remaining instructions may have been overwritten
+     */
+    private static void returnIfInvalidated(ClassFileWriter writer, int executed) {
+        ClassFileWriter.ByteVector code = writer.code();
+
+        code.putByte(ALOAD).putByte(BLOCK_LOCAL);
+        code.putByte(INVOKEVIRTUAL).putShort(writer.methodRef(BLOCK, "isValid", "()Z"));
+        int branch = code.length();
+        code.putByte(IFNE).putShort(0);
+        pushInt(writer, executed);
+        code.putByte(IRETURN);
+        code.setShort(branch + 1, code.length() - branch);
+        writer.markFrame();
+    }
+
+    /**
+     * Returns the number of executed instructions if no cycles are left to execute the next one,
+     * so a block can be entered even if it doesn't fit into the remaining cycles
+     *
+     * @param executed The number of instructions executed before the next one
+     * @param address  The address of the next instruction, which the program counter is set to before returning,
+     *                 or -1 if the program counter already points to it
+     */
+    private static void returnIfOutOfCycles(ClassFileWriter writer, int executed, int address) {
+        ClassFileWriter.ByteVector code = writer.code();
+
+        code.putByte(ILOAD).putByte(MAX_CYCLES_LOCAL);
+        pushInt(writer, executed);
+        int branch = code.length();
+        code.putByte(IF_ICMPGT).putShort(0);
+        if (address >= 0) setProgramCounter(writer, address);
+        pushInt(writer, executed);
+        code.putByte(IRETURN);
+        code.setShort(branch + 1, code.length() - branch);
+        writer.markFrame();
+    }
+
+    private static void pushInt(ClassFileWriter writer, int value) {
+        ClassFileWriter.ByteVector code = writer.code();
+
+        if (value >= -1 && value <= 5) code.putByte(ICONST_0 + value);
+        else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) code.putByte(BIPUSH).putByte(value);
+        else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) code.putByte(SIPUSH).putShort(value);
+        else code.putByte(LDC_W).putShort(writer.integer(value));
+    }
+
+    /**
+     * Checks whether an instruction writes to the memory (FX33 and FX55)
+     *
+     * @param opCode The opcode to check
+     * @return True if the instruction writes to the memory
+     */
+    static boolean writesMemory(int opCode) {
+        int masked = opCode & 0xF0FF;
+        return masked == 0xF033 || masked == 0xF055;
+    }
+
+    /**
+     * Returns the number of blocks compiled so far
+     *
+     * @return The number of compiled blocks
+     */
+    public int getCompiledBlocks() {
+        return compiledBlocks;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * A {@link ClassLoader} defining a single compiled block
+     */
+    private static final class BlockClassLoader extends ClassLoader {
+        BlockClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] classFile) {
+            return defineClass(name, classFile, 0, classFile.length);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package de.nihas101.chip8.hardware.jit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a minimal class file implementing a single interface with a default constructor and one method.
+ * The method may only branch forward to locations with an empty operand stack and the initial locals,
+ * so every frame of its StackMapTable is a same_frame.
+ */
+final class ClassFileWriter {
+    private static final int JAVA_8 = 52;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHOD_REF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private final ByteVector constantPool = new ByteVector();
+    private final Map<String, Integer> constants = new HashMap<>();
+    private int constantCount = 1;
+
+    private final ByteVector code = new ByteVector();
+    private final List<Integer> frames = new ArrayList<>();
+
+    /**
+     * Returns the code of the method, to which instructions are appended
+     *
+     * @return The code of the method
+     */
+    ByteVector code() {
+        return code;
+    }
+
+    /**
+     * Marks the current end of the code as the target of a forward branch
+     */
+    void markFrame() {
+        frames.add(code.length());
+    }
+
+    int utf8(String value) {
+        Integer index = constants.get("U" + value);
+        if (index != null) return index;
+
+        constantPool.putByte(CONSTANT_UTF8).putUtf8(value);
+        return addConstant("U" + value);
+    }
+
+    int integer(int value) {
+        Integer index = constants.get("I" + value);
+        if (index != null) return index;
+
+        constantPool.putByte(CONSTANT_INTEGER).putInt(value);
+        return addConstant("I" + value);
+    }
+
+    int classRef(String internalName) {
+        Integer index = constants.get("C" + internalName);
+        if (index != null) return index;
+
+        int name = utf8(internalName);
+        constantPool.putByte(CONSTANT_CLASS).putShort(name);
+        return addConstant("C" + internalName);
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_METHOD_REF, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        String key = "M" + tag + owner + "." + name + descriptor;
+        Integer index = constants.get(key);
+        if (index != null) return index;
+
+        int ownerIndex = classRef(owner);
+        int nameAndType = nameAndType(name, descriptor);
+        constantPool.putByte(tag).putShort(ownerIndex).putShort(nameAndType);
+        return addConstant(key);
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        String key = "N" + name + descriptor;
+        Integer index = constants.get(key);
+        if (index != null) return index;
+
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        constantPool.putByte(CONSTANT_NAME_AND_TYPE).putShort(nameIndex).putShort(descriptorIndex);
+        return addConstant(key);
+    }
+
+    private int addConstant(String key) {
+        constants.put(key, constantCount);
+        return constantCount++;
+    }
+
+    /**
+     * Writes the class file
+     *
+     * @param className     The internal name of the class
+     * @param interfaceName The internal name of the interface the class implements
+     * @param methodName    The name of the method whose code was appended to {@link #code()}
+     * @param descriptor    The descriptor of the method
+     * @param maxStack      The maximum depth of the operand stack of the method
+     * @param maxLocals     The number of local variables of the method, including its parameters
+     * @return The bytes of the class file
+     */
+    byte[] toByteArray(String className, String interfaceName, String methodName, String descriptor,
+                       int maxStack, int maxLocals) {
+        int thisClass = classRef(className);
+        int superClass = classRef("java/lang/Object");
+        int interfaceClass = classRef(interfaceName);
+        int objectConstructor = methodRef("java/lang/Object", "<init>", "()V");
+        int constructorName = utf8("<init>");
+        int constructorDescriptor = utf8("()V");
+        int methodNameIndex = utf8(methodName);
+        int descriptorIndex = utf8(descriptor);
+        int codeAttribute = utf8("Code");
+        int stackMapTable = utf8("StackMapTable");
+
+        ByteVector classFile = new ByteVector();
+        classFile.putInt(0xCAFEBABE).putShort(0).putShort(JAVA_8);
+        classFile.putShort(constantCount).putBytes(constantPool);
+        classFile.putShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER).putShort(thisClass).putShort(superClass);
+        classFile.putShort(1).putShort(interfaceClass);
+        classFile.putShort(0);
+        classFile.putShort(2);
+
+        /* public <init>() { super(); } */
+        ByteVector constructor = new ByteVector()
+                .putByte(Opcodes.ALOAD_0)
+                .putByte(Opcodes.INVOKESPECIAL).putShort(objectConstructor)
+                .putByte(Opcodes.RETURN);
+        classFile.putShort(ACC_PUBLIC).putShort(constructorName).putShort(constructorDescriptor).putShort(1);
+        putCode(classFile, codeAttribute, constructor, 1, 1, null, stackMapTable);
+
+        classFile.putShort(ACC_PUBLIC).putShort(methodNameIndex).putShort(descriptorIndex).putShort(1);
+        putCode(classFile, codeAttribute, code, maxStack, maxLocals, frames, stackMapTable);
+
+        classFile.putShort(0);
+        return classFile.toByteArray();
+    }
+
+    private void putCode(ByteVector classFile, int codeAttribute, ByteVector code, int maxStack, int maxLocals,
+                         List<Integer> frames, int stackMapTable) {
+        ByteVector frameTable = createStackMapTable(frames);
+        int attributeLength = 12 + code.length() + (frameTable == null ? 0 : 6 + frameTable.length());
+
+        classFile.putShort(codeAttribute).putInt(attributeLength);
+        classFile.putShort(maxStack).putShort(maxLocals);
+        classFile.putInt(code.length()).putBytes(code);
+        classFile.putShort(0);
+
+        if (frameTable == null) classFile.putShort(0);
+        else classFile.putShort(1).putShort(stackMapTable).putInt(frameTable.length()).putBytes(frameTable);
+    }
+
+    private ByteVector createStackMapTable(List<Integer> frames) {
+        if (frames == null || frames.isEmpty()) return null;
+
+        ByteVector frameTable = new ByteVector().putShort(frames.size());
+        int previous = -1;
+        for (int offset : frames) {
+            int offsetDelta = offset - previous - 1;
+            if (offsetDelta < 64) frameTable.putByte(offsetDelta);                // same_frame
+            else frameTable.putByte(251).putShort(offsetDelta);                  // same_frame_extended
+            previous = offset;
+        }
+        return frameTable;
+    }
+
+    /**
+     * A growable array of bytes, written in big-endian order
+     */
+    static final class ByteVector {
+        private byte[] bytes = new byte[256];
+        private int length = 0;
+
+        ByteVector putByte(int value) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) value;
+            return this;
+        }
+
+        ByteVector putShort(int value) {
+            return putByte(value >> 8).putByte(value);
+        }
+
+        ByteVector putInt(int value) {
+            return putShort(value >> 16).putShort(value);
+        }
+
+        ByteVector putUtf8(String value) {
+            /* Only used for ASCII identifiers, for which modified UTF-8 is identical to ASCII */
+            putShort(value.length());
+            for (int i = 0; i < value.length(); i++) putByte(value.charAt(i));
+            return this;
+        }
+
+        ByteVector putBytes(ByteVector byteVector) {
+            ensureCapacity(byteVector.length);
+            System.arraycopy(byteVector.bytes, 0, bytes, length, byteVector.length);
+            length += byteVector.length;
+            return this;
+        }
+
+        /**
+         * Overwrites two bytes that were already written
+         *
+         * @param index The index of the first byte
+         * @param value The value to write
+         */
+        void setShort(int index, int value) {
+            bytes[index] = (byte) (value >> 8);
+            bytes[index + 1] = (byte) value;
+        }
+
+        int length() {
+            return length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+
+        private void ensureCapacity(int additional) {
+            if (length + additional > bytes.length)
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + additional));
+        }
+    }
+}
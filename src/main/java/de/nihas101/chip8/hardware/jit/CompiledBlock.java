@@ -0,0 +1,29 @@
+package de.nihas101.chip8.hardware.jit;
+
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
+import de.nihas101.chip8.hardware.TranslationCache.Block;
+import de.nihas101.chip8.hardware.memory.AddressRegister;
+import de.nihas101.chip8.hardware.memory.ProgramCounter;
+import de.nihas101.chip8.hardware.memory.Registers;
+import de.nihas101.chip8.opcodes.UnknownOPCodeException;
+
+/**
+ * Represents a {@link Block} that was compiled into a JVM class by the {@link BlockCompiler}
+ */
+public interface CompiledBlock {
+    /**
+     * Executes the compiled instructions of the block
+     *
+     * @param centralProcessingUnit The {@link CentralProcessingUnit} executing the block
+     * @param registers             The {@link Registers} of the {@link CentralProcessingUnit}
+     * @param addressRegister       The {@link AddressRegister} of the {@link CentralProcessingUnit}
+     * @param programCounter        The {@link ProgramCounter} of the {@link CentralProcessingUnit}
+     * @param block                 The {@link Block} that was compiled
+     * @param maxCycles             The maximum number of instructions to execute, at least 1
+     * @return The number of instructions that were executed, which is less than the length of the block
+     * if it was invalidated by one of its own instructions or if the maximum number of instructions was reached
+     * @throws UnknownOPCodeException Thrown if an unknown opcode is encountered
+     */
+    int execute(CentralProcessingUnit centralProcessingUnit, Registers registers, AddressRegister addressRegister,
+                ProgramCounter programCounter, Block block, int maxCycles) throws UnknownOPCodeException;
+}
@@ -7,14 +7,29 @@ import de.nihas101.chip8.utils.keyConfiguration.UnknownEmulatorKeyException;
 public class EmulatorKey {
     private final String keyName;
     private final EmulatorKeyEvent emulatorKeyEvent;
+    private final EmulatorKeyEvent releaseEvent;
 
-    private EmulatorKey(String keyName, EmulatorKeyEvent emulatorKeyEvent) {
+    private EmulatorKey(String keyName, EmulatorKeyEvent emulatorKeyEvent, EmulatorKeyEvent releaseEvent) {
         this.keyName = keyName;
         this.emulatorKeyEvent = emulatorKeyEvent;
+        this.releaseEvent = releaseEvent;
     }
 
     public static EmulatorKey createEmulatorKey(String keyName, EmulatorKeyEvent emulatorKeyEvent) {
-        return new EmulatorKey(keyName, emulatorKeyEvent);
+        return new EmulatorKey(keyName, emulatorKeyEvent, () -> { /* DO NOTHING */ });
+    }
+
+    /**
+     * Creates an {@link EmulatorKey}
+     *
+     * @param keyName          The name of the key
+     * @param emulatorKeyEvent The event triggered when the key is pressed
+     * @param releaseEvent     The event triggered when the key is released
+     * @return The created {@link EmulatorKey}
+     */
+    public static EmulatorKey createEmulatorKey(String keyName, EmulatorKeyEvent emulatorKeyEvent,
+                                                EmulatorKeyEvent releaseEvent) {
+        return new EmulatorKey(keyName, emulatorKeyEvent, releaseEvent);
     }
 
     public String getKeyName() {
@@ -25,13 +40,30 @@ public class EmulatorKey {
         emulatorKeyEvent.trigger();
     }
 
+    public void release() {
+        releaseEvent.trigger();
+    }
+
     @Override
     public String toString() {
         return keyName;
     }
 
     public static EmulatorKey createEmulatorKey(String keyName, CentralProcessingUnit centralProcessingUnit) throws UnknownEmulatorKeyException {
-        int keyCode = Keys.valueOf(keyName);
-        return new EmulatorKey(keyName, () -> centralProcessingUnit.setKeyCode(keyCode));
+        return createEmulatorKey(keyName, Keys.valueOf(keyName), centralProcessingUnit);
+    }
+
+    /**
+     * Creates an {@link EmulatorKey} pressing a key of a {@link CentralProcessingUnit} while it is held down,
+     * so several keys may be pressed at once
+     *
+     * @param keyName               The name of the key
+     * @param keyCode               The code of the key (0x0 - 0xF)
+     * @param centralProcessingUnit The {@link CentralProcessingUnit} to press the key of
+     * @return The created {@link EmulatorKey}
+     */
+    public static EmulatorKey createEmulatorKey(String keyName, int keyCode, CentralProcessingUnit centralProcessingUnit) {
+        return new EmulatorKey(keyName, () -> centralProcessingUnit.pressKey(keyCode),
+                () -> centralProcessingUnit.releaseKey(keyCode));
     }
 }
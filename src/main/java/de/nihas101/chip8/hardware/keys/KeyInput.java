@@ -0,0 +1,26 @@
+package de.nihas101.chip8.hardware.keys;
+
+/**
+ * An interface for sources of the keys the instructions of a
+ * {@link de.nihas101.chip8.hardware.CentralProcessingUnit} read, e.g. to record the keys pressed by the user
+ * or to replay recorded ones. Instructions are identified by the number of instructions executed before them,
+ * so a source is asked for the keys at exactly the same points of every run of the same program
+ */
+public interface KeyInput {
+    /**
+     * Returns the keys an instruction reads, which is only called by the thread executing the instructions
+     *
+     * @param instruction The number of instructions that were executed before the instruction
+     * @param keyState    The keys pressed by the user
+     * @return The {@link KeyState} the instruction reads the keys from
+     */
+    KeyState readKeys(long instruction, KeyState keyState);
+
+    /**
+     * Checks whether the returned keys follow the keys pressed by the user,
+     * in which case FX0A may halt the executing thread until the user presses a key
+     *
+     * @return True if the keys are pressed by the user
+     */
+    boolean isInteractive();
+}
@@ -0,0 +1,160 @@
+package de.nihas101.chip8.hardware.keys;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static de.nihas101.chip8.utils.keyConfiguration.Keys.NO_KEY;
+
+/**
+ * A class representing the state of the 16 keys of a Chip-8, one bit per key, the bit of key 0 being the least
+ * significant one. Keys may be pressed and released from any thread, a thread waiting for a key press is woken up
+ * as soon as one arrives
+ */
+public class KeyState {
+    private static final int KEYS = 16;
+
+    private final AtomicInteger pressedKeys = new AtomicInteger(0);
+    private volatile int lastPressedKey = NO_KEY;
+    private volatile Thread waitingThread = null;
+
+    /**
+     * Marks a key as pressed and wakes up the thread waiting for a key press
+     *
+     * @param key The key (0x0 - 0xF)
+     */
+    public void press(int key) {
+        int mask = maskOf(key);
+        lastPressedKey = key;
+        pressedKeys.getAndUpdate(keys -> keys | mask);
+        wakeUp();
+    }
+
+    /**
+     * Marks a key as released
+     *
+     * @param key The key (0x0 - 0xF)
+     */
+    public void release(int key) {
+        int mask = maskOf(key);
+        pressedKeys.getAndUpdate(keys -> keys & ~mask);
+    }
+
+    /**
+     * Replaces the pressed keys
+     *
+     * @param keys The pressed keys, one bit per key
+     */
+    public void setPressedKeys(int keys) {
+        if ((keys & ~0xFFFF) != 0)
+            throw new IllegalArgumentException("Only the lower 16 bits may be set: " + Integer.toHexString(keys));
+
+        if ((keys & maskOfOrZero(lastPressedKey)) == 0 && keys != 0)
+            lastPressedKey = Integer.numberOfTrailingZeros(keys);
+        pressedKeys.set(keys);
+        if (keys != 0) wakeUp();
+    }
+
+    /**
+     * Replaces the pressed keys and the key that was pressed last, e.g. to copy the state of another {@link KeyState}
+     *
+     * @param keys           The pressed keys, one bit per key
+     * @param lastPressedKey The key that was pressed last,
+     *                       or {@link de.nihas101.chip8.utils.keyConfiguration.Keys#NO_KEY}
+     */
+    public void setPressedKeys(int keys, int lastPressedKey) {
+        if ((keys & ~0xFFFF) != 0)
+            throw new IllegalArgumentException("Only the lower 16 bits may be set: " + Integer.toHexString(keys));
+        if (lastPressedKey != NO_KEY) maskOf(lastPressedKey);
+
+        this.lastPressedKey = lastPressedKey;
+        pressedKeys.set(keys);
+        if (keys != 0) wakeUp();
+    }
+
+    public void releaseAll() {
+        pressedKeys.set(0);
+    }
+
+    /**
+     * Checks whether a key is pressed
+     *
+     * @param key The key, values outside of 0x0 - 0xF are never pressed
+     * @return True if the key is pressed
+     */
+    public boolean isPressed(int key) {
+        return (pressedKeys.get() & maskOfOrZero(key)) != 0;
+    }
+
+    /**
+     * Returns the pressed keys
+     *
+     * @return The pressed keys, one bit per key
+     */
+    public int getPressedKeys() {
+        return pressedKeys.get();
+    }
+
+    /**
+     * Returns a single pressed key, preferring the one pressed last
+     *
+     * @return The pressed key, or {@link de.nihas101.chip8.utils.keyConfiguration.Keys#NO_KEY} if none is pressed
+     */
+    public int getPressedKey() {
+        int keys = pressedKeys.get();
+        if (keys == 0) return NO_KEY;
+
+        int lastPressed = lastPressedKey;
+        if ((keys & maskOfOrZero(lastPressed)) != 0) return lastPressed;
+        return Integer.numberOfTrailingZeros(keys);
+    }
+
+    /**
+     * Returns the key that was pressed last, which may have been released since
+     *
+     * @return The key, or {@link de.nihas101.chip8.utils.keyConfiguration.Keys#NO_KEY} if no key was pressed yet
+     */
+    public int getLastPressedKey() {
+        return lastPressedKey;
+    }
+
+    /**
+     * Halts the calling thread until a key is pressed, without polling
+     *
+     * @param cancelled Checked whenever the thread wakes up, waiting stops as soon as it returns true
+     * @return The pressed key, or {@link de.nihas101.chip8.utils.keyConfiguration.Keys#NO_KEY} if waiting
+     * was cancelled or the thread was interrupted
+     */
+    public int awaitKeyPress(BooleanSupplier cancelled) {
+        Thread currentThread = Thread.currentThread();
+        /* Register before checking the keys, so a key pressed in between unparks this thread */
+        waitingThread = currentThread;
+        try {
+            int key;
+            while ((key = getPressedKey()) == NO_KEY) {
+                if (cancelled.getAsBoolean() || currentThread.isInterrupted()) return NO_KEY;
+                LockSupport.park(this);
+            }
+            return key;
+        } finally {
+            waitingThread = null;
+        }
+    }
+
+    /**
+     * Wakes up the thread waiting for a key press, e.g. after the condition cancelling the wait changed
+     */
+    public void wakeUp() {
+        Thread thread = waitingThread;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+
+    private static int maskOf(int key) {
+        if (key < 0 || key >= KEYS) throw new IllegalArgumentException("Unknown key: " + key);
+        return 1 << key;
+    }
+
+    private static int maskOfOrZero(int key) {
+        return key < 0 || key >= KEYS ? 0 : 1 << key;
+    }
+}
@@ -10,14 +10,14 @@ public class AddressRegister implements Debuggable {
     /**
      * The 16-bit address register I
      */
-    private UnsignedShort address;
+    private int address;
 
     public AddressRegister() {
-        this.address = new UnsignedShort(0);
+        this.address = 0;
     }
 
     public AddressRegister(UnsignedShort address) {
-        this.address = address;
+        this.address = address.unsignedDataType;
     }
 
     /**
@@ -26,6 +26,15 @@ public class AddressRegister implements Debuggable {
      * @return The {@link UnsignedShort} representing the value of this register
      */
     public UnsignedShort getAddress() {
+        return new UnsignedShort(address);
+    }
+
+    /**
+     * Returns the value of this register without allocating an {@link UnsignedShort}
+     *
+     * @return The value of this register (0 - 0xFFFF)
+     */
+    public int getAddressUnsigned() {
         return address;
     }
 
@@ -35,7 +44,16 @@ public class AddressRegister implements Debuggable {
      * @param unsignedShort The value to be set in this register
      */
     public void setAddress(UnsignedShort unsignedShort) {
-        this.address = unsignedShort;
+        this.address = unsignedShort.unsignedDataType;
+    }
+
+    /**
+     * Sets the value of this register
+     *
+     * @param address The value to be set in this register, only the lowest 16 bits are kept
+     */
+    public void setAddress(int address) {
+        this.address = address & 0xFFFF;
     }
 
     /**
@@ -3,30 +3,58 @@ package de.nihas101.chip8.hardware.memory;
 import de.nihas101.chip8.debug.Debuggable;
 import de.nihas101.chip8.unsignedDataTypes.UnsignedShort;
 
-import java.util.Stack;
+import java.nio.ByteBuffer;
 
+import static de.nihas101.chip8.hardware.memory.StackFaultException.createStackOverflow;
+import static de.nihas101.chip8.hardware.memory.StackFaultException.createStackUnderflow;
 import static java.lang.Integer.parseInt;
 
 /**
- * A class representing a stack of a Chip-8
+ * A class representing a stack of a Chip-8, holding the 16-bit return addresses of the called subroutines.
+ * The addresses are stored in an array of a fixed depth, so pushing and popping neither allocates nor synchronizes
  */
 public class Chip8Stack implements Debuggable {
+    /**
+     * The default depth of the stack, the number of nested subroutines most interpreters support
+     */
+    public static final int DEFAULT_DEPTH = 16;
+
     /**
      * The 16-bit stack
      */
-    private final Stack<UnsignedShort> stack;
+    private final short[] stack;
+    /* The index of the next free entry */
+    private int stackPointer = 0;
 
-    public Chip8Stack(Stack<UnsignedShort> stack) {
-        this.stack = stack;
+    /**
+     * Creates an empty {@link Chip8Stack} of the default depth
+     */
+    public Chip8Stack() {
+        this(DEFAULT_DEPTH);
+    }
+
+    /**
+     * Creates an empty {@link Chip8Stack}
+     *
+     * @param depth The maximum number of addresses the stack holds
+     */
+    public Chip8Stack(int depth) {
+        if (depth < 1) throw new IllegalArgumentException("The depth of the stack has to be positive: " + depth);
+        this.stack = new short[depth];
     }
 
-    public Chip8Stack(java.util.Stack<UnsignedShort> stack, String[] strings) {
-        this.stack = stack;
+    /**
+     * Creates a {@link Chip8Stack} of the default depth holding the values written by {@link #getValues()}
+     *
+     * @param strings The values, the first one being the bottom of the stack
+     */
+    public Chip8Stack(String[] strings) {
+        this(Math.max(DEFAULT_DEPTH, strings.length));
 
         if (strings.length == 1 && "".equals(strings[0]))
             return;
 
-        for (String string : strings) stack.push(new UnsignedShort(parseInt(string)));
+        for (String string : strings) push(parseInt(string));
     }
 
     /**
@@ -34,25 +62,49 @@ public class Chip8Stack implements Debuggable {
      */
     @Override
     public String getState() {
-        return "Chip8Stack:\t" + stack.toString();
+        return "Chip8Stack:\t" + getValues();
     }
 
     /**
      * Pushes The value onto the stack
      *
      * @param unsignedShort The value to be pushed onto the stack
+     * @throws StackFaultException If the stack is full
      */
     public void push(UnsignedShort unsignedShort) {
-        stack.push(unsignedShort);
+        push(unsignedShort.unsignedDataType);
+    }
+
+    /**
+     * Pushes an address onto the stack
+     *
+     * @param address The address, of which only the lower 16 bits are kept
+     * @throws StackFaultException If the stack is full
+     */
+    public void push(int address) {
+        if (stackPointer == stack.length) throw createStackOverflow(stack.length);
+        stack[stackPointer++] = (short) address;
     }
 
     /**
      * Pops a value from the stack and returns it
      *
      * @return The retrieved value
+     * @throws StackFaultException If the stack is empty
      */
     public UnsignedShort pop() {
-        return stack.pop();
+        return new UnsignedShort(popAddress());
+    }
+
+    /**
+     * Pops an address from the stack, without allocating
+     *
+     * @return The retrieved address
+     * @throws StackFaultException If the stack is empty
+     */
+    public int popAddress() {
+        if (stackPointer == 0) throw createStackUnderflow();
+        return Short.toUnsignedInt(stack[--stackPointer]);
     }
 
     /**
@@ -61,14 +113,125 @@ public class Chip8Stack implements Debuggable {
      * @return The size of the stack
      */
     public int getSize() {
-        return this.stack.size();
+        return stackPointer;
+    }
+
+    /**
+     * Returns the maximum size of the stack
+     *
+     * @return The number of addresses the stack can hold
+     */
+    public int getDepth() {
+        return stack.length;
+    }
+
+    /**
+     * Returns a value of the stack without removing it
+     *
+     * @param index The index of the value, 0 being the bottom of the stack
+     * @return The value at the index
+     */
+    public UnsignedShort get(int index) {
+        return new UnsignedShort(getAddress(index));
+    }
+
+    /**
+     * Returns an address of the stack without removing it
+     *
+     * @param index The index of the address, 0 being the bottom of the stack
+     * @return The address at the index
+     */
+    public int getAddress(int index) {
+        if (index < 0 || index >= stackPointer)
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds (0 - "
+                    + (stackPointer - 1) + ")");
+
+        return Short.toUnsignedInt(stack[index]);
     }
 
     public void clear() {
-        this.stack.clear();
+        stackPointer = 0;
+    }
+
+    /**
+     * Writes the size and the depth of the stack followed by all of its entries into a buffer,
+     * advancing the position of the buffer. Unused entries are written as zeros,
+     * so the written bytes always take up the same space and only differ where the stack differs
+     *
+     * @param destination The buffer to write to
+     */
+    public void dump(ByteBuffer destination) {
+        destination.putShort((short) stackPointer).putShort((short) stack.length);
+        for (int i = 0; i < stackPointer; i++) destination.putShort(stack[i]);
+        for (int i = stackPointer; i < stack.length; i++) destination.putShort((short) 0);
+    }
+
+    /**
+     * Replaces the stack by the one written by {@link #dump(ByteBuffer)}, advancing the position of the buffer
+     *
+     * @param source The buffer to read from
+     * @throws IllegalArgumentException If the read stack holds more addresses than this one can
+     */
+    public void load(ByteBuffer source) {
+        int size = Short.toUnsignedInt(source.getShort());
+        int depth = Short.toUnsignedInt(source.getShort());
+        if (size > depth)
+            throw new IllegalArgumentException("A stack of size " + size + " exceeds its own depth of " + depth);
+
+        load(source, size);
+        source.position(source.position() + (depth - size) * Short.BYTES);
+    }
+
+    /**
+     * Replaces the stack by one stored as its size followed by only the used entries,
+     * the format of binary save states before version 3, advancing the position of the buffer
+     *
+     * @param source The buffer to read from
+     * @throws IllegalArgumentException If the read stack holds more addresses than this one can
+     */
+    public void loadCompact(ByteBuffer source) {
+        load(source, Short.toUnsignedInt(source.getShort()));
+    }
+
+    private void load(ByteBuffer source, int size) {
+        if (size > stack.length)
+            throw new IllegalArgumentException("A stack of size " + size + " exceeds the depth of " + stack.length);
+
+        for (int i = 0; i < size; i++) stack[i] = source.getShort();
+        stackPointer = size;
+    }
+
+    /**
+     * Replaces the stack by the addresses of another {@link Chip8Stack}
+     *
+     * @param source The {@link Chip8Stack} to copy
+     * @throws IllegalArgumentException If the other stack holds more addresses than this one can
+     */
+    public void copyFrom(Chip8Stack source) {
+        if (source.stackPointer > stack.length)
+            throw new IllegalArgumentException("A stack of size " + source.stackPointer + " exceeds the depth of "
+                    + stack.length);
+
+        System.arraycopy(source.stack, 0, stack, 0, source.stackPointer);
+        stackPointer = source.stackPointer;
+    }
+
+    /**
+     * Returns the number of bytes {@link #dump(ByteBuffer)} writes
+     *
+     * @return The size of the stack in the binary format
+     */
+    public int getDumpSize() {
+        return (2 + stack.length) * Short.BYTES;
     }
 
     public String getValues() {
-        return stack.toString();
+        StringBuilder stringBuilder = new StringBuilder("[");
+        for (int i = 0; i < stackPointer; i++) {
+            if (i > 0) stringBuilder.append(", ");
+            stringBuilder.append(Short.toUnsignedInt(stack[i]));
+        }
+
+        return stringBuilder.append(']').toString();
     }
 }
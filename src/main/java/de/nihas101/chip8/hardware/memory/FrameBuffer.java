@@ -0,0 +1,86 @@
+package de.nihas101.chip8.hardware.memory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static de.nihas101.chip8.hardware.memory.ScreenMemory.SCREEN_HEIGHT;
+
+/**
+ * A class handing complete frames of a {@link ScreenMemory} from the thread executing the CPU to the thread
+ * drawing them, without locks, waiting or allocations.
+ * Three buffers are used: the writer owns one to copy the screen into, the reader owns one to draw from and
+ * the third holds the newest frame. Publishing and reading a frame each swap the owned buffer with the third one
+ * in a single atomic operation, so the reader always sees a complete frame.
+ * Only a single thread may publish frames and only a single thread may read them
+ */
+public class FrameBuffer {
+    /* Set in exchange if the buffer it holds was published after the reader last took it */
+    private static final int NEW_FRAME = 4;
+    private static final int INDEX = 3;
+
+    private final long[][] rows = new long[3][SCREEN_HEIGHT];
+    private final long[] frames = new long[3];
+    private final long[] publishTimes = new long[3];
+    private final AtomicInteger exchange = new AtomicInteger(1);
+    /* Only accessed by the writer */
+    private int back = 0;
+    private long publishedGeneration = -1;
+    /* Only accessed by the reader */
+    private int front = 2;
+
+    private volatile long published = 0;
+
+    /**
+     * Publishes the current contents of the screen as a new frame, if it changed since the last published frame
+     *
+     * @param screenMemory The screen to publish
+     * @return True if a new frame was published
+     */
+    public boolean publish(ScreenMemory screenMemory) {
+        long generation = screenMemory.getGeneration();
+        if (generation == publishedGeneration) return false;
+        publishedGeneration = generation;
+
+        long[] buffer = rows[back];
+        for (int y = 0; y < SCREEN_HEIGHT; y++) buffer[y] = screenMemory.getRow(y);
+        frames[back] = published + 1;
+        publishTimes[back] = System.nanoTime();
+
+        back = exchange.getAndSet(back | NEW_FRAME) & INDEX;
+        published++;
+
+        return true;
+    }
+
+    /**
+     * Copies the newest frame
+     *
+     * @param destination The array to copy the rows of the frame into,
+     *                    the leftmost pixel being the most significant bit
+     * @return The number of the copied frame, which is 0 until the first frame was published
+     */
+    public long read(long[] destination) {
+        if ((exchange.get() & NEW_FRAME) != 0) front = exchange.getAndSet(front) & INDEX;
+
+        System.arraycopy(rows[front], 0, destination, 0, SCREEN_HEIGHT);
+        return frames[front];
+    }
+
+    /**
+     * Returns the time the frame returned by the last call to {@link #read(long[])} was published.
+     * May only be called by the thread reading the frames
+     *
+     * @return The time in nanoseconds, as returned by {@link System#nanoTime()}
+     */
+    public long getPublishTime() {
+        return publishTimes[front];
+    }
+
+    /**
+     * Returns the number of the newest frame
+     *
+     * @return The number of the newest frame, which is 0 until the first frame was published
+     */
+    public long getPublishedFrame() {
+        return published;
+    }
+}
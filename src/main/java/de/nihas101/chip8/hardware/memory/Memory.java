@@ -3,11 +3,11 @@ package de.nihas101.chip8.hardware.memory;
 import de.nihas101.chip8.debug.Debuggable;
 import de.nihas101.chip8.unsignedDataTypes.UnsignedByte;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
 
 import static de.nihas101.chip8.utils.Constants.MEMORY_LENGTH;
+import static java.lang.Byte.toUnsignedInt;
 import static java.lang.Integer.parseInt;
 
 /**
@@ -15,19 +15,40 @@ import static java.lang.Integer.parseInt;
  */
 public class Memory implements Debuggable {
     /**
-     * 0xFFF (4096) bytes of hardware
+     * The sprites of the characters 0 - F, five bytes each, stored at the start of the memory
      */
-    private UnsignedByte[] memory = new UnsignedByte[MEMORY_LENGTH];
+    private static final byte[] CHARACTER_SPRITES = createCharacterSprites(
+            /* 0 */ 0b11110000, 0b10010000, 0b10010000, 0b10010000, 0b11110000,
+            /* 1 */ 0b00100000, 0b01100000, 0b00100000, 0b00100000, 0b01110000,
+            /* 2 */ 0b11110000, 0b00010000, 0b11110000, 0b10000000, 0b11110000,
+            /* 3 */ 0b11110000, 0b00010000, 0b11110000, 0b00010000, 0b11110000,
+            /* 4 */ 0b10010000, 0b10010000, 0b11110000, 0b00010000, 0b00010000,
+            /* 5 */ 0b11110000, 0b10000000, 0b11110000, 0b00010000, 0b11110000,
+            /* 6 */ 0b11110000, 0b10000000, 0b11110000, 0b10010000, 0b11110000,
+            /* 7 */ 0b11110000, 0b00010000, 0b00100000, 0b01000000, 0b01000000,
+            /* 8 */ 0b11110000, 0b10010000, 0b11110000, 0b10010000, 0b11110000,
+            /* 9 */ 0b11110000, 0b10010000, 0b11110000, 0b00010000, 0b11110000,
+            /* A */ 0b11110000, 0b10010000, 0b11110000, 0b10010000, 0b10010000,
+            /* B */ 0b11100000, 0b10010000, 0b11100000, 0b10010000, 0b11100000,
+            /* C */ 0b11110000, 0b10000000, 0b10000000, 0b10000000, 0b11110000,
+            /* D */ 0b11100000, 0b10010000, 0b10010000, 0b10010000, 0b11100000,
+            /* E */ 0b11110000, 0b10000000, 0b11110000, 0b10000000, 0b11110000,
+            /* F */ 0b11110000, 0b10000000, 0b11110000, 0b10000000, 0b10000000
+    );
+
+    /**
+     * 0x1000 (4096) bytes of hardware
+     */
+    private final byte[] memory = new byte[MEMORY_LENGTH];
+    private WriteListener writeListener = null;
 
     public Memory() {
-        // Set Registers to 0
-        for (int i = 0; i < memory.length; i++) memory[i] = new UnsignedByte((byte) 0);
         setupCharacterSprites();
     }
 
     public Memory(String[] memoryStrings) {
         for (int i = 0; i < memoryStrings.length; i++)
-            memory[i] = new UnsignedByte((byte) parseInt(memoryStrings[i].trim()));
+            memory[i] = (byte) parseInt(memoryStrings[i].trim());
     }
 
     /**
@@ -48,7 +69,7 @@ public class Memory implements Debuggable {
     private String memoryToString() {
         StringBuilder stringBuilder = new StringBuilder();
         for (int i = 0; i < memory.length; i++)
-            stringBuilder.append(i).append(": ").append(memory[i].unsignedDataType).append("\n");
+            stringBuilder.append(i).append(": ").append(toUnsignedInt(memory[i])).append("\n");
 
         return stringBuilder.toString();
     }
@@ -60,7 +81,19 @@ public class Memory implements Debuggable {
      * @param unsignedByte The value to write into memory
      */
     public void write(int index, UnsignedByte unsignedByte) {
-        memory[index] = unsignedByte;
+        memory[index] = (byte) unsignedByte.unsignedDataType;
+        if (writeListener != null) writeListener.onWrite(index, 1);
+    }
+
+    /**
+     * Writes to the memory without wrapping the value into an {@link UnsignedByte}
+     *
+     * @param index The index of the cell to write to
+     * @param value The value to write into memory, only the lowest 8 bits are kept
+     */
+    public void write(int index, int value) {
+        memory[index] = (byte) value;
+        if (writeListener != null) writeListener.onWrite(index, 1);
     }
 
     /**
@@ -70,258 +103,128 @@ public class Memory implements Debuggable {
      * @return The read value
      */
     public UnsignedByte read(int index) {
-        if (index > -1 && index < MEMORY_LENGTH) return memory[index];
-        else throw new IndexOutOfBoundsException("Index " + index + " is out of bounds (0 - " + MEMORY_LENGTH + ")");
-    }
-
-    public void clear() {
-        for (int i = 0x200; i < memory.length; i++) memory[i] = new UnsignedByte((byte) 0);
-    }
-
-    private void setupCharacterSprites() {
-        CountDownLatch latch = new CountDownLatch(16);
-
-        createThread(this::setup0, latch).start();
-        createThread(this::setup1, latch).start();
-        createThread(this::setup2, latch).start();
-        createThread(this::setup3, latch).start();
-        createThread(this::setup4, latch).start();
-        createThread(this::setup5, latch).start();
-        createThread(this::setup6, latch).start();
-        createThread(this::setup7, latch).start();
-        createThread(this::setup8, latch).start();
-        createThread(this::setup9, latch).start();
-        createThread(this::setupA, latch).start();
-        createThread(this::setupB, latch).start();
-        createThread(this::setupC, latch).start();
-        createThread(this::setupD, latch).start();
-        createThread(this::setupE, latch).start();
-        createThread(this::setupF, latch).start();
-
-        try {
-            latch.await(2, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-    }
-
-    private Thread createThread(Runnable target, CountDownLatch latch) {
-        return new Thread(() -> {
-            target.run();
-            latch.countDown();
-        });
-    }
-
-    private void setup0() {
-        UnsignedByte[] zero = setupCharacter(
-                0b11110000,
-                0b10010000,
-                0b10010000,
-                0b10010000,
-                0b11110000
-        );
-
-        writeCharacter(0, zero);
-    }
-
-    private void setup1() {
-        UnsignedByte[] one = setupCharacter(
-                0b00100000,
-                0b01100000,
-                0b00100000,
-                0b00100000,
-                0b01110000
-        );
-
-        writeCharacter(5, one);
-    }
-
-    private void setup2() {
-        UnsignedByte[] two = setupCharacter(
-                0b11110000,
-                0b00010000,
-                0b11110000,
-                0b10000000,
-                0b11110000
-        );
-
-        writeCharacter(10, two);
-    }
-
-    private void setup3() {
-        UnsignedByte[] three = setupCharacter(
-                0b11110000,
-                0b00010000,
-                0b11110000,
-                0b00010000,
-                0b11110000
-        );
-
-        writeCharacter(15, three);
-    }
-
-    private void setup4() {
-        UnsignedByte[] four = setupCharacter(
-                0b10010000,
-                0b10010000,
-                0b11110000,
-                0b00010000,
-                0b00010000
-        );
-
-        writeCharacter(20, four);
-    }
-
-    private void setup5() {
-        UnsignedByte[] five = setupCharacter(
-                0b11110000,
-                0b10000000,
-                0b11110000,
-                0b00010000,
-                0b11110000
-        );
-
-        writeCharacter(25, five);
+        return new UnsignedByte(readUnsigned(index));
     }
 
-    private void setup6() {
-        UnsignedByte[] six = setupCharacter(
-                0b11110000,
-                0b10000000,
-                0b11110000,
-                0b10010000,
-                0b11110000
-        );
-
-        writeCharacter(30, six);
+    /**
+     * Reads a value from the memory without allocating an {@link UnsignedByte}
+     *
+     * @param index The index of the cell to read from
+     * @return The read value (0 - 255)
+     */
+    public int readUnsigned(int index) {
+        if (index > -1 && index < MEMORY_LENGTH) return toUnsignedInt(memory[index]);
+        else throw new IndexOutOfBoundsException("Index " + index + " is out of bounds (0 - " + MEMORY_LENGTH + ")");
     }
 
-    private void setup7() {
-        UnsignedByte[] seven = setupCharacter(
-                0b11110000,
-                0b00010000,
-                0b00100000,
-                0b01000000,
-                0b01000000
-        );
-
-        writeCharacter(35, seven);
+    /**
+     * Writes a block of bytes into the memory
+     *
+     * @param offset The index of the first cell to write to
+     * @param source The bytes to write
+     */
+    public void load(int offset, byte[] source) {
+        copyFrom(source, 0, offset, source.length);
     }
 
-    private void setup8() {
-        UnsignedByte[] eight = setupCharacter(
-                0b11110000,
-                0b10010000,
-                0b11110000,
-                0b10010000,
-                0b11110000
-        );
-
-        writeCharacter(40, eight);
+    /**
+     * Writes a block of bytes into the memory
+     *
+     * @param source       The array to read the bytes from
+     * @param sourceOffset The index of the first byte to read
+     * @param index        The index of the first cell to write to
+     * @param length       The number of bytes to write
+     */
+    public void copyFrom(byte[] source, int sourceOffset, int index, int length) {
+        checkBlock(index, length);
+        System.arraycopy(source, sourceOffset, memory, index, length);
+        if (writeListener != null) writeListener.onWrite(index, length);
     }
 
-    private void setup9() {
-        UnsignedByte[] nine = setupCharacter(
-                0b11110000,
-                0b10010000,
-                0b11110000,
-                0b00010000,
-                0b11110000
-        );
-
-        writeCharacter(45, nine);
+    /**
+     * Reads a block of bytes from the memory
+     *
+     * @param index             The index of the first cell to read from
+     * @param destination       The array to write the bytes to
+     * @param destinationOffset The index of the first byte to write
+     * @param length            The number of bytes to read
+     */
+    public void copyTo(int index, byte[] destination, int destinationOffset, int length) {
+        checkBlock(index, length);
+        System.arraycopy(memory, index, destination, destinationOffset, length);
     }
 
-    private void setupA() {
-        UnsignedByte[] a = setupCharacter(
-                0b11110000,
-                0b10010000,
-                0b11110000,
-                0b10010000,
-                0b10010000
-        );
-
-        writeCharacter(50, a);
+    /**
+     * Writes a block of bytes from a buffer into the memory, advancing the position of the buffer
+     *
+     * @param source The buffer to read the bytes from
+     * @param index  The index of the first cell to write to
+     * @param length The number of bytes to write
+     */
+    public void copyFrom(ByteBuffer source, int index, int length) {
+        checkBlock(index, length);
+        source.get(memory, index, length);
+        if (writeListener != null) writeListener.onWrite(index, length);
     }
 
-    private void setupB() {
-        UnsignedByte[] b = setupCharacter(
-                0b11100000,
-                0b10010000,
-                0b11100000,
-                0b10010000,
-                0b11100000
-        );
-
-        writeCharacter(55, b);
+    /**
+     * Reads a block of bytes from the memory into a buffer, advancing the position of the buffer
+     *
+     * @param index       The index of the first cell to read from
+     * @param destination The buffer to write the bytes to
+     * @param length      The number of bytes to read
+     */
+    public void copyTo(int index, ByteBuffer destination, int length) {
+        checkBlock(index, length);
+        destination.put(memory, index, length);
     }
 
-    private void setupC() {
-        UnsignedByte[] c = setupCharacter(
-                0b11110000,
-                0b10000000,
-                0b10000000,
-                0b10000000,
-                0b11110000
-        );
-
-        writeCharacter(60, c);
+    /**
+     * Overwrites the whole memory with the one of another {@link Memory}
+     *
+     * @param source The {@link Memory} to copy
+     */
+    public void copyFrom(Memory source) {
+        System.arraycopy(source.memory, 0, memory, 0, MEMORY_LENGTH);
+        if (writeListener != null) writeListener.onWrite(0, MEMORY_LENGTH);
     }
 
-    private void setupD() {
-        UnsignedByte[] d = setupCharacter(
-                0b11100000,
-                0b10010000,
-                0b10010000,
-                0b10010000,
-                0b11100000
-        );
-
-        writeCharacter(65, d);
+    private void checkBlock(int index, int length) {
+        if (index < 0 || length < 0 || index + length > MEMORY_LENGTH)
+            throw new IndexOutOfBoundsException("Block " + index + " - " + (index + length - 1)
+                    + " is out of bounds (0 - " + MEMORY_LENGTH + ")");
     }
 
-    private void setupE() {
-        UnsignedByte[] e = setupCharacter(
-                0b11110000,
-                0b10000000,
-                0b11110000,
-                0b10000000,
-                0b11110000
-        );
-
-        writeCharacter(70, e);
+    public void clear() {
+        Arrays.fill(memory, 0x200, memory.length, (byte) 0);
+        if (writeListener != null) writeListener.onWrite(0x200, memory.length - 0x200);
     }
 
-    private void setupF() {
-        UnsignedByte[] f = setupCharacter(
-                0b11110000,
-                0b10000000,
-                0b11110000,
-                0b10000000,
-                0b10000000
-        );
-        writeCharacter(75, f);
+    /**
+     * Sets the listener to be called after the memory was written to
+     *
+     * @param writeListener The listener to be called, or null to remove the current one
+     */
+    public void setWriteListener(WriteListener writeListener) {
+        this.writeListener = writeListener;
     }
 
-    private UnsignedByte[] setupCharacter(int one, int two, int three, int four, int five) {
-        return new UnsignedByte[]{
-                new UnsignedByte(one),
-                new UnsignedByte(two),
-                new UnsignedByte(three),
-                new UnsignedByte(four),
-                new UnsignedByte(five)
-        };
+    private void setupCharacterSprites() {
+        System.arraycopy(CHARACTER_SPRITES, 0, memory, 0, CHARACTER_SPRITES.length);
     }
 
-    private void writeCharacter(int startIndex, UnsignedByte[] unsignedBytes) {
-        this.memory[startIndex++] = unsignedBytes[0];
-        this.memory[startIndex++] = unsignedBytes[1];
-        this.memory[startIndex++] = unsignedBytes[2];
-        this.memory[startIndex++] = unsignedBytes[3];
-        this.memory[startIndex] = unsignedBytes[4];
+    private static byte[] createCharacterSprites(int... rows) {
+        byte[] sprites = new byte[rows.length];
+        for (int i = 0; i < rows.length; i++) sprites[i] = (byte) rows[i];
+        return sprites;
     }
 
     public String getValues() {
-        return Arrays.toString(memory);
+        StringBuilder stringBuilder = new StringBuilder("[");
+        for (int i = 0; i < memory.length; i++) {
+            if (i > 0) stringBuilder.append(", ");
+            stringBuilder.append(toUnsignedInt(memory[i]));
+        }
+        return stringBuilder.append("]").toString();
     }
 }
@@ -10,21 +10,25 @@ public class ProgramCounter implements Debuggable {
     /**
      * The 16-bit program counter
      */
-    private UnsignedShort count;
+    private int count;
 
     public ProgramCounter(UnsignedShort count) {
-        this.count = count;
+        this.count = count.unsignedDataType;
+    }
+
+    public ProgramCounter(int count) {
+        this.count = count & 0xFFFF;
     }
 
     public ProgramCounter() {
-        this.count = new UnsignedShort(0);
+        this.count = 0;
     }
 
     /**
      * Increments the PC by one
      */
     public void incrementCounter() {
-        this.count = new UnsignedShort((this.count.unsignedDataType + 1));
+        this.count = (this.count + 1) & 0xFFFF;
     }
 
     /**
@@ -33,10 +37,19 @@ public class ProgramCounter implements Debuggable {
      * @param N The value by which to increment the counter by
      */
     public void incrementCounterN(int N) {
-        this.count = new UnsignedShort((this.count.unsignedDataType + N));
+        this.count = (this.count + N) & 0xFFFF;
     }
 
     public UnsignedShort getCounter() {
+        return new UnsignedShort(this.count);
+    }
+
+    /**
+     * Returns the value of the PC without allocating an {@link UnsignedShort}
+     *
+     * @return The address the PC points to (0 - 0xFFFF)
+     */
+    public int getCounterUnsigned() {
         return this.count;
     }
 
@@ -45,7 +58,7 @@ public class ProgramCounter implements Debuggable {
      */
     @Override
     public String getState() {
-        return "PC:\t" + Integer.toHexString(count.unsignedDataType);
+        return "PC:\t" + Integer.toHexString(count);
     }
 
     /**
@@ -54,6 +67,15 @@ public class ProgramCounter implements Debuggable {
      * @param address The new address the PC should point to
      */
     public void jumpTo(UnsignedShort address) {
-        count = address;
+        count = address.unsignedDataType;
+    }
+
+    /**
+     * Sets the PC to the provided address
+     *
+     * @param address The new address the PC should point to, only the lowest 16 bits are kept
+     */
+    public void jumpTo(int address) {
+        count = address & 0xFFFF;
     }
 }
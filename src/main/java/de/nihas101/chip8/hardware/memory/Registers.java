@@ -3,9 +3,11 @@ package de.nihas101.chip8.hardware.memory;
 import de.nihas101.chip8.debug.Debuggable;
 import de.nihas101.chip8.unsignedDataTypes.UnsignedByte;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import static de.nihas101.chip8.utils.Constants.REGISTER_LENGTH;
+import static java.lang.Byte.toUnsignedInt;
 import static java.lang.Integer.parseInt;
 import static java.lang.Integer.toHexString;
 
@@ -13,20 +15,17 @@ import static java.lang.Integer.toHexString;
  * A class representing the registers of a Chip-8
  */
 public class Registers implements Debuggable {
-    private UnsignedByte ZERO = new UnsignedByte((byte) 0);
     /**
      * 16 registers, 1 byte each
      */
-    private final UnsignedByte[] registers = new UnsignedByte[REGISTER_LENGTH];
+    private final byte[] registers = new byte[REGISTER_LENGTH];
 
     public Registers() {
-        for (int i = 0; i < registers.length; i++)
-            registers[i] = ZERO;
     }
 
     public Registers(String[] registerStrings) {
         for (int i = 0; i < registers.length; i++) {
-            registers[i] = new UnsignedByte((byte) parseInt(registerStrings[i]));
+            registers[i] = (byte) parseInt(registerStrings[i]);
         }
     }
 
@@ -36,22 +35,22 @@ public class Registers implements Debuggable {
     @Override
     public String getState() {
         return
-                "V0: " + toHexString(registers[0x0].unsignedDataType) + "   " +
-                        "V1: " + toHexString(registers[0x1].unsignedDataType) + "   " +
-                        "V2: " + toHexString(registers[0x2].unsignedDataType) + "   " +
-                        "V3: " + toHexString(registers[0x3].unsignedDataType) + "   " +
-                        "V4: " + toHexString(registers[0x4].unsignedDataType) + "   " +
-                        "V5: " + toHexString(registers[0x5].unsignedDataType) + "   " +
-                        "V6: " + toHexString(registers[0x6].unsignedDataType) + "   " +
-                        "V7: " + toHexString(registers[0x7].unsignedDataType) + "\n" +
-                        "V8: " + toHexString(registers[0x8].unsignedDataType) + "   " +
-                        "V9: " + toHexString(registers[0x9].unsignedDataType) + "   " +
-                        "VA: " + toHexString(registers[0xA].unsignedDataType) + "   " +
-                        "VB: " + toHexString(registers[0xB].unsignedDataType) + "   " +
-                        "VC: " + toHexString(registers[0xC].unsignedDataType) + "   " +
-                        "VD: " + toHexString(registers[0xD].unsignedDataType) + "   " +
-                        "VE: " + toHexString(registers[0xE].unsignedDataType) + "   " +
-                        "VF: " + toHexString(registers[0xF].unsignedDataType);
+                "V0: " + toHexString(peekUnsigned(0x0)) + "   " +
+                        "V1: " + toHexString(peekUnsigned(0x1)) + "   " +
+                        "V2: " + toHexString(peekUnsigned(0x2)) + "   " +
+                        "V3: " + toHexString(peekUnsigned(0x3)) + "   " +
+                        "V4: " + toHexString(peekUnsigned(0x4)) + "   " +
+                        "V5: " + toHexString(peekUnsigned(0x5)) + "   " +
+                        "V6: " + toHexString(peekUnsigned(0x6)) + "   " +
+                        "V7: " + toHexString(peekUnsigned(0x7)) + "\n" +
+                        "V8: " + toHexString(peekUnsigned(0x8)) + "   " +
+                        "V9: " + toHexString(peekUnsigned(0x9)) + "   " +
+                        "VA: " + toHexString(peekUnsigned(0xA)) + "   " +
+                        "VB: " + toHexString(peekUnsigned(0xB)) + "   " +
+                        "VC: " + toHexString(peekUnsigned(0xC)) + "   " +
+                        "VD: " + toHexString(peekUnsigned(0xD)) + "   " +
+                        "VE: " + toHexString(peekUnsigned(0xE)) + "   " +
+                        "VF: " + toHexString(peekUnsigned(0xF));
     }
 
     /**
@@ -61,7 +60,17 @@ public class Registers implements Debuggable {
      * @return The value inside the register
      */
     public UnsignedByte peek(int Vx) {
-        return registers[Vx];
+        return new UnsignedByte(registers[Vx]);
+    }
+
+    /**
+     * Returns the value held by the register with the index Vx without allocating an {@link UnsignedByte}
+     *
+     * @param Vx The index of the source register
+     * @return The value inside the register (0 - 255)
+     */
+    public int peekUnsigned(int Vx) {
+        return toUnsignedInt(registers[Vx]);
     }
 
     /**
@@ -71,15 +80,78 @@ public class Registers implements Debuggable {
      * @param unsignedByte The value to be written into the register
      */
     public void poke(int Vx, UnsignedByte unsignedByte) {
-        registers[Vx] = unsignedByte;
+        registers[Vx] = (byte) unsignedByte.unsignedDataType;
+    }
+
+    /**
+     * Writes a value to the register with the index Vx without wrapping it into an {@link UnsignedByte}
+     *
+     * @param Vx    The index of the destination register
+     * @param value The value to be written into the register, only the lowest 8 bits are kept
+     */
+    public void poke(int Vx, int value) {
+        registers[Vx] = (byte) value;
+    }
+
+    /**
+     * Writes the registers V0 ... V(count - 1) into the memory
+     *
+     * @param memory  The memory to write to
+     * @param address The index of the cell to write V0 to
+     * @param count   The number of registers to write
+     */
+    public void dump(Memory memory, int address, int count) {
+        memory.copyFrom(registers, 0, address, count);
+    }
+
+    /**
+     * Reads the registers V0 ... V(count - 1) from the memory
+     *
+     * @param memory  The memory to read from
+     * @param address The index of the cell to read V0 from
+     * @param count   The number of registers to read
+     */
+    public void load(Memory memory, int address, int count) {
+        memory.copyTo(address, registers, 0, count);
+    }
+
+    /**
+     * Writes all registers into a buffer, advancing the position of the buffer
+     *
+     * @param destination The buffer to write to
+     */
+    public void dump(ByteBuffer destination) {
+        destination.put(registers);
+    }
+
+    /**
+     * Reads all registers from a buffer, advancing the position of the buffer
+     *
+     * @param source The buffer to read from
+     */
+    public void load(ByteBuffer source) {
+        source.get(registers);
+    }
+
+    /**
+     * Overwrites all registers with the ones of other {@link Registers}
+     *
+     * @param source The {@link Registers} to copy
+     */
+    public void copyFrom(Registers source) {
+        System.arraycopy(source.registers, 0, registers, 0, REGISTER_LENGTH);
     }
 
     public void clear() {
-        for (int i = 0; i < registers.length; i++)
-            registers[i] = ZERO;
+        Arrays.fill(registers, (byte) 0);
     }
 
     public String getValues() {
-        return Arrays.toString(registers);
+        StringBuilder stringBuilder = new StringBuilder("[");
+        for (int i = 0; i < registers.length; i++) {
+            if (i > 0) stringBuilder.append(", ");
+            stringBuilder.append(peekUnsigned(i));
+        }
+        return stringBuilder.append("]").toString();
     }
 }
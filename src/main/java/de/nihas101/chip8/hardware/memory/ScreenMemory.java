@@ -2,15 +2,20 @@ package de.nihas101.chip8.hardware.memory;
 
 import de.nihas101.chip8.debug.Debuggable;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /**
- * A class used to represent a screen of a Chip-8
+ * A class used to represent a screen of a Chip-8.
+ * Every row of 64 pixels is stored in a single long, the leftmost pixel being the most significant bit.
+ * Every change increments a generation, so a {@link FrameBuffer} only copies the screen if it changed
  */
 public class ScreenMemory implements Debuggable {
     public static final int SCREEN_WIDTH = 64;
     public static final int SCREEN_HEIGHT = 32;
-    private volatile boolean[][] memory = new boolean[SCREEN_WIDTH][SCREEN_HEIGHT];
+    private final long[] rows = new long[SCREEN_HEIGHT];
+    /* Not volatile, it is read by the FrameBuffer on the thread executing the CPU, which also writes the screen */
+    private long generation = 0;
 
     public ScreenMemory() {
         reset();
@@ -29,14 +34,34 @@ public class ScreenMemory implements Debuggable {
 
     private void fillScreen(String[] column, int index) {
         for (int j = 0; j < SCREEN_HEIGHT; j++) {
-            memory[index][j] = Boolean.parseBoolean(column[j]);
+            write(index, j, Boolean.parseBoolean(column[j]));
         }
     }
 
+    /**
+     * Returns a copy of the screen as columns of pixels
+     *
+     * @return The pixels of the screen, indexed by x and y
+     */
     public boolean[][] getMemory() {
+        boolean[][] memory = new boolean[SCREEN_WIDTH][SCREEN_HEIGHT];
+        for (int x = 0; x < SCREEN_WIDTH; x++)
+            for (int y = 0; y < SCREEN_HEIGHT; y++)
+                memory[x][y] = read(x, y);
+
         return memory;
     }
 
+    /**
+     * Returns a row of the screen
+     *
+     * @param y The index of the row
+     * @return The pixels of the row, the leftmost pixel being the most significant bit
+     */
+    public long getRow(int y) {
+        return rows[y];
+    }
+
     /**
      * Reads the memory at the specified location
      *
@@ -49,7 +74,7 @@ public class ScreenMemory implements Debuggable {
         x = x % SCREEN_WIDTH;
         y = y % SCREEN_HEIGHT;
 
-        return memory[x][y];
+        return (rows[y] & pixelMask(x)) != 0;
     }
 
     /**
@@ -63,16 +88,80 @@ public class ScreenMemory implements Debuggable {
         x = x % SCREEN_WIDTH;
         y = y % SCREEN_HEIGHT;
 
-        memory[x][y] = bool;
+        long row = bool ? rows[y] | pixelMask(x) : rows[y] & ~pixelMask(x);
+        if (row != rows[y]) {
+            rows[y] = row;
+            generation++;
+        }
+    }
+
+    /**
+     * XORs one line of a sprite onto the screen, wrapping around its edges
+     *
+     * @param x    The horizontal index of the leftmost pixel of the sprite
+     * @param y    The lateral index of the line
+     * @param data The eight pixels of the line, the leftmost pixel being the most significant bit
+     * @return True if a pixel that was set got erased
+     */
+    public boolean drawSpriteLine(int x, int y, int data) {
+        y = y % SCREEN_HEIGHT;
+
+        long sprite = Long.rotateRight((long) (data & 0xFF) << (SCREEN_WIDTH - 8), x);
+        boolean collision = (rows[y] & sprite) != 0;
+        rows[y] ^= sprite;
+        if (sprite != 0) generation++;
+
+        return collision;
+    }
+
+    /**
+     * Returns the generation of the screen, which changes every time the screen changes
+     *
+     * @return The generation of the screen
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Writes all rows into a buffer, advancing the position of the buffer
+     *
+     * @param destination The buffer to write to
+     */
+    public void dump(ByteBuffer destination) {
+        for (long row : rows) destination.putLong(row);
+    }
+
+    /**
+     * Reads all rows from a buffer, advancing the position of the buffer
+     *
+     * @param source The buffer to read from
+     */
+    public void load(ByteBuffer source) {
+        for (int y = 0; y < SCREEN_HEIGHT; y++) rows[y] = source.getLong();
+        generation++;
+    }
+
+    /**
+     * Overwrites all rows with the ones of another {@link ScreenMemory}
+     *
+     * @param source The {@link ScreenMemory} to copy
+     */
+    public void copyFrom(ScreenMemory source) {
+        System.arraycopy(source.rows, 0, rows, 0, SCREEN_HEIGHT);
+        generation++;
+    }
+
+    private static long pixelMask(int x) {
+        return Long.MIN_VALUE >>> x;
     }
 
     /**
      * Resets the screen memory
      */
     public void reset() {
-        for (int x = 0; x < SCREEN_WIDTH; x++)
-            for (int y = 0; y < SCREEN_HEIGHT; y++)
-                memory[x][y] = false;
+        Arrays.fill(rows, 0);
+        generation++;
     }
 
     /**
@@ -101,11 +190,11 @@ public class ScreenMemory implements Debuggable {
     }
 
     private String cellToString(int column, int row) {
-        if (memory[column][row]) return "1";
+        if (read(column, row)) return "1";
         else return "0";
     }
 
     public String getValues() {
-        return Arrays.deepToString(memory);
+        return Arrays.deepToString(getMemory());
     }
 }
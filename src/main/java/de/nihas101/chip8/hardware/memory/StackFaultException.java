@@ -0,0 +1,31 @@
+package de.nihas101.chip8.hardware.memory;
+
+/**
+ * An exception thrown if a program calls more subroutines than the {@link Chip8Stack} can hold,
+ * or returns from a subroutine while the {@link Chip8Stack} is empty
+ */
+public class StackFaultException extends RuntimeException {
+    private final boolean overflow;
+
+    private StackFaultException(String message, boolean overflow) {
+        super(message);
+        this.overflow = overflow;
+    }
+
+    public static StackFaultException createStackOverflow(int depth) {
+        return new StackFaultException("Stack overflow: more than " + depth + " nested subroutines", true);
+    }
+
+    public static StackFaultException createStackUnderflow() {
+        return new StackFaultException("Stack underflow: returned from a subroutine with an empty stack", false);
+    }
+
+    /**
+     * Checks whether the fault was caused by pushing onto a full {@link Chip8Stack}
+     *
+     * @return True for an overflow, false for an underflow
+     */
+    public boolean isOverflow() {
+        return overflow;
+    }
+}
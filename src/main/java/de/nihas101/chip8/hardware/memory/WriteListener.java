@@ -0,0 +1,14 @@
+package de.nihas101.chip8.hardware.memory;
+
+/**
+ * An interface representing a listener for writes into the {@link Memory}
+ */
+public interface WriteListener {
+    /**
+     * Called after a range of the memory was written to
+     *
+     * @param index  The index of the first cell that was written to
+     * @param length The number of cells that were written to
+     */
+    void onWrite(int index, int length);
+}
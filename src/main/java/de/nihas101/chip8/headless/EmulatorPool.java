@@ -0,0 +1,195 @@
+package de.nihas101.chip8.headless;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A class running many {@link HeadlessRunner}s on a fixed number of worker threads.
+ * Every session executes a slice of cycles at a time, after which it is queued again behind
+ * all other sessions of its worker, while idle workers steal queued slices from busy ones
+ */
+public class EmulatorPool implements AutoCloseable {
+    /**
+     * The default number of cycles a session executes before giving way to the next one
+     */
+    public static final int DEFAULT_SLICE_CYCLES = 1024;
+
+    private final ForkJoinPool forkJoinPool;
+    private final int sliceCycles;
+    /* The sessions that are not done yet */
+    private final Set<Session> activeSessions = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed = false;
+
+    private EmulatorPool(int parallelism, int sliceCycles) {
+        /* Async mode processes the local queues of the workers in FIFO order, which makes the slices round-robin */
+        this.forkJoinPool = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        this.sliceCycles = sliceCycles;
+    }
+
+    public static EmulatorPool createEmulatorPool() {
+        return createEmulatorPool(Runtime.getRuntime().availableProcessors(), DEFAULT_SLICE_CYCLES);
+    }
+
+    /**
+     * Creates an {@link EmulatorPool}
+     *
+     * @param parallelism The number of worker threads
+     * @param sliceCycles The number of cycles a session executes before giving way to the next one
+     * @return The created {@link EmulatorPool}
+     */
+    public static EmulatorPool createEmulatorPool(int parallelism, int sliceCycles) {
+        if (sliceCycles < 1)
+            throw new IllegalArgumentException("The number of cycles per slice has to be positive: " + sliceCycles);
+
+        return new EmulatorPool(parallelism, sliceCycles);
+    }
+
+    /**
+     * Schedules a {@link HeadlessRunner} to execute the given number of cycles.
+     * The {@link HeadlessRunner} must not be used by anyone else until the returned {@link Session} is done
+     *
+     * @param headlessRunner The {@link HeadlessRunner} to run
+     * @param cycles         The number of cycles to execute
+     * @return The {@link Session} of the {@link HeadlessRunner}
+     * @throws RejectedExecutionException If the {@link EmulatorPool} is closed
+     */
+    public Session submit(HeadlessRunner headlessRunner, long cycles) {
+        if (closed) throw new RejectedExecutionException("The EmulatorPool is closed");
+
+        Session session = new Session(headlessRunner, cycles);
+        activeSessions.add(session);
+        session.completion.whenComplete((runner, throwable) -> activeSessions.remove(session));
+
+        try {
+            forkJoinPool.execute(session::runSlice);
+        } catch (RejectedExecutionException e) {
+            /* The pool was closed concurrently */
+            session.completion.cancel(false);
+            throw e;
+        }
+
+        return session;
+    }
+
+    /**
+     * Schedules a {@link HeadlessRunner} to execute the given number of frames
+     *
+     * @param headlessRunner The {@link HeadlessRunner} to run
+     * @param frames         The number of frames to execute
+     * @return The {@link Session} of the {@link HeadlessRunner}
+     */
+    public Session submitFrames(HeadlessRunner headlessRunner, long frames) {
+        return submit(headlessRunner, frames * headlessRunner.getCyclesPerFrame());
+    }
+
+    /**
+     * Waits until every submitted {@link Session} is done
+     *
+     * @param timeout The maximum time to wait
+     * @param unit    The unit of the timeout
+     * @return True if every {@link Session} is done
+     */
+    public boolean awaitQuiescence(long timeout, TimeUnit unit) {
+        return forkJoinPool.awaitQuiescence(timeout, unit) && activeSessions.isEmpty();
+    }
+
+    public int getActiveSessions() {
+        return activeSessions.size();
+    }
+
+    public int getParallelism() {
+        return forkJoinPool.getParallelism();
+    }
+
+    public long getStealCount() {
+        return forkJoinPool.getStealCount();
+    }
+
+    /**
+     * Stops the worker threads, the futures of sessions that are not done yet are completed
+     * with a {@link java.util.concurrent.CancellationException} and no more sessions are accepted
+     */
+    @Override
+    public void close() {
+        closed = true;
+        forkJoinPool.shutdownNow();
+        /* The queued slices were dropped, so they never complete their sessions themselves */
+        for (Session session : activeSessions) session.completion.cancel(false);
+    }
+
+    /**
+     * A {@link HeadlessRunner} executing its cycles slice by slice, of which at most one is scheduled at a time
+     */
+    public final class Session {
+        private final HeadlessRunner headlessRunner;
+        private final CompletableFuture<HeadlessRunner> completion = new CompletableFuture<>();
+        private long remainingCycles;
+        private volatile long executedCycles = 0;
+        private volatile boolean cancelled = false;
+
+        private Session(HeadlessRunner headlessRunner, long cycles) {
+            this.headlessRunner = headlessRunner;
+            this.remainingCycles = cycles;
+        }
+
+        private void runSlice() {
+            if (cancelled) {
+                completion.cancel(false);
+                return;
+            }
+
+            try {
+                long slice = Math.min(remainingCycles, sliceCycles);
+                long executed = headlessRunner.runCycles(slice);
+                remainingCycles -= executed;
+                executedCycles += executed;
+
+                /* The runner executes fewer cycles than requested only once its emulator was stopped */
+                if (remainingCycles > 0 && executed == slice) reschedule();
+                else completion.complete(headlessRunner);
+            } catch (Throwable throwable) {
+                completion.completeExceptionally(throwable);
+            }
+        }
+
+        private void reschedule() {
+            /* Forking from a worker pushes onto its own queue, from which other workers may steal */
+            if (ForkJoinTask.inForkJoinPool()) ForkJoinTask.adapt(this::runSlice).fork();
+            else forkJoinPool.execute(this::runSlice);
+        }
+
+        /**
+         * Stops the session before its next slice
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Returns a future which is completed with the {@link HeadlessRunner} once all of its cycles were executed,
+         * or exceptionally if the emulation failed or the session was cancelled
+         *
+         * @return The future of the session
+         */
+        public CompletableFuture<HeadlessRunner> getCompletion() {
+            return completion;
+        }
+
+        public long getExecutedCycles() {
+            return executedCycles;
+        }
+
+        public HeadlessRunner getHeadlessRunner() {
+            return headlessRunner;
+        }
+
+        public boolean isDone() {
+            return completion.isDone();
+        }
+    }
+}
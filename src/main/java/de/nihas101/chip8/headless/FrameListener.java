@@ -0,0 +1,14 @@
+package de.nihas101.chip8.headless;
+
+/**
+ * Represents a callback that is invoked by the {@link HeadlessRunner} after every frame
+ */
+@FunctionalInterface
+public interface FrameListener {
+    /**
+     * Called once the timers were ticked at the end of a frame
+     *
+     * @param headlessRunner The {@link HeadlessRunner} that finished the frame
+     */
+    void onFrame(HeadlessRunner headlessRunner);
+}
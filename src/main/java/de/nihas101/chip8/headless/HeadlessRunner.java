@@ -0,0 +1,259 @@
+package de.nihas101.chip8.headless;
+
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
+import de.nihas101.chip8.hardware.Emulator;
+import de.nihas101.chip8.hardware.memory.Registers;
+import de.nihas101.chip8.hardware.memory.ScreenMemory;
+import de.nihas101.chip8.opcodes.UnknownOPCodeException;
+import de.nihas101.chip8.savestates.Movie;
+import de.nihas101.chip8.savestates.MoviePlayer;
+import de.nihas101.chip8.savestates.RewindBuffer;
+import de.nihas101.chip8.utils.RomLoader;
+import de.nihas101.chip8.utils.XorShiftRandom;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static de.nihas101.chip8.hardware.Emulator.createHeadlessEmulator;
+import static de.nihas101.chip8.savestates.Movie.readMovie;
+import static de.nihas101.chip8.savestates.SaveState.createSaveState;
+import static de.nihas101.chip8.savestates.SaveState.restoreSaveState;
+
+/**
+ * A class running an {@link Emulator} as fast as possible, without a display, sound or wall-clock.
+ * The timers are cycle-counted and ticked once every frame, which consists of a fixed number of cycles,
+ * so every run of the same ROM with the same input is reproducible
+ */
+public class HeadlessRunner {
+    /**
+     * The default number of cycles per frame, which equals the speed of the emulator with a speed of 1
+     */
+    public static final int DEFAULT_CYCLES_PER_FRAME = 17;
+
+    private final Emulator emulator;
+    private FrameListener frameListener = null;
+    private RewindBuffer rewindBuffer = null;
+    /* The frame the newest snapshot of the RewindBuffer was recorded at */
+    private long newestSnapshotFrame = -1;
+
+    private HeadlessRunner(Emulator emulator, int cyclesPerFrame) {
+        this.emulator = emulator;
+        emulator.useCycleCountedTimers(cyclesPerFrame);
+    }
+
+    public static HeadlessRunner createHeadlessRunner() {
+        return createHeadlessRunner(DEFAULT_CYCLES_PER_FRAME);
+    }
+
+    /**
+     * Creates a {@link HeadlessRunner} running its own headless {@link Emulator}
+     *
+     * @param cyclesPerFrame The number of cycles after which the timers are ticked
+     * @return The created {@link HeadlessRunner}
+     */
+    public static HeadlessRunner createHeadlessRunner(int cyclesPerFrame) {
+        if (cyclesPerFrame < 1)
+            throw new IllegalArgumentException("The number of cycles per frame has to be positive: " + cyclesPerFrame);
+
+        return new HeadlessRunner(createHeadlessEmulator(), cyclesPerFrame);
+    }
+
+    /**
+     * Creates a {@link HeadlessRunner} replaying a {@link Movie}, which starts from the state the recording started
+     * from and reads the recorded keys, see {@link Movie#getLength()} for the number of cycles to run
+     *
+     * @param movie The {@link Movie} to replay
+     * @return The created {@link HeadlessRunner}
+     */
+    public static HeadlessRunner createHeadlessRunner(Movie movie) {
+        HeadlessRunner headlessRunner = createHeadlessRunner(movie.getInstructionsPerFrame());
+        MoviePlayer.replayMovie(movie, headlessRunner.getCentralProcessingUnit());
+
+        return headlessRunner;
+    }
+
+    /**
+     * Replays a movie file from start to end, as fast as possible
+     *
+     * @param movieFile The movie file written by a {@link de.nihas101.chip8.savestates.MovieRecorder}
+     * @return The {@link HeadlessRunner} after executing all recorded instructions
+     * @throws IOException            If the file can't be read or isn't a movie file
+     * @throws UnknownOPCodeException Thrown if an unknown opcode is encountered
+     */
+    public static HeadlessRunner replayMovie(File movieFile) throws IOException, UnknownOPCodeException {
+        Movie movie = readMovie(movieFile);
+        HeadlessRunner headlessRunner = createHeadlessRunner(movie);
+        headlessRunner.runCycles(movie.getLength());
+
+        return headlessRunner;
+    }
+
+    /**
+     * Loads a ROM from a file
+     *
+     * @param romFile The file of the ROM
+     */
+    public void loadRom(File romFile) {
+        new RomLoader().loadRom(romFile, getCentralProcessingUnit().getMemory());
+    }
+
+    /**
+     * Loads a ROM from its bytes
+     *
+     * @param rom The bytes of the ROM
+     */
+    public void loadRom(byte[] rom) {
+        new RomLoader().loadRom(rom, getCentralProcessingUnit().getMemory());
+    }
+
+    /**
+     * Executes cycles, ticking the timers, recording a snapshot into the {@link RewindBuffer}
+     * and notifying the {@link FrameListener} at the end of every frame
+     *
+     * @param cycles The number of cycles to execute
+     * @return The number of executed cycles, which is less than requested if the emulator was stopped
+     * @throws UnknownOPCodeException Thrown if an unknown opcode is encountered
+     */
+    public long runCycles(long cycles) throws UnknownOPCodeException {
+        CentralProcessingUnit centralProcessingUnit = getCentralProcessingUnit();
+        long executed = 0;
+
+        while (executed < cycles && !centralProcessingUnit.isStop()) {
+            long frames = centralProcessingUnit.getTimerTicks();
+            executed += centralProcessingUnit.executeCycles((int) Math.min(cycles - executed, Integer.MAX_VALUE));
+            if (centralProcessingUnit.getTimerTicks() != frames) endFrame(centralProcessingUnit);
+        }
+
+        return executed;
+    }
+
+    private void endFrame(CentralProcessingUnit centralProcessingUnit) {
+        if (rewindBuffer != null) recordSnapshot(centralProcessingUnit);
+        if (frameListener != null) frameListener.onFrame(this);
+    }
+
+    private void recordSnapshot(CentralProcessingUnit centralProcessingUnit) {
+        rewindBuffer.record(createSaveState(centralProcessingUnit));
+        newestSnapshotFrame = centralProcessingUnit.getTimerTicks();
+    }
+
+    /**
+     * Goes back to the end of the previous frame, restoring its snapshot and its frame number.
+     * Right at the end of a frame the newest snapshot equals the current state, so it is discarded
+     * and the one before it is restored instead, meaning every call steps back one frame
+     *
+     * @return True if a snapshot was restored, false if no {@link RewindBuffer} is set or it holds no earlier frame
+     */
+    public boolean rewind() {
+        if (rewindBuffer == null) return false;
+
+        CentralProcessingUnit centralProcessingUnit = getCentralProcessingUnit();
+        if (isAtNewestSnapshot(centralProcessingUnit)) {
+            if (rewindBuffer.getSnapshots() < 2) return false;
+            rewindBuffer.stepBack();
+            newestSnapshotFrame--;
+        }
+
+        ByteBuffer snapshot = rewindBuffer.stepBack();
+        if (snapshot == null) return false;
+
+        restoreSaveState(snapshot, centralProcessingUnit);
+        /* Snapshots are recorded right after a timer tick, so the next frame starts with the restored state */
+        centralProcessingUnit.useCycleCountedTimers(getCyclesPerFrame());
+        centralProcessingUnit.setTimerTicks(newestSnapshotFrame);
+        /* Recorded again, so the frames executed from here on follow it without a gap */
+        recordSnapshot(centralProcessingUnit);
+
+        return true;
+    }
+
+    private boolean isAtNewestSnapshot(CentralProcessingUnit centralProcessingUnit) {
+        return centralProcessingUnit.getTimerTicks() == newestSnapshotFrame
+                && centralProcessingUnit.getCyclesUntilTimerTick() == getCyclesPerFrame();
+    }
+
+    /**
+     * Executes frames, the first of which may already be partially executed by {@link #runCycles(long)}
+     *
+     * @param frames The number of frames to execute
+     * @return The number of executed cycles
+     * @throws UnknownOPCodeException Thrown if an unknown opcode is encountered
+     */
+    public long runFrames(long frames) throws UnknownOPCodeException {
+        if (frames <= 0) return 0;
+
+        CentralProcessingUnit centralProcessingUnit = getCentralProcessingUnit();
+        return runCycles(centralProcessingUnit.getCyclesUntilTimerTick() + (frames - 1) * getCyclesPerFrame());
+    }
+
+    public void setFrameListener(FrameListener frameListener) {
+        this.frameListener = frameListener;
+    }
+
+    /**
+     * Sets the {@link RewindBuffer} a snapshot is recorded into at the end of every frame, see {@link #rewind()}
+     *
+     * @param rewindBuffer The {@link RewindBuffer} to record into, or null to not record snapshots
+     */
+    public void setRewindBuffer(RewindBuffer rewindBuffer) {
+        this.rewindBuffer = rewindBuffer;
+        this.newestSnapshotFrame = -1;
+    }
+
+    public RewindBuffer getRewindBuffer() {
+        return rewindBuffer;
+    }
+
+    /**
+     * Sets the key that is currently pressed
+     *
+     * @param keyCode The code of the pressed key, or {@link de.nihas101.chip8.utils.keyConfiguration.Keys#NO_KEY}
+     */
+    public void setKeyCode(int keyCode) {
+        getCentralProcessingUnit().setKeyCode(keyCode);
+    }
+
+    /**
+     * Sets the keys that are currently pressed
+     *
+     * @param keys The pressed keys, one bit per key, the bit of key 0 being the least significant one
+     */
+    public void setPressedKeys(int keys) {
+        getCentralProcessingUnit().getKeyState().setPressedKeys(keys);
+    }
+
+    /**
+     * Replaces the random number generator used by CXNN by a seeded one,
+     * so every run of the same ROM with the same input and seed draws the same numbers
+     *
+     * @param seed The seed of the random number generator
+     */
+    public void setSeed(long seed) {
+        getCentralProcessingUnit().setRandomNumberGenerator(new XorShiftRandom(seed));
+    }
+
+    public long getFrames() {
+        return getCentralProcessingUnit().getTimerTicks();
+    }
+
+    public int getCyclesPerFrame() {
+        return getCentralProcessingUnit().getInstructionsPerFrame();
+    }
+
+    public ScreenMemory getScreenMemory() {
+        return getCentralProcessingUnit().getScreenMemory();
+    }
+
+    public Registers getRegisters() {
+        return getCentralProcessingUnit().getRegisters();
+    }
+
+    public CentralProcessingUnit getCentralProcessingUnit() {
+        return emulator.getCentralProcessingUnit();
+    }
+
+    public Emulator getEmulator() {
+        return emulator;
+    }
+}
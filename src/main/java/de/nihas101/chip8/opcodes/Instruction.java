@@ -0,0 +1,16 @@
+package de.nihas101.chip8.opcodes;
+
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
+
+/**
+ * Represents a decoded instruction with its operands already extracted
+ */
+public interface Instruction {
+    /**
+     * Executes the instruction
+     *
+     * @param centralProcessingUnit The {@link CentralProcessingUnit} to execute the instruction on
+     * @throws UnknownOPCodeException Thrown if the instruction represents an unknown opcode
+     */
+    void execute(CentralProcessingUnit centralProcessingUnit) throws UnknownOPCodeException;
+}
@@ -0,0 +1,146 @@
+package de.nihas101.chip8.savestates;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static de.nihas101.chip8.savestates.MovieRecorder.*;
+import static de.nihas101.chip8.utils.keyConfiguration.Keys.NO_KEY;
+
+/**
+ * A class representing a movie file written by a {@link MovieRecorder}: the state the recording started from and
+ * every change of the keys, together with the number of instructions executed before it
+ */
+public class Movie {
+    private final int instructionsPerFrame;
+    private final long length;
+    private final ByteBuffer initialState;
+    private final long[] positions;
+    private final int[] pressedKeys;
+    private final int[] lastPressedKeys;
+
+    private Movie(int instructionsPerFrame, long length, ByteBuffer initialState,
+                  long[] positions, int[] pressedKeys, int[] lastPressedKeys) {
+        this.instructionsPerFrame = instructionsPerFrame;
+        this.length = length;
+        this.initialState = initialState;
+        this.positions = positions;
+        this.pressedKeys = pressedKeys;
+        this.lastPressedKeys = lastPressedKeys;
+    }
+
+    /**
+     * Reads a movie file
+     *
+     * @param movieFile The file to read from
+     * @return The read {@link Movie}
+     * @throws IOException If the file can't be read or isn't a movie file
+     */
+    public static Movie readMovie(File movieFile) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(movieFile.toPath()));
+
+        try {
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getShort() != VERSION)
+                throw new IOException(movieFile.getAbsolutePath() + " is not a movie file");
+
+            int instructionsPerFrame = buffer.getInt();
+            long length = buffer.getLong();
+            int stateSize = buffer.getInt();
+            ByteBuffer initialState = buffer.slice();
+            initialState.limit(stateSize);
+            buffer.position(buffer.position() + stateSize);
+
+            /* Every entry takes at least 4 bytes */
+            int maxChanges = buffer.remaining() / 4;
+            long[] positions = new long[maxChanges];
+            int[] pressedKeys = new int[maxChanges];
+            int[] lastPressedKeys = new int[maxChanges];
+            int changes = 0;
+            long position = 0;
+
+            while (buffer.hasRemaining()) {
+                position += readDelta(buffer);
+                positions[changes] = position;
+                pressedKeys[changes] = Short.toUnsignedInt(buffer.getShort());
+                int lastPressedKey = Byte.toUnsignedInt(buffer.get());
+                if (lastPressedKey > 0xF && lastPressedKey != NO_KEY)
+                    throw new IOException(movieFile.getAbsolutePath() + " holds an unknown key: " + lastPressedKey);
+                lastPressedKeys[changes++] = lastPressedKey;
+            }
+
+            /* The length is only written on closing, a recording that wasn't closed ends with its last change */
+            if (length < 0) length = changes == 0 ? 0 : position + 1;
+
+            return new Movie(instructionsPerFrame, length, initialState.asReadOnlyBuffer(),
+                    Arrays.copyOf(positions, changes), Arrays.copyOf(pressedKeys, changes),
+                    Arrays.copyOf(lastPressedKeys, changes));
+        } catch (RuntimeException e) {
+            throw new IOException(movieFile.getAbsolutePath() + " is not a valid movie file", e);
+        }
+    }
+
+    private static long readDelta(ByteBuffer buffer) {
+        long delta = 0;
+        int shift = 0;
+        byte value;
+
+        do {
+            value = buffer.get();
+            delta |= (long) (value & 0x7F) << shift;
+            shift += 7;
+        } while (value < 0);
+
+        return delta;
+    }
+
+    public int getInstructionsPerFrame() {
+        return instructionsPerFrame;
+    }
+
+    /**
+     * Returns the number of instructions that were executed while recording
+     *
+     * @return The number of recorded instructions
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the binary {@link SaveState} the recording started from
+     *
+     * @return A read-only buffer positioned at the start of the save state
+     */
+    public ByteBuffer getInitialState() {
+        return initialState.duplicate();
+    }
+
+    /**
+     * Returns the number of recorded changes of the keys
+     *
+     * @return The number of changes
+     */
+    public int getChanges() {
+        return positions.length;
+    }
+
+    /**
+     * Returns the number of instructions that were executed after the recording started and before a change
+     *
+     * @param change The index of the change
+     * @return The position of the change
+     */
+    public long getPosition(int change) {
+        return positions[change];
+    }
+
+    public int getPressedKeys(int change) {
+        return pressedKeys[change];
+    }
+
+    public int getLastPressedKey(int change) {
+        return lastPressedKeys[change];
+    }
+}
@@ -0,0 +1,81 @@
+package de.nihas101.chip8.savestates;
+
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
+import de.nihas101.chip8.hardware.keys.KeyInput;
+import de.nihas101.chip8.hardware.keys.KeyState;
+
+import static de.nihas101.chip8.savestates.SaveState.restoreSaveState;
+
+/**
+ * A class replaying the keys recorded in a {@link Movie}, ignoring the keys pressed by the user.
+ * Every instruction reads the keys as they were when it was executed during the recording
+ */
+public class MoviePlayer implements KeyInput {
+    private final Movie movie;
+    private final long start;
+    private final KeyState keys = new KeyState();
+    private int nextChange = 0;
+
+    private MoviePlayer(Movie movie, long start) {
+        this.movie = movie;
+        this.start = start;
+    }
+
+    /**
+     * Starts replaying a {@link Movie}: restores the state the recording started from into a
+     * {@link CentralProcessingUnit}, lets its timers count the same number of instructions per frame
+     * and replaces the keys its instructions read
+     *
+     * @param movie The {@link Movie} to replay
+     * @param cpu   The {@link CentralProcessingUnit} to replay the {@link Movie} on
+     * @return The {@link MoviePlayer}, which is the {@link KeyInput} of the {@link CentralProcessingUnit}
+     * @throws IllegalArgumentException If the initial state of the {@link Movie} is not a supported save state
+     */
+    public static MoviePlayer replayMovie(Movie movie, CentralProcessingUnit cpu) {
+        restoreSaveState(movie.getInitialState(), cpu);
+        cpu.useCycleCountedTimers(movie.getInstructionsPerFrame());
+
+        MoviePlayer moviePlayer = new MoviePlayer(movie, cpu.getInstructions());
+        cpu.setKeyInput(moviePlayer);
+
+        return moviePlayer;
+    }
+
+    /**
+     * {@inheritDoc}.
+     * Applies every change of the keys recorded up to the given instruction
+     */
+    @Override
+    public KeyState readKeys(long instruction, KeyState keyState) {
+        long position = instruction - start;
+
+        while (nextChange < movie.getChanges() && movie.getPosition(nextChange) <= position) {
+            keys.setPressedKeys(movie.getPressedKeys(nextChange), movie.getLastPressedKey(nextChange));
+            nextChange++;
+        }
+
+        return keys;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isInteractive() {
+        return false;
+    }
+
+    /**
+     * Checks whether a {@link CentralProcessingUnit} executed all recorded instructions
+     *
+     * @param cpu The {@link CentralProcessingUnit} replaying the {@link Movie}
+     * @return True if the replay reached the end of the {@link Movie}
+     */
+    public boolean isFinished(CentralProcessingUnit cpu) {
+        return cpu.getInstructions() - start >= movie.getLength();
+    }
+
+    public Movie getMovie() {
+        return movie;
+    }
+}
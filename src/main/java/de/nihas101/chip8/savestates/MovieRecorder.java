@@ -0,0 +1,191 @@
+package de.nihas101.chip8.savestates;
+
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
+import de.nihas101.chip8.hardware.keys.KeyInput;
+import de.nihas101.chip8.hardware.keys.KeyState;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static de.nihas101.chip8.savestates.SaveState.createSaveState;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * A class recording the keys the instructions of a {@link CentralProcessingUnit} read into a movie file,
+ * which a {@link MoviePlayer} replays.
+ * Only changes of the keys are recorded, each one stamped with the number of instructions executed since the
+ * recording started, so together with the {@link SaveState} taken at the start, cycle-counted timers and the state
+ * of the random number generator stored in it, a replay executes exactly the same instructions.
+ * Changes of the state that are not made by instructions, e.g. resetting or restoring a save state, are not recorded.
+ * The file starts with a header consisting of the magic number "C8MV", the version, the number of instructions
+ * per frame, the number of recorded instructions, which is written on closing, and the size and bytes of the binary
+ * {@link SaveState}, followed by one entry per change: the number of instructions since the previous change as a
+ * variable-length quantity of 7 bits per byte, the pressed keys and the key that was pressed last.
+ * A {@link MovieRecorder} is meant to be used by the thread executing the instructions,
+ * it may only be opened and closed while the {@link CentralProcessingUnit} is paused
+ */
+public class MovieRecorder implements KeyInput, Closeable {
+    /**
+     * The first four bytes of a movie file, "C8MV"
+     */
+    public static final int MAGIC = 0x43384D56;
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+    /* The offset of the number of recorded instructions in the header */
+    static final int LENGTH_OFFSET = Integer.BYTES + Short.BYTES + Integer.BYTES;
+
+    /* The largest entry consists of a variable-length long, the keys and the key pressed last */
+    private static final int MAX_ENTRY_SIZE = 10 + Short.BYTES + Byte.BYTES;
+    private static final int BUFFER_SIZE = 4096;
+
+    private final FileChannel fileChannel;
+    private final CentralProcessingUnit cpu;
+    private final long start;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    /* The keys as of the last recorded change, which are the ones the instructions read */
+    private final KeyState keys = new KeyState();
+    private long lastChange = 0;
+    private long changes = 0;
+
+    private MovieRecorder(FileChannel fileChannel, CentralProcessingUnit cpu) {
+        this.fileChannel = fileChannel;
+        this.cpu = cpu;
+        this.start = cpu.getInstructions();
+    }
+
+    /**
+     * Creates a movie file, replacing an existing one, and stores the current state of a
+     * {@link CentralProcessingUnit} in it. The recording starts at the beginning of a frame,
+     * the {@link MovieRecorder} has to be set as the {@link KeyInput} of the {@link CentralProcessingUnit}
+     * before it executes the next instruction
+     *
+     * @param movieFile The file to record into
+     * @param cpu       The {@link CentralProcessingUnit} to record, which has to use cycle-counted timers
+     * @return The opened {@link MovieRecorder}
+     * @throws IOException           If the file can't be created
+     * @throws IllegalStateException If the timers of the {@link CentralProcessingUnit} are not cycle-counted
+     */
+    public static MovieRecorder openMovieRecorder(File movieFile, CentralProcessingUnit cpu) throws IOException {
+        if (!cpu.hasCycleCountedTimers())
+            throw new IllegalStateException("Recording a movie requires cycle-counted timers");
+
+        /* A replay starts at the beginning of a frame as well */
+        cpu.useCycleCountedTimers(cpu.getInstructionsPerFrame());
+        ByteBuffer saveState = createSaveState(cpu).toByteBuffer();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + saveState.remaining());
+        header.putInt(MAGIC)
+                .putShort(VERSION)
+                .putInt(cpu.getInstructionsPerFrame())
+                .putLong(-1)
+                .putInt(saveState.remaining())
+                .put(saveState)
+                .flip();
+
+        FileChannel fileChannel = FileChannel.open(movieFile.toPath(), WRITE, CREATE, TRUNCATE_EXISTING);
+        try {
+            while (header.hasRemaining()) fileChannel.write(header);
+        } catch (IOException e) {
+            fileChannel.close();
+            throw e;
+        }
+
+        return new MovieRecorder(fileChannel, cpu);
+    }
+
+    /**
+     * {@inheritDoc}.
+     * Records the keys pressed by the user if they changed since the last recorded change
+     *
+     * @throws UncheckedIOException If writing the file fails
+     */
+    @Override
+    public KeyState readKeys(long instruction, KeyState keyState) {
+        int pressedKeys = keyState.getPressedKeys();
+        int lastPressedKey = keyState.getLastPressedKey();
+
+        if (changes == 0 || pressedKeys != keys.getPressedKeys() || lastPressedKey != keys.getLastPressedKey()) {
+            record(instruction - start, pressedKeys, lastPressedKey);
+            keys.setPressedKeys(pressedKeys, lastPressedKey);
+        }
+
+        return keys;
+    }
+
+    private void record(long position, int pressedKeys, int lastPressedKey) {
+        if (buffer.remaining() < MAX_ENTRY_SIZE) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        long delta = position - lastChange;
+        while ((delta & ~0x7FL) != 0) {
+            buffer.put((byte) (delta & 0x7F | 0x80));
+            delta >>>= 7;
+        }
+        buffer.put((byte) delta)
+                .putShort((short) pressedKeys)
+                .put((byte) lastPressedKey);
+
+        lastChange = position;
+        changes++;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) fileChannel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isInteractive() {
+        return true;
+    }
+
+    /**
+     * Returns the number of recorded changes of the keys
+     *
+     * @return The number of entries in the file
+     */
+    public long getChanges() {
+        return changes;
+    }
+
+    /**
+     * Returns the number of instructions executed since the recording started
+     *
+     * @return The number of recorded instructions
+     */
+    public long getLength() {
+        return cpu.getInstructions() - start;
+    }
+
+    /**
+     * Writes the remaining entries and the number of recorded instructions and closes the file.
+     * The {@link MovieRecorder} has to be removed from the {@link CentralProcessingUnit} before
+     *
+     * @throws IOException If writing or closing the file fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+
+            ByteBuffer length = ByteBuffer.allocate(Long.BYTES);
+            length.putLong(getLength()).flip();
+            while (length.hasRemaining()) fileChannel.write(length, LENGTH_OFFSET + length.position());
+        } finally {
+            fileChannel.close();
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package de.nihas101.chip8.savestates;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+import static java.lang.Short.toUnsignedInt;
+
+/**
+ * A class representing a bounded history of {@link SaveState}s, e.g. one per frame, to step backwards through.
+ * The snapshots are stored in the binary format of {@link SaveState} in a ring buffer outside of the heap.
+ * Every few snapshots a full keyframe is stored, the snapshots in between only store the run-length encoded
+ * XOR of themselves and their keyframe, which mostly consists of zeros as memory and screen rarely change.
+ * If the ring buffer is full, the oldest keyframe is discarded together with the snapshots depending on it.
+ * A {@link RewindBuffer} is meant to be used by a single thread
+ */
+public class RewindBuffer {
+    /**
+     * The default number of snapshots stored per keyframe, one second at 60 frames per second
+     */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 60;
+
+    private static final int MAX_RUN = 0xFFFF;
+
+    private final ByteBuffer storage;
+    private final int keyframeInterval;
+    private final ArrayDeque<Snapshot> snapshots = new ArrayDeque<>();
+    /* The offsets of the oldest stored byte and of the byte after the newest one */
+    private int head = 0, tail = 0;
+    private int usedBytes = 0;
+
+    /* The keyframe new snapshots are encoded against, its bytes being kept in keyframeBytes */
+    private Snapshot keyframe = null;
+    private int snapshotsSinceKeyframe = 0;
+    private ByteBuffer keyframeBytes = ByteBuffer.allocate(0);
+    private ByteBuffer stateBytes = ByteBuffer.allocate(0);
+    private ByteBuffer encodedBytes = ByteBuffer.allocate(0);
+    private ByteBuffer restoredBytes = ByteBuffer.allocate(0);
+
+    private RewindBuffer(int capacity, int keyframeInterval) {
+        this.storage = ByteBuffer.allocateDirect(capacity);
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    public static RewindBuffer createRewindBuffer(int capacity) {
+        return createRewindBuffer(capacity, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Creates a {@link RewindBuffer}
+     *
+     * @param capacity         The number of bytes that may be used to store snapshots
+     * @param keyframeInterval The number of snapshots after which a new keyframe is stored
+     * @return The created {@link RewindBuffer}
+     */
+    public static RewindBuffer createRewindBuffer(int capacity, int keyframeInterval) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("The capacity has to be positive: " + capacity);
+        if (keyframeInterval < 1)
+            throw new IllegalArgumentException("The keyframe interval has to be positive: " + keyframeInterval);
+
+        return new RewindBuffer(capacity, keyframeInterval);
+    }
+
+    /**
+     * Stores a snapshot, discarding the oldest ones if the buffer is full
+     *
+     * @param saveState The {@link SaveState} to store
+     * @throws IllegalArgumentException If the snapshot doesn't fit into the buffer even if it is empty
+     */
+    public void record(SaveState saveState) {
+        stateBytes.clear();
+        try {
+            saveState.write(stateBytes);
+        } catch (IllegalArgumentException e) {
+            /* Only happens for the first snapshot or if the snapshots grew, e.g. by serializing a Random */
+            stateBytes = ByteBuffer.allocate(saveState.getSize());
+            saveState.write(stateBytes);
+        }
+        stateBytes.flip();
+
+        if (keyframe == null
+                || snapshotsSinceKeyframe >= keyframeInterval
+                || stateBytes.remaining() != keyframe.stateLength
+                || !recordDelta()) recordKeyframe();
+    }
+
+    private boolean recordDelta() {
+        encodeDelta();
+        /* A delta that is not smaller than the snapshot itself is not worth storing */
+        if (encodedBytes.remaining() >= stateBytes.remaining()) return false;
+
+        int offset = allocate(encodedBytes.remaining());
+        /* Making room evicted the keyframe itself */
+        if (snapshots.isEmpty()) return false;
+
+        store(new Snapshot(offset, encodedBytes.remaining(), stateBytes.remaining(), keyframe), encodedBytes);
+        snapshotsSinceKeyframe++;
+        return true;
+    }
+
+    private void recordKeyframe() {
+        int offset = allocate(stateBytes.remaining());
+        keyframe = new Snapshot(offset, stateBytes.remaining(), stateBytes.remaining(), null);
+        keyframeBytes = ensureCapacity(keyframeBytes, stateBytes.remaining());
+        keyframeBytes.put(stateBytes.duplicate()).flip();
+
+        store(keyframe, stateBytes);
+        snapshotsSinceKeyframe = 1;
+    }
+
+    /**
+     * Encodes the XOR of the snapshot and the keyframe as pairs of runs:
+     * the number of unchanged bytes, the number of changed bytes and the XOR of the changed bytes
+     */
+    private void encodeDelta() {
+        int length = stateBytes.remaining();
+        /* The worst case are single changed bytes separated by single unchanged ones */
+        encodedBytes = ensureCapacity(encodedBytes, length / 2 * 5 + 5);
+
+        int index = 0;
+        while (index < length) {
+            int unchanged = 0;
+            while (index < length && unchanged < MAX_RUN && xor(index) == 0) {
+                unchanged++;
+                index++;
+            }
+
+            int changedStart = index;
+            while (index < length && index - changedStart < MAX_RUN && xor(index) != 0) index++;
+
+            encodedBytes.putShort((short) unchanged).putShort((short) (index - changedStart));
+            for (int i = changedStart; i < index; i++) encodedBytes.put(xor(i));
+        }
+
+        encodedBytes.flip();
+    }
+
+    private byte xor(int index) {
+        return (byte) (stateBytes.get(index) ^ keyframeBytes.get(index));
+    }
+
+    /**
+     * Removes the newest snapshot and returns it
+     *
+     * @return The snapshot in the binary format of {@link SaveState}, which is only valid until the next call,
+     * or null if the buffer is empty
+     */
+    public ByteBuffer stepBack() {
+        Snapshot snapshot = snapshots.pollLast();
+        if (snapshot == null) return null;
+
+        restoredBytes = ensureCapacity(restoredBytes, snapshot.stateLength);
+        if (snapshot.keyframe == null) {
+            restoredBytes.put(slice(snapshot));
+        } else {
+            restoredBytes.put(slice(snapshot.keyframe));
+            decodeDelta(snapshot);
+        }
+        restoredBytes.flip();
+
+        usedBytes -= snapshot.length;
+        if (snapshots.isEmpty()) head = tail = 0;
+        else tail = snapshots.peekLast().offset + snapshots.peekLast().length;
+
+        if (snapshot == keyframe) keyframe = null;
+        else if (keyframe != null) snapshotsSinceKeyframe--;
+
+        return restoredBytes;
+    }
+
+    private void decodeDelta(Snapshot snapshot) {
+        ByteBuffer delta = slice(snapshot);
+        int index = 0;
+
+        while (delta.hasRemaining()) {
+            index += toUnsignedInt(delta.getShort());
+            int changed = toUnsignedInt(delta.getShort());
+            for (int end = index + changed; index < end; index++)
+                restoredBytes.put(index, (byte) (restoredBytes.get(index) ^ delta.get()));
+        }
+    }
+
+    /**
+     * Reserves space at the end of the ring buffer, evicting the oldest keyframes and their snapshots if necessary
+     *
+     * @param length The number of bytes to reserve
+     * @return The offset of the reserved space
+     */
+    private int allocate(int length) {
+        if (length > storage.capacity())
+            throw new IllegalArgumentException("A snapshot of " + length + " bytes doesn't fit into "
+                    + storage.capacity() + " bytes");
+
+        while (true) {
+            if (snapshots.isEmpty()) head = tail = 0;
+
+            if (snapshots.isEmpty() || tail > head) {
+                if (storage.capacity() - tail >= length) return tail;
+                if (head >= length) return 0;
+            } else if (head - tail >= length) return tail;
+
+            evictOldestKeyframe();
+        }
+    }
+
+    private void evictOldestKeyframe() {
+        Snapshot evicted = snapshots.pollFirst();
+        usedBytes -= evicted.length;
+
+        while (!snapshots.isEmpty() && snapshots.peekFirst().keyframe == evicted)
+            usedBytes -= snapshots.pollFirst().length;
+
+        if (evicted == keyframe) keyframe = null;
+        if (!snapshots.isEmpty()) head = snapshots.peekFirst().offset;
+    }
+
+    private void store(Snapshot snapshot, ByteBuffer bytes) {
+        ByteBuffer destination = storage.duplicate();
+        destination.position(snapshot.offset);
+        destination.put(bytes.duplicate());
+
+        snapshots.addLast(snapshot);
+        tail = snapshot.offset + snapshot.length;
+        usedBytes += snapshot.length;
+    }
+
+    private ByteBuffer slice(Snapshot snapshot) {
+        ByteBuffer slice = storage.duplicate();
+        slice.limit(snapshot.offset + snapshot.length).position(snapshot.offset);
+        return slice;
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int capacity) {
+        if (buffer.capacity() < capacity) return ByteBuffer.allocate(capacity);
+
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Removes all snapshots
+     */
+    public void clear() {
+        snapshots.clear();
+        head = tail = usedBytes = 0;
+        keyframe = null;
+    }
+
+    /**
+     * Returns the number of stored snapshots
+     *
+     * @return The number of times {@link #stepBack()} can be called
+     */
+    public int getSnapshots() {
+        return snapshots.size();
+    }
+
+    /**
+     * Returns the number of bytes the stored snapshots take up
+     *
+     * @return The number of used bytes, not counting space left unused at the end of the ring buffer
+     */
+    public int getUsedBytes() {
+        return usedBytes;
+    }
+
+    public int getCapacity() {
+        return storage.capacity();
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * A stored snapshot, either a keyframe or the encoded difference to one
+     */
+    private static final class Snapshot {
+        private final int offset;
+        private final int length;
+        private final int stateLength;
+        /* The keyframe the snapshot is encoded against, or null if it is a keyframe itself */
+        private final Snapshot keyframe;
+
+        private Snapshot(int offset, int length, int stateLength, Snapshot keyframe) {
+            this.offset = offset;
+            this.length = length;
+            this.stateLength = stateLength;
+            this.keyframe = keyframe;
+        }
+    }
+}
@@ -5,21 +5,49 @@ import de.nihas101.chip8.hardware.memory.*;
 import de.nihas101.chip8.hardware.timers.DelayTimer;
 import de.nihas101.chip8.hardware.timers.SoundTimer;
 import de.nihas101.chip8.unsignedDataTypes.UnsignedShort;
-import de.nihas101.chip8.utils.SynthesizerFactory;
+import de.nihas101.chip8.utils.StatefulRandom;
+import de.nihas101.chip8.utils.XorShiftRandom;
 
-import javax.sound.midi.MidiUnavailableException;
-import javax.sound.midi.Synthesizer;
 import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Random;
-import java.util.Timer;
 
 import static de.nihas101.chip8.utils.Constants.*;
+import static de.nihas101.chip8.utils.XorShiftRandom.createXorShiftRandom;
 import static java.lang.Byte.parseByte;
 import static java.lang.Integer.parseInt;
+import static java.lang.Short.toUnsignedInt;
 import static java.lang.String.valueOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
+/**
+ * A class representing a snapshot of a {@link CentralProcessingUnit}.
+ * A snapshot is stored in a binary format (see {@link #toByteBuffer()}), older snapshots stored as text can still be read
+ */
 public class SaveState {
+    /**
+     * The first four bytes of a binary save state, "C8SS"
+     */
+    public static final int MAGIC = 0x43385353;
+    /**
+     * The version written. Versions 1 and 2 store the last opcode as text in front of the memory and
+     * only the used entries of the stack, version 1 also lacks {@link XorShiftRandom}s
+     */
+    public static final short VERSION = 3;
+
+    private static final byte RANDOM_NONE = 0;
+    private static final byte RANDOM_STATE = 1;
+    private static final byte RANDOM_SERIALIZED = 2;
+    private static final byte RANDOM_XOR_SHIFT = 3;
+
+    /* Whether the last opcode is stored as a number, as text (if restored from a text save state) or not at all */
+    private static final byte OP_CODE_NUMBER = 0;
+    private static final byte OP_CODE_TEXT = 1;
+    private static final byte OP_CODE_NONE = 2;
+    private static final byte[] NO_TEXT = new byte[0];
+
     public final CentralProcessingUnit cpu;
 
     private SaveState(CentralProcessingUnit cpu) {
@@ -39,7 +67,6 @@ public class SaveState {
         Chip8Stack chip8Stack = null;
         DelayTimer delayTimer = null;
         SoundTimer soundTimer = null;
-        Synthesizer synthesizer = null;
         Random random = null;
         int cycles = 0;
         String opCode = "";
@@ -82,12 +109,153 @@ public class SaveState {
             }
         }
 
+        return new SaveState(createCentralProcessingUnit(memory, screenMemory, registers, addressRegister,
+                programCounter, chip8Stack, delayTimer, soundTimer, random, cycles, opCode));
+    }
+
+    /**
+     * Reads a binary save state, as written by {@link #write(ByteBuffer)}.
+     * The {@link CentralProcessingUnit} of the returned {@link SaveState} only holds the read values,
+     * it has neither a thread decrementing its timers nor a synthesizer, see {@link #restoreInto(CentralProcessingUnit)}
+     *
+     * @param buffer The buffer to read from, positioned at the start of the save state
+     * @return The read {@link SaveState}
+     * @throws IllegalArgumentException If the buffer doesn't hold a save state of a supported version
+     */
+    public static SaveState createSaveState(ByteBuffer buffer) {
+        CentralProcessingUnit cpu = createCentralProcessingUnit(new Memory(), new ScreenMemory(), new Registers(),
+                new AddressRegister(), new ProgramCounter(), new Chip8Stack(),
+                new DelayTimer(), new SoundTimer(), null, 0, "");
+        restoreSaveState(buffer, cpu);
+
+        return new SaveState(cpu);
+    }
+
+    /**
+     * Reads a binary save state, as written by {@link #write(ByteBuffer)}, directly into an existing
+     * {@link CentralProcessingUnit}, which keeps its timer thread, synthesizer and execution mode
+     *
+     * @param buffer The buffer to read from, positioned at the start of the save state
+     * @param cpu    The {@link CentralProcessingUnit} to restore the save state into
+     * @throws IllegalArgumentException If the buffer doesn't hold a complete save state of a supported version
+     *                                  or its stack is deeper than the one of the {@link CentralProcessingUnit},
+     *                                  in which case the {@link CentralProcessingUnit} is left unchanged
+     */
+    public static void restoreSaveState(ByteBuffer buffer, CentralProcessingUnit cpu) {
+        if (!isBinarySaveState(buffer))
+            throw new IllegalArgumentException("Not a binary save state");
+        buffer.getInt();
+        short version = buffer.getShort();
+        if (version < 1 || version > VERSION)
+            throw new IllegalArgumentException("Unsupported save state version " + version);
+        checkSaveState(buffer.duplicate(), version, cpu.getStack().getDepth());
+
+        cpu.setCycles(buffer.getInt());
+        int opCode = 0;
+        byte opCodeType = OP_CODE_TEXT;
+        if (version < 3) cpu.setOpCode(readOpCodeText(buffer));
+        else {
+            opCode = toUnsignedInt(buffer.getShort());
+            opCodeType = buffer.get();
+        }
+
+        cpu.getMemory().copyFrom(buffer, 0, MEMORY_LENGTH);
+        cpu.getScreenMemory().load(buffer);
+        cpu.getRegisters().load(buffer);
+        cpu.getAddressRegister().setAddress(toUnsignedInt(buffer.getShort()));
+        cpu.getProgramCounter().jumpTo(toUnsignedInt(buffer.getShort()));
+
+        if (version < 3) cpu.getStack().loadCompact(buffer);
+        else cpu.getStack().load(buffer);
+
+        cpu.getDelayTimer().setValue(Byte.toUnsignedInt(buffer.get()));
+        restoreSoundTimer(cpu.getSoundTimer(), Byte.toUnsignedInt(buffer.get()));
+
+        restoreRandom(buffer, cpu);
+
+        if (version < 3) return;
+        if (opCodeType == OP_CODE_NUMBER) cpu.setOpCode(opCode);
+        else if (opCodeType == OP_CODE_TEXT) cpu.setOpCode(readOpCodeText(buffer));
+        else cpu.setOpCode("");
+    }
+
+    /* Walks over the rest of a save state without restoring it, so a broken one fails before anything is changed */
+    private static void checkSaveState(ByteBuffer buffer, short version, int stackDepth) {
         try {
-            synthesizer = SynthesizerFactory.createSynthesizer();
-        } catch (MidiUnavailableException e) {
-            e.printStackTrace();
+            skip(buffer, Integer.BYTES);
+            byte opCodeType = OP_CODE_TEXT;
+            if (version < 3) skip(buffer, toUnsignedInt(buffer.getShort()));
+            else {
+                skip(buffer, Short.BYTES);
+                opCodeType = buffer.get();
+            }
+
+            skip(buffer, MEMORY_LENGTH + ScreenMemory.SCREEN_HEIGHT * Long.BYTES + REGISTER_LENGTH + 2 * Short.BYTES);
+
+            int stackSize = toUnsignedInt(buffer.getShort());
+            int storedDepth = version < 3 ? stackSize : toUnsignedInt(buffer.getShort());
+            if (stackSize > storedDepth || stackSize > stackDepth)
+                throw new IllegalArgumentException("A stack of size " + stackSize + " exceeds the depth of "
+                        + Math.min(storedDepth, stackDepth));
+            skip(buffer, storedDepth * Short.BYTES);
+            /* The delay and the sound timer */
+            skip(buffer, 2);
+
+            switch (buffer.get()) {
+                case RANDOM_XOR_SHIFT:
+                    skip(buffer, 2 * Long.BYTES);
+                    break;
+                case RANDOM_STATE:
+                    skip(buffer, Long.BYTES);
+                    break;
+                case RANDOM_SERIALIZED:
+                    skip(buffer, buffer.getInt());
+                    break;
+                default:
+            }
+
+            if (version >= 3 && opCodeType == OP_CODE_TEXT) skip(buffer, toUnsignedInt(buffer.getShort()));
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("The save state is truncated", e);
         }
+    }
+
+    private static void skip(ByteBuffer buffer, int length) {
+        if (length < 0 || length > buffer.remaining()) throw new BufferUnderflowException();
+        buffer.position(buffer.position() + length);
+    }
+
+    private static String readOpCodeText(ByteBuffer buffer) {
+        byte[] opCodeBytes = new byte[toUnsignedInt(buffer.getShort())];
+        buffer.get(opCodeBytes);
+
+        return new String(opCodeBytes, UTF_8);
+    }
+
+    private static void restoreSoundTimer(SoundTimer soundTimer, int value) {
+        /* Setting the sound timer starts the sound, even if it is set to zero */
+        if (value > 0) soundTimer.setValue(value);
+        else soundTimer.reset();
+    }
+
+    /**
+     * Checks whether a buffer starts with a binary save state, without changing its position
+     *
+     * @param buffer The buffer to check
+     * @return True if the remaining bytes of the buffer start with {@link #MAGIC}
+     */
+    public static boolean isBinarySaveState(ByteBuffer buffer) {
+        return buffer.remaining() >= Integer.BYTES && buffer.getInt(buffer.position()) == MAGIC;
+    }
 
+    /* The created CentralProcessingUnit is only used to hold the values, so it gets neither a Timer nor a Synthesizer */
+    private static CentralProcessingUnit createCentralProcessingUnit(Memory memory, ScreenMemory screenMemory,
+                                                                     Registers registers,
+                                                                     AddressRegister addressRegister,
+                                                                     ProgramCounter programCounter,
+                                                                     Chip8Stack chip8Stack,
+                                                                     DelayTimer delayTimer, SoundTimer soundTimer,
+                                                                     Random random, int cycles, String opCode) {
         CentralProcessingUnit cpu = new CentralProcessingUnit(
                 memory,
                 screenMemory,
@@ -95,20 +263,50 @@ public class SaveState {
                 addressRegister,
                 programCounter,
                 chip8Stack,
-                new Timer("Timer"),
+                null,
                 delayTimer, soundTimer,
-                random,
-                synthesizer
+                random
         );
 
         cpu.setCycles(cycles);
         cpu.setOpCode(opCode);
 
-        return new SaveState(cpu);
+        return cpu;
+    }
+
+    private static void restoreRandom(ByteBuffer buffer, CentralProcessingUnit cpu) {
+        switch (buffer.get()) {
+            case RANDOM_XOR_SHIFT:
+                restoreXorShiftRandom(cpu, buffer.getLong(), buffer.getLong());
+                break;
+            case RANDOM_STATE:
+                restoreStatefulRandom(cpu, buffer.getLong());
+                break;
+            case RANDOM_SERIALIZED:
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                cpu.setRandom(deserializeRandom(bytes));
+                break;
+            default: /* Keep the current generator */
+        }
+    }
+
+    private static void restoreXorShiftRandom(CentralProcessingUnit cpu, long state0, long state1) {
+        if (cpu.getRandomNumberGenerator() instanceof XorShiftRandom)
+            ((XorShiftRandom) cpu.getRandomNumberGenerator()).setState(state0, state1);
+        else cpu.setRandomNumberGenerator(createXorShiftRandom(state0, state1));
+    }
+
+    private static void restoreStatefulRandom(CentralProcessingUnit cpu, long state) {
+        if (cpu.getRandom() instanceof StatefulRandom) ((StatefulRandom) cpu.getRandom()).setState(state);
+        else {
+            StatefulRandom random = new StatefulRandom();
+            random.setState(state);
+            cpu.setRandom(random);
+        }
     }
 
     private static Random readRandom(String string) {
-        Random random = null;
         string = unwrap(string);
         String[] strings = string.replaceAll(" ", "")
                 .replaceAll("\\[", "")
@@ -119,6 +317,12 @@ public class SaveState {
         for (int i = 0; i < bytes.length; i++)
             bytes[i] = parseByte(strings[i]);
 
+        return deserializeRandom(bytes);
+    }
+
+    private static Random deserializeRandom(byte[] bytes) {
+        Random random = null;
+
         try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
             random = (Random) objectInputStream.readObject();
         } catch (IOException | ClassNotFoundException e) {
@@ -147,10 +351,7 @@ public class SaveState {
     private static Chip8Stack readChip8Stack(String string) {
         string = unwrap(string);
 
-        return new Chip8Stack(
-                new java.util.Stack<>(),
-                string.trim().substring(1, string.length() - 1).split(", ")
-        );
+        return new Chip8Stack(string.trim().substring(1, string.length() - 1).split(", "));
     }
 
     private static ProgramCounter readProgramCounter(String string) {
@@ -195,8 +396,169 @@ public class SaveState {
         );
     }
 
-    @Override
-    public String toString() {
+    /**
+     * Copies the save state into an existing {@link CentralProcessingUnit},
+     * which keeps its timer thread, synthesizer and execution mode.
+     * The values are copied directly, the same ones {@link #write(ByteBuffer)} stores
+     *
+     * @param target The {@link CentralProcessingUnit} to restore the save state into
+     * @throws IllegalArgumentException If the stack of the save state is deeper than the one of the target,
+     *                                  in which case the target is left unchanged
+     */
+    public void restoreInto(CentralProcessingUnit target) {
+        if (target == cpu) return;
+        if (cpu.getStack().getSize() > target.getStack().getDepth())
+            throw new IllegalArgumentException("A stack of size " + cpu.getStack().getSize()
+                    + " exceeds the depth of " + target.getStack().getDepth());
+
+        target.setCycles(cpu.getCycles());
+        target.copyOpCode(cpu);
+        target.getMemory().copyFrom(cpu.getMemory());
+        target.getScreenMemory().copyFrom(cpu.getScreenMemory());
+        target.getRegisters().copyFrom(cpu.getRegisters());
+        target.getAddressRegister().setAddress(cpu.getAddressRegister().getAddressUnsigned());
+        target.getProgramCounter().jumpTo(cpu.getProgramCounter().getCounterUnsigned());
+        target.getStack().copyFrom(cpu.getStack());
+        target.getDelayTimer().setValue(cpu.getDelayTimer().getValue());
+        restoreSoundTimer(target.getSoundTimer(), cpu.getSoundTimer().getValue());
+        copyRandom(target);
+    }
+
+    private void copyRandom(CentralProcessingUnit target) {
+        Random random = cpu.getRandom();
+
+        if (random instanceof XorShiftRandom) {
+            XorShiftRandom xorShiftRandom = (XorShiftRandom) random;
+            restoreXorShiftRandom(target, xorShiftRandom.getState0(), xorShiftRandom.getState1());
+        } else if (random instanceof StatefulRandom) {
+            restoreStatefulRandom(target, ((StatefulRandom) random).getState());
+        } else if (random != null) target.setRandom(deserializeRandom(serializeRandom()));
+    }
+
+    /**
+     * Writes the save state into a newly allocated buffer
+     *
+     * @return The buffer, flipped so it can be read or written to a channel
+     * @see #write(ByteBuffer)
+     */
+    public ByteBuffer toByteBuffer() {
+        int opCode = cpu.getOpCode();
+        byte[] opCodeText = opCodeText(opCode);
+        byte[] randomBytes = randomBytes();
+        ByteBuffer buffer = ByteBuffer.allocate(getSize(opCodeText, randomBytes));
+        write(buffer, opCode, opCodeText, randomBytes);
+        buffer.flip();
+
+        return buffer;
+    }
+
+    /**
+     * Writes the save state into a buffer in the following (big-endian) format:
+     * the magic number "C8SS", the version, the cycles, the last opcode and whether it is stored as text instead,
+     * the 4 KB of memory, the screen as one long per row, the registers, the address register, the program counter,
+     * the size, depth and all entries of the stack, the delay and sound timers,
+     * the state of the random number generator and, if stored as text, the length and UTF-8 bytes of the last opcode.
+     * Unless the random number generator has to be serialized or the opcode is stored as text, every save state
+     * of the same {@link CentralProcessingUnit} has the same size and layout
+     *
+     * @param buffer The buffer to write to
+     * @throws IllegalArgumentException If the save state doesn't fit into the remaining space of the buffer,
+     *                                  in which case nothing is written
+     */
+    public void write(ByteBuffer buffer) {
+        int opCode = cpu.getOpCode();
+        byte[] opCodeText = opCodeText(opCode);
+        byte[] randomBytes = randomBytes();
+        int size = getSize(opCodeText, randomBytes);
+        if (size > buffer.remaining())
+            throw new IllegalArgumentException("A save state of " + size + " bytes doesn't fit into "
+                    + buffer.remaining() + " bytes");
+
+        write(buffer, opCode, opCodeText, randomBytes);
+    }
+
+    private void write(ByteBuffer buffer, int opCode, byte[] opCodeText, byte[] randomBytes) {
+        buffer.putInt(MAGIC)
+                .putShort(VERSION)
+                .putInt(cpu.getCycles())
+                .putShort((short) (opCodeText == null ? opCode : 0))
+                .put(opCodeText == null ? OP_CODE_NUMBER : opCodeText.length == 0 ? OP_CODE_NONE : OP_CODE_TEXT);
+        cpu.getMemory().copyTo(0, buffer, MEMORY_LENGTH);
+        cpu.getScreenMemory().dump(buffer);
+        cpu.getRegisters().dump(buffer);
+        buffer.putShort((short) cpu.getAddressRegister().getAddressUnsigned())
+                .putShort((short) cpu.getProgramCounter().getCounterUnsigned());
+
+        cpu.getStack().dump(buffer);
+
+        buffer.put((byte) cpu.getDelayTimer().getValue())
+                .put((byte) cpu.getSoundTimer().getValue());
+        writeRandom(buffer, randomBytes);
+
+        if (opCodeText != null && opCodeText.length > 0) buffer.putShort((short) opCodeText.length).put(opCodeText);
+    }
+
+    /**
+     * Returns the number of bytes {@link #write(ByteBuffer)} writes
+     *
+     * @return The size of the binary save state
+     */
+    public int getSize() {
+        return getSize(opCodeText(cpu.getOpCode()), randomBytes());
+    }
+
+    private int getSize(byte[] opCodeText, byte[] randomBytes) {
+        int randomSize = 0;
+        if (cpu.getRandomNumberGenerator() instanceof XorShiftRandom) randomSize = 2 * Long.BYTES;
+        else if (cpu.getRandom() instanceof StatefulRandom) randomSize = Long.BYTES;
+        else if (randomBytes.length > 0) randomSize = Integer.BYTES + randomBytes.length;
+
+        return Integer.BYTES + Short.BYTES + Integer.BYTES
+                + Short.BYTES + Byte.BYTES
+                + MEMORY_LENGTH
+                + ScreenMemory.SCREEN_HEIGHT * Long.BYTES
+                + REGISTER_LENGTH
+                + Short.BYTES + Short.BYTES
+                + cpu.getStack().getDumpSize()
+                + Byte.BYTES + Byte.BYTES
+                + Byte.BYTES + randomSize
+                + (opCodeText == null || opCodeText.length == 0 ? 0 : Short.BYTES + opCodeText.length);
+    }
+
+    private void writeRandom(ByteBuffer buffer, byte[] randomBytes) {
+        Random random = cpu.getRandom();
+
+        if (random instanceof XorShiftRandom) {
+            XorShiftRandom xorShiftRandom = (XorShiftRandom) random;
+            buffer.put(RANDOM_XOR_SHIFT).putLong(xorShiftRandom.getState0()).putLong(xorShiftRandom.getState1());
+        } else if (random instanceof StatefulRandom) {
+            buffer.put(RANDOM_STATE).putLong(((StatefulRandom) random).getState());
+        } else if (randomBytes.length > 0) {
+            buffer.put(RANDOM_SERIALIZED).putInt(randomBytes.length).put(randomBytes);
+        } else buffer.put(RANDOM_NONE);
+    }
+
+    /* Only the text of an opcode restored from a text save state is stored, executed opcodes are never rendered */
+    private byte[] opCodeText(int opCode) {
+        if (opCode >= 0) return null;
+
+        String opCodeString = cpu.getOpCodeString();
+        if (opCodeString == null) return NO_TEXT;
+
+        byte[] bytes = opCodeString.getBytes(UTF_8);
+        return bytes.length <= 0xFFFF ? bytes : Arrays.copyOf(bytes, 0xFFFF);
+    }
+
+    /* Only generators other than XorShiftRandom and StatefulRandom are stored by serializing them */
+    private byte[] randomBytes() {
+        Random random = cpu.getRandom();
+        if (random == null || random instanceof XorShiftRandom || random instanceof StatefulRandom)
+            return new byte[0];
+
+        return serializeRandom();
+    }
+
+    private byte[] serializeRandom() {
         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
         try (ObjectOutputStream oos = new ObjectOutputStream(byteArrayOutputStream)) {
             oos.writeObject(cpu.getRandom());
@@ -204,6 +566,16 @@ public class SaveState {
             e.printStackTrace();
         }
 
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    /**
+     * Returns the save state in the text format used before the binary one
+     *
+     * @return The save state as text
+     */
+    @Override
+    public String toString() {
         return wrap(CYCLES_CHAR, valueOf(cpu.getCycles()))
                 + wrap(OPCODE_CHAR, cpu.getOpCodeString())
                 + wrap(MEMORY_CHAR, cpu.getMemory().getValues())
@@ -214,7 +586,7 @@ public class SaveState {
                 + wrap(STACK_CHAR, cpu.getStack().getValues())
                 + wrap(DELAY_TIMER_CHAR, valueOf(cpu.getDelayTimer().getValue()))
                 + wrap(SOUND_TIMER_CHAR, valueOf(cpu.getSoundTimer().getValue()))
-                + wrap(RANDOM_CHAR, Arrays.toString(byteArrayOutputStream.toByteArray()));
+                + wrap(RANDOM_CHAR, Arrays.toString(serializeRandom()));
     }
 
     private String wrap(char name, String toWrap) {
@@ -1,49 +1,127 @@
 package de.nihas101.chip8.savestates;
 
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
+
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.logging.Logger;
 
 import static de.nihas101.chip8.savestates.SaveState.createSaveState;
+import static de.nihas101.chip8.savestates.SaveState.isBinarySaveState;
+import static de.nihas101.chip8.savestates.SaveStateSlots.DEFAULT_SLOTS;
+import static de.nihas101.chip8.savestates.SaveStateSlots.openSaveStateSlots;
+import static de.nihas101.chip8.utils.Constants.SAVE_STATE_SLOTS_FILE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.*;
 
 public class SaveStateHandler {
     private Logger logger = Logger.getLogger(SaveStateHandler.class.getName());
+    private final File slotFile;
+    private SaveStateSlots saveStateSlots = null;
+
+    public SaveStateHandler() {
+        this(new File(SAVE_STATE_SLOTS_FILE));
+    }
+
+    /**
+     * Creates a {@link SaveStateHandler}
+     *
+     * @param slotFile The file holding the quick-save slots, which is opened on the first access to a slot
+     */
+    public SaveStateHandler(File slotFile) {
+        this.slotFile = slotFile;
+    }
 
     public void writeState(File saveFile, SaveState state) throws IOException {
         if (!saveFile.exists()) saveFile.createNewFile();
         if (saveFile.canWrite()) {
-            try (FileWriter fileWriter = new FileWriter(saveFile)) {
-                fileWriter.write(state.toString());
-                fileWriter.close();
+            try (FileChannel fileChannel = FileChannel.open(saveFile.toPath(), WRITE, TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = state.toByteBuffer();
+                while (buffer.hasRemaining()) fileChannel.write(buffer);
             } catch (IOException e) {
                 logger.severe(e.getMessage());
             }
         }
     }
 
+    /**
+     * Reads a save state, which may either be stored in the binary format or in the older text format
+     *
+     * @param loadFile The file to read from
+     * @return The read {@link SaveState}
+     * @throws FailedReadingStateException If the file doesn't exist or doesn't hold a valid save state
+     */
     public SaveState readState(File loadFile) throws FailedReadingStateException {
-        String readState;
+        ByteBuffer readState;
 
         if (loadFile.exists()) {
-            try (LineNumberReader fileReader = new LineNumberReader(new FileReader(loadFile))) {
-                readState = readFile(fileReader);
+            try (FileChannel fileChannel = FileChannel.open(loadFile.toPath(), READ)) {
+                readState = readFile(fileChannel);
             } catch (IOException e) {
                 logger.severe(e.getMessage());
                 throw new FailedReadingStateException(loadFile);
             }
         } else throw new FailedReadingStateException(loadFile);
 
-        return createSaveState(readState);
+        try {
+            if (isBinarySaveState(readState)) return createSaveState(readState);
+            else return createSaveState(UTF_8.decode(readState).toString());
+        } catch (RuntimeException e) {
+            logger.severe(e.toString());
+            throw new FailedReadingStateException(loadFile);
+        }
     }
 
-    private String readFile(LineNumberReader fileReader) throws IOException {
-        StringBuilder readState = new StringBuilder();
-        String readLine = fileReader.readLine();
+    private ByteBuffer readFile(FileChannel fileChannel) throws IOException {
+        ByteBuffer readState = ByteBuffer.allocate((int) fileChannel.size());
 
-        while (readLine != null) {
-            readState.append(readLine).append("\n");
-            readLine = fileReader.readLine();
-        }
+        while (readState.hasRemaining())
+            if (fileChannel.read(readState) < 0) throw new EOFException();
+
+        readState.flip();
+        return readState;
+    }
 
-        return readState.toString();
+    /**
+     * Writes a save state into a slot of the slot file
+     *
+     * @param slot  The index of the slot
+     * @param state The {@link SaveState} to write
+     * @throws IOException If the slot file can't be opened
+     */
+    public void writeState(int slot, SaveState state) throws IOException {
+        getSaveStateSlots().save(slot, state);
+    }
+
+    /**
+     * Restores the save state of a slot of the slot file into a {@link CentralProcessingUnit}
+     *
+     * @param slot The index of the slot
+     * @param cpu  The {@link CentralProcessingUnit} to restore the save state into
+     * @return False if the slot is empty
+     * @throws IOException If the slot file can't be opened
+     */
+    public boolean readState(int slot, CentralProcessingUnit cpu) throws IOException {
+        return getSaveStateSlots().load(slot, cpu);
+    }
+
+    private SaveStateSlots getSaveStateSlots() throws IOException {
+        if (saveStateSlots == null) saveStateSlots = openSaveStateSlots(slotFile, DEFAULT_SLOTS);
+        return saveStateSlots;
+    }
+
+    /**
+     * Closes the slot file, if it was opened
+     */
+    public void close() {
+        if (saveStateSlots == null) return;
+
+        try {
+            saveStateSlots.close();
+        } catch (IOException e) {
+            logger.severe(e.getMessage());
+        }
+        saveStateSlots = null;
     }
 }
@@ -0,0 +1,179 @@
+package de.nihas101.chip8.savestates;
+
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static de.nihas101.chip8.savestates.SaveState.restoreSaveState;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * A class representing a file holding a fixed number of slots for binary {@link SaveState}s.
+ * The file is memory-mapped, so saving to a slot writes directly into the mapped region and
+ * loading from a slot reads directly from it.
+ * The file starts with a header consisting of the magic number "C8SL", the version, the number of slots and
+ * the size of a slot, followed by the slots, each holding the length of its save state and the save state itself
+ */
+public class SaveStateSlots implements Closeable {
+    /**
+     * The first four bytes of a slot file, "C8SL"
+     */
+    public static final int MAGIC = 0x4338534C;
+    public static final short VERSION = 1;
+    public static final int DEFAULT_SLOTS = 10;
+    /**
+     * The size of a slot, a save state without a serialized random number generator takes up about 4.5 KB
+     */
+    public static final int SLOT_SIZE = 8 * 1024;
+
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + Short.BYTES + Integer.BYTES;
+
+    private final FileChannel fileChannel;
+    private final MappedByteBuffer mappedBuffer;
+    private final int slots;
+
+    private SaveStateSlots(FileChannel fileChannel, MappedByteBuffer mappedBuffer, int slots) {
+        this.fileChannel = fileChannel;
+        this.mappedBuffer = mappedBuffer;
+        this.slots = slots;
+    }
+
+    /**
+     * Opens a slot file, creating it if it doesn't exist or is empty
+     *
+     * @param slotFile The file holding the slots
+     * @param slots    The number of slots of a newly created file, an existing file keeps its number of slots
+     * @return The opened {@link SaveStateSlots}
+     * @throws IOException If the file can't be opened or isn't a slot file
+     */
+    public static SaveStateSlots openSaveStateSlots(File slotFile, int slots) throws IOException {
+        if (slots < 1 || slots > Short.MAX_VALUE)
+            throw new IllegalArgumentException("The number of slots has to be between 1 and "
+                    + Short.MAX_VALUE + ": " + slots);
+
+        FileChannel fileChannel = FileChannel.open(slotFile.toPath(), READ, WRITE, CREATE);
+        try {
+            if (fileChannel.size() == 0) return createSlots(fileChannel, slots);
+            else return mapSlots(fileChannel, slotFile);
+        } catch (IOException | RuntimeException e) {
+            fileChannel.close();
+            throw e;
+        }
+    }
+
+    private static SaveStateSlots createSlots(FileChannel fileChannel, int slots) throws IOException {
+        MappedByteBuffer mappedBuffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(slots));
+        mappedBuffer.putInt(MAGIC).putShort(VERSION).putShort((short) slots).putInt(SLOT_SIZE);
+
+        return new SaveStateSlots(fileChannel, mappedBuffer, slots);
+    }
+
+    private static SaveStateSlots mapSlots(FileChannel fileChannel, File slotFile) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining())
+            if (fileChannel.read(header, header.position()) < 0) break;
+        header.flip();
+
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getShort() != VERSION)
+            throw new IOException(slotFile.getAbsolutePath() + " is not a save state slot file");
+
+        int slots = header.getShort();
+        if (slots < 1 || header.getInt() != SLOT_SIZE || fileChannel.size() < fileSize(slots))
+            throw new IOException(slotFile.getAbsolutePath() + " is corrupted");
+
+        return new SaveStateSlots(fileChannel, fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(slots)), slots);
+    }
+
+    private static long fileSize(int slots) {
+        return HEADER_SIZE + (long) slots * SLOT_SIZE;
+    }
+
+    /**
+     * Writes a save state into a slot, replacing its previous save state
+     *
+     * @param slot      The index of the slot
+     * @param saveState The {@link SaveState} to write
+     * @throws IllegalArgumentException If the save state doesn't fit into a slot
+     */
+    public void save(int slot, SaveState saveState) {
+        ByteBuffer slotBuffer = slotBuffer(slot);
+        int length = slotBuffer.getInt(0);
+        /* Mark the slot as empty while it is being written */
+        slotBuffer.putInt(0, 0);
+        slotBuffer.position(Integer.BYTES);
+
+        try {
+            saveState.write(slotBuffer);
+        } catch (IllegalArgumentException e) {
+            /* Nothing was written, so the previous save state is still intact */
+            slotBuffer.putInt(0, length);
+            throw e;
+        }
+        slotBuffer.putInt(0, slotBuffer.position() - Integer.BYTES);
+    }
+
+    /**
+     * Returns the save state of a slot without copying it
+     *
+     * @param slot The index of the slot
+     * @return A read-only view of the save state in its binary format, or null if the slot is empty
+     */
+    public ByteBuffer read(int slot) {
+        ByteBuffer slotBuffer = slotBuffer(slot);
+        int length = slotBuffer.getInt(0);
+        if (length <= 0 || length > SLOT_SIZE - Integer.BYTES) return null;
+
+        slotBuffer.limit(Integer.BYTES + length).position(Integer.BYTES);
+        return slotBuffer.slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Restores the save state of a slot into a {@link CentralProcessingUnit}
+     *
+     * @param slot The index of the slot
+     * @param cpu  The {@link CentralProcessingUnit} to restore the save state into
+     * @return False if the slot is empty
+     */
+    public boolean load(int slot, CentralProcessingUnit cpu) {
+        ByteBuffer saveState = read(slot);
+        if (saveState == null) return false;
+
+        restoreSaveState(saveState, cpu);
+        return true;
+    }
+
+    public boolean isEmpty(int slot) {
+        return read(slot) == null;
+    }
+
+    private ByteBuffer slotBuffer(int slot) {
+        if (slot < 0 || slot >= slots)
+            throw new IndexOutOfBoundsException("Slot " + slot + " is out of bounds (0 - " + (slots - 1) + ")");
+
+        ByteBuffer slotBuffer = mappedBuffer.duplicate();
+        int offset = HEADER_SIZE + slot * SLOT_SIZE;
+        slotBuffer.limit(offset + SLOT_SIZE).position(offset);
+
+        return slotBuffer.slice();
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    /**
+     * Writes the slots to the disk and closes the file
+     *
+     * @throws IOException If closing the file fails
+     */
+    @Override
+    public void close() throws IOException {
+        mappedBuffer.force();
+        fileChannel.close();
+    }
+}
@@ -1,7 +1,7 @@
 package de.nihas101.chip8.utils;
 
 public class Constants {
-    public static final int MEMORY_LENGTH = 0xfff; // 4095
+    public static final int MEMORY_LENGTH = 0x1000; // 4096
     public static final int REGISTER_LENGTH = 16;
 
     /* en.wikipedia.org/wiki/CHIP-8: "Most programs written for the original system begin at hardware location 512 (0x200)" */
@@ -11,7 +11,6 @@ public class Constants {
     public static final long HERTZ_60 = 17;
 
     public static final long CYCLE_WAIT_TIME = 2;
-    public static final long STEP_WAIT_TIME = 100;
 
     public static final char CYCLES_CHAR = 'c';
     public static final char OPCODE_CHAR = 'o';
@@ -25,5 +24,8 @@ public class Constants {
     public static final char SOUND_TIMER_CHAR = 't';
     public static final char RANDOM_CHAR = 'i';
 
-    public static final int DRAW_INTERVAL_MULTIPLIER = 35;
+    /* The file holding the quick-save slots, relative to the working directory */
+    public static final String SAVE_STATE_SLOTS_FILE = "savestates.c8slots";
+    public static final String TRACE_FILE = "trace.c8trace";
+    public static final String MOVIE_FILE = "movie.c8movie";
 }
@@ -3,6 +3,112 @@ package de.nihas101.chip8.utils;
 import static java.lang.Integer.toHexString;
 
 public class OpCodeStringFactory {
+    /**
+     * Renders an opcode the way it is shown by the debugger, e.g. "6a02 -> Va = 2".
+     * This mirrors the decoding of {@link de.nihas101.chip8.hardware.CentralProcessingUnit}, so the text only has to
+     * be built when it is actually read instead of every time an instruction is executed
+     *
+     * @param opCode The opcode (0x0000 - 0xFFFF)
+     * @return The rendered opcode, only consisting of the hexadecimal opcode for unknown ones
+     */
+    public static String createOpCodeString(int opCode) {
+        return toHexString(opCode) + " -> " + createOperationString(opCode);
+    }
+
+    private static String createOperationString(int opCode) {
+        int X = (opCode >> 8) & 0xF;
+        int Y = (opCode >> 4) & 0xF;
+        int N = opCode & 0xF;
+        int NN = opCode & 0xFF;
+        int NNN = opCode & 0xFFF;
+
+        switch (opCode >> 12) {
+            case 0x0:
+                if (X != 0x0) return "";
+                return N == 0 ? "" : "return;";
+            case 0x1:
+                return "goto " + toHexString(NNN) + ";";
+            case 0x2:
+                return "*(0x" + toHexString(NNN) + ")()";
+            case 0x3:
+                return "if(V" + toHexString(X) + "==" + toHexString(NN) + ")";
+            case 0x4:
+                return "if(V" + toHexString(X) + "!=" + toHexString(NN) + ")";
+            case 0x5:
+                return "if(V" + toHexString(X) + "==V" + toHexString(Y) + ")";
+            case 0x6:
+                return "V" + toHexString(X) + " = " + toHexString(NN);
+            case 0x7:
+                return "V" + toHexString(X) + " += " + toHexString(NN);
+            case 0x8:
+                return createOperationString8XYN(X, Y, N);
+            case 0x9:
+                return "if(V" + toHexString(X) + "!=V" + toHexString(Y) + ")";
+            case 0xA:
+                return "I = " + toHexString(NNN);
+            case 0xB:
+                return "PC=V0+" + toHexString(NNN);
+            case 0xC:
+                return "V" + toHexString(X) + "=rand()&" + NN;
+            case 0xD:
+                return "draw(V" + toHexString(X) + ",V" + toHexString(Y) + "," + N + ")";
+            case 0xE:
+                if (Y == 0x9) return "if(key()==V" + toHexString(X) + ")";
+                if (Y == 0xA) return "if(key()!=V" + toHexString(X) + ")";
+                return "";
+            default: // 0xF
+                return createOperationStringFXNN(X, Y, NN);
+        }
+    }
+
+    private static String createOperationString8XYN(int X, int Y, int N) {
+        switch (N) {
+            case 0x0:
+                return "V" + toHexString(X) + "=V" + toHexString(Y);
+            case 0x1:
+                return createLogicOpOpCodeString("|", X, Y);
+            case 0x2:
+                return createLogicOpOpCodeString("&", X, Y);
+            case 0x3:
+                return createLogicOpOpCodeString("^", X, Y);
+            case 0x4:
+                return createArithmeticOpCodeString("+", X, Y);
+            case 0x5:
+                return createArithmeticOpCodeString("-", X, Y);
+            case 0x6:
+                return "V" + toHexString(X) + " >> 1";
+            case 0x7:
+                return createArithmeticOpCodeString("-", Y, X);
+            case 0xE:
+                return "V" + toHexString(X) + " << 1";
+            default:
+                return "";
+        }
+    }
+
+    private static String createOperationStringFXNN(int X, int Y, int NN) {
+        switch (NN) {
+            case 0x07:
+                return "V" + toHexString(X) + " = get_delay()";
+            case 0x0A:
+                return "V" + toHexString(X) + " = get_key()";
+            case 0x15:
+                return createTimerOpString("delay_timer", X);
+            case 0x18:
+                return createTimerOpString("sound_timer", X);
+            case 0x1E:
+                return "I +=V" + toHexString(X);
+            case 0x33:
+                return "BCD V" + toHexString(X);
+            case 0x55:
+                return createRegOpCodeString("dump", X);
+            case 0x65:
+                return createRegOpCodeString("load", X);
+            default:
+                return Y == 0x2 ? "I=sprite_addr[" + toHexString(X) + "]" : "";
+        }
+    }
+
     public static String createRegOpCodeString(String operation, int register) {
         return "reg_" + operation + "(V" + toHexString(register) + ", &I)";
     }
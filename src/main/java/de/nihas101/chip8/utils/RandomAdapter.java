@@ -0,0 +1,47 @@
+package de.nihas101.chip8.utils;
+
+import java.util.Random;
+
+/**
+ * A class using any {@link Random} as a {@link RandomNumberGenerator}
+ */
+public class RandomAdapter implements RandomNumberGenerator {
+    private final Random random;
+
+    private RandomAdapter(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Returns a {@link RandomNumberGenerator} drawing its numbers from a {@link Random}
+     *
+     * @param random The {@link Random} to draw from, or null
+     * @return The {@link Random} itself if it already is a {@link RandomNumberGenerator}, a {@link RandomAdapter}
+     * wrapping it otherwise, or null if it is null
+     */
+    public static RandomNumberGenerator asRandomNumberGenerator(Random random) {
+        if (random == null || random instanceof RandomNumberGenerator) return (RandomNumberGenerator) random;
+        return new RandomAdapter(random);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int nextByte() {
+        return random.nextInt(256);
+    }
+
+    /**
+     * {@inheritDoc}.
+     * The new generator is a {@link Random} seeded by this one
+     */
+    @Override
+    public RandomNumberGenerator fork() {
+        return new RandomAdapter(new Random(random.nextLong()));
+    }
+
+    public Random getRandom() {
+        return random;
+    }
+}
@@ -0,0 +1,20 @@
+package de.nihas101.chip8.utils;
+
+/**
+ * An interface for the random number generators used by CXNN
+ */
+public interface RandomNumberGenerator {
+    /**
+     * Returns the next random byte
+     *
+     * @return A number from 0 to 255
+     */
+    int nextByte();
+
+    /**
+     * Creates a new generator producing other numbers than this one, e.g. for a parallel run of the same state
+     *
+     * @return The created {@link RandomNumberGenerator}
+     */
+    RandomNumberGenerator fork();
+}
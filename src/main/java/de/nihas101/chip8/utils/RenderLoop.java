@@ -0,0 +1,118 @@
+package de.nihas101.chip8.utils;
+
+import de.nihas101.chip8.hardware.memory.FrameBuffer;
+import javafx.animation.AnimationTimer;
+
+/**
+ * A class drawing a {@link ResizableCanvas} once per pulse of the display whenever a new frame was published
+ * to its {@link FrameBuffer}, while recording how evenly and how quickly frames reach the screen
+ */
+public class RenderLoop extends AnimationTimer {
+    /* The weight of the newest value in the running averages */
+    private static final double AVERAGE_WEIGHT = 0.05;
+
+    private final ResizableCanvas canvas;
+
+    private long lastPulse = 0;
+    private long drawnFrames = 0;
+    private long droppedFrames = 0;
+    private double averageFrameTime = 0;
+    private long maxFrameTime = 0;
+    private long lastLatency = 0;
+    private double averageLatency = 0;
+
+    public RenderLoop(ResizableCanvas canvas) {
+        this.canvas = canvas;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void handle(long now) {
+        if (lastPulse != 0) recordFrameTime(now - lastPulse);
+        lastPulse = now;
+
+        long previousFrame = canvas.getDrawnFrame();
+        if (!canvas.draw()) return;
+
+        long frame = canvas.getDrawnFrame();
+        /* Frames that were published and overwritten between two pulses never reached the screen */
+        if (previousFrame >= 0 && frame > previousFrame + 1) droppedFrames += frame - previousFrame - 1;
+        if (frame > 0) recordLatency(now - canvas.getFrameBuffer().getPublishTime());
+        drawnFrames++;
+    }
+
+    private void recordFrameTime(long frameTime) {
+        averageFrameTime = average(averageFrameTime, frameTime);
+        maxFrameTime = Math.max(maxFrameTime, frameTime);
+    }
+
+    /* The pulse may start before a frame was published during it, which is not a latency */
+    private void recordLatency(long latency) {
+        lastLatency = Math.max(latency, 0);
+        averageLatency = average(averageLatency, lastLatency);
+    }
+
+    private double average(double average, long value) {
+        return average == 0 ? value : average + AVERAGE_WEIGHT * (value - average);
+    }
+
+    /**
+     * Resets the recorded statistics
+     */
+    public void resetStatistics() {
+        lastPulse = 0;
+        drawnFrames = droppedFrames = maxFrameTime = lastLatency = 0;
+        averageFrameTime = averageLatency = 0;
+    }
+
+    public long getDrawnFrames() {
+        return drawnFrames;
+    }
+
+    /**
+     * Returns the number of frames that were published but replaced by a newer one before they could be drawn
+     *
+     * @return The number of dropped frames
+     */
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /**
+     * Returns the running average of the time between two pulses
+     *
+     * @return The average frame time in nanoseconds
+     */
+    public double getAverageFrameTime() {
+        return averageFrameTime;
+    }
+
+    public long getMaxFrameTime() {
+        return maxFrameTime;
+    }
+
+    /**
+     * Returns the time from publishing the last drawn frame to drawing it
+     *
+     * @return The latency in nanoseconds
+     */
+    public long getLastLatency() {
+        return lastLatency;
+    }
+
+    public double getAverageLatency() {
+        return averageLatency;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("RenderLoop: %d frames drawn, %d dropped, frame time %.2f ms (max %.2f ms), "
+                        + "latency %.2f ms", drawnFrames, droppedFrames, averageFrameTime / 1e6, maxFrameTime / 1e6,
+                averageLatency / 1e6);
+    }
+}
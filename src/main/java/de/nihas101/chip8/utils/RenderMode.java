@@ -0,0 +1,15 @@
+package de.nihas101.chip8.utils;
+
+/**
+ * The ways in which a {@link ResizableCanvas} can draw the screen
+ */
+public enum RenderMode {
+    /**
+     * Fills a rectangle for every run of changed pixels of the same colour
+     */
+    RECTANGLES,
+    /**
+     * Scales the screen into an image of the size of the canvas and draws it with a single call
+     */
+    IMAGE
+}
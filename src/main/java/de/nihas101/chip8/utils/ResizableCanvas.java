@@ -1,30 +1,44 @@
 package de.nihas101.chip8.utils;
 
-import de.nihas101.chip8.hardware.memory.ScreenMemory;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import de.nihas101.chip8.hardware.memory.FrameBuffer;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.Paint;
-import javafx.util.Duration;
+
+import java.util.Arrays;
 
 import static de.nihas101.chip8.hardware.memory.ScreenMemory.SCREEN_HEIGHT;
 import static de.nihas101.chip8.hardware.memory.ScreenMemory.SCREEN_WIDTH;
-import static de.nihas101.chip8.utils.Constants.DRAW_INTERVAL_MULTIPLIER;
 
 /**
  * https://stackoverflow.com/questions/24533556/how-to-make-canvas-resizable-in-javafx
  */
 public class ResizableCanvas extends Canvas {
-    private boolean[][] memory;
+    private FrameBuffer frameBuffer;
     private GraphicsContext graphicsContext;
     private Paint paintOff, paintOn;
 
-    public ResizableCanvas(ScreenMemory screenMemory) {
+    private RenderMode renderMode = RenderMode.IMAGE;
+
+    /* The newest frame read from the FrameBuffer and the rows as they are currently drawn on the canvas */
+    private final long[] frame = new long[SCREEN_HEIGHT];
+    private final long[] drawnRows = new long[SCREEN_HEIGHT];
+    private long drawnFrame = -1;
+    private boolean redraw = true;
+
+    /* The screen scaled to the size of the canvas, used by RenderMode.IMAGE */
+    private WritableImage image = null;
+    private int[] imageLine = new int[0];
+    private int argbOff, argbOn;
+
+    public ResizableCanvas(FrameBuffer frameBuffer) {
         setInitialColors();
         setRedrawOnSizeChange();
-        this.memory = screenMemory.getMemory();
+        this.frameBuffer = frameBuffer;
     }
 
     public void setupGraphicsContext() {
@@ -37,50 +51,150 @@ public class ResizableCanvas extends Canvas {
     }
 
     private void setRedrawOnSizeChange() {
-        widthProperty().addListener(event -> draw());
-        heightProperty().addListener(event -> draw());
+        widthProperty().addListener(event -> redraw());
+        heightProperty().addListener(event -> redraw());
     }
 
     /**
-     * Draws what is written in the {@link ScreenMemory} onto the screen
+     * Draws the newest frame of the {@link FrameBuffer} onto the screen, only repainting the rows that changed.
+     * Nothing is drawn if no new frame was published since the last call
+     *
+     * @return True if a frame was drawn
      */
-    public void draw() {
+    public boolean draw() {
+        if (!redraw && frameBuffer.getPublishedFrame() == drawnFrame) return false;
+        drawnFrame = frameBuffer.read(frame);
+
+        int dirtyRows = 0;
+        for (int y = 0; y < SCREEN_HEIGHT; y++)
+            if (frame[y] != drawnRows[y]) dirtyRows |= 1 << y;
+
+        if (renderMode == RenderMode.IMAGE) drawImage(dirtyRows);
+        else drawRectangles(dirtyRows);
+        return true;
+    }
+
+    private void drawRectangles(int dirtyRows) {
         /* Calculate height and width of pixels, depending on the size of the canvas */
         double width = this.getWidth() / SCREEN_WIDTH;
         double height = this.getHeight() / SCREEN_HEIGHT;
-        /* Draw Pixels */
-        for (int x = 0; x < SCREEN_WIDTH; x++) drawColumn(x, width, height);
+
+        if (redraw) {
+            redraw = false;
+            dirtyRows = -1;
+            Arrays.fill(drawnRows, 0);
+            graphicsContext.setFill(paintOff);
+            graphicsContext.fillRect(0, 0, getWidth(), getHeight());
+        }
+
+        /* Draw the changed rows */
+        for (int y = 0; y < SCREEN_HEIGHT; y++)
+            if ((dirtyRows & 1 << y) != 0) drawRow(y, width, height);
     }
 
-    private void drawColumn(int row, double width, double height) {
+    /**
+     * Writes the changed rows into an image of the size of the canvas and draws it unscaled.
+     * Scaling the screen by replicating its pixels keeps their edges sharp, which drawing a 64x32 image
+     * scaled up would blur
+     */
+    private void drawImage(int dirtyRows) {
+        int width = (int) Math.round(getWidth());
+        int height = (int) Math.round(getHeight());
+        if (width <= 0 || height <= 0) return;
+
+        if (redraw || image == null || image.getWidth() != width || image.getHeight() != height) {
+            redraw = false;
+            dirtyRows = -1;
+            image = new WritableImage(width, height);
+            imageLine = new int[width];
+            argbOff = toArgb(paintOff, 0xFF000000);
+            argbOn = toArgb(paintOn, 0xFFFFFFFF);
+        }
+
+        PixelWriter pixelWriter = image.getPixelWriter();
         for (int y = 0; y < SCREEN_HEIGHT; y++) {
-            if (!memory[row][y]) drawPixel(new Pixel(row * width, y * height, width, height, paintOff));
-            else drawPixel(new Pixel(row * width, y * height, width, height, paintOn));
+            if ((dirtyRows & 1 << y) == 0) continue;
+
+            long row = frame[y];
+            drawnRows[y] = row;
+            /* The leftmost pixel is the most significant bit */
+            for (int x = 0; x < SCREEN_WIDTH; x++)
+                Arrays.fill(imageLine, x * width / SCREEN_WIDTH, (x + 1) * width / SCREEN_WIDTH,
+                        row << x < 0 ? argbOn : argbOff);
+
+            for (int line = y * height / SCREEN_HEIGHT; line < (y + 1) * height / SCREEN_HEIGHT; line++)
+                pixelWriter.setPixels(0, line, width, 1, PixelFormat.getIntArgbInstance(), imageLine, 0, width);
         }
+
+        graphicsContext.drawImage(image, 0, 0);
+    }
+
+    private static int toArgb(Paint paint, int fallback) {
+        if (!(paint instanceof Color)) return fallback;
+
+        Color color = (Color) paint;
+        return (int) Math.round(color.getOpacity() * 255) << 24
+                | (int) Math.round(color.getRed() * 255) << 16
+                | (int) Math.round(color.getGreen() * 255) << 8
+                | (int) Math.round(color.getBlue() * 255);
     }
 
     /**
-     * Draws a pixel
-     *
-     * @param pixel The pixel to draw
+     * Draws the whole newest frame onto the screen
      */
-    private void drawPixel(Pixel pixel) {
-        graphicsContext.setFill(pixel.paint);
-        graphicsContext.fillRect(pixel.x, pixel.y, pixel.width + 1, pixel.height + 1);
+    public void redraw() {
+        redraw = true;
+        draw();
     }
 
-    public Timeline setupTimeLine() {
-        /* Setup keyframes to draw the canvas */
-        final Duration frameDuration = Duration.ONE.multiply(DRAW_INTERVAL_MULTIPLIER);
-        final KeyFrame oneFrame = new KeyFrame(frameDuration, event -> draw());
-        Timeline timeline = new Timeline();
-        timeline.setCycleCount(Timeline.INDEFINITE);
-        timeline.getKeyFrames().add(oneFrame);
-        return timeline;
+    private void drawRow(int y, double width, double height) {
+        long row = frame[y];
+        long changed = row ^ drawnRows[y];
+        drawnRows[y] = row;
+
+        /* The leftmost pixel is the most significant bit */
+        int x = 0;
+        while (x < SCREEN_WIDTH && changed << x != 0) {
+            x += Long.numberOfLeadingZeros(changed << x);
+            boolean on = row << x < 0;
+
+            /* Merge the following changed pixels of the same colour into one rectangle */
+            int end = x + 1;
+            while (end < SCREEN_WIDTH && changed << end < 0 && (row << end < 0) == on) end++;
+
+            drawRun(x, end, y, width, height, on ? paintOn : paintOff);
+            x = end;
+        }
+    }
+
+    /**
+     * Draws the pixels x ... end - 1 of a row. The edges are rounded to whole pixels of the canvas,
+     * so neighbouring runs neither overlap nor leave a gap
+     */
+    private void drawRun(int x, int end, int y, double width, double height, Paint paint) {
+        double left = Math.floor(x * width);
+        double top = Math.floor(y * height);
+
+        graphicsContext.setFill(paint);
+        graphicsContext.fillRect(left, top, Math.floor(end * width) - left, Math.floor((y + 1) * height) - top);
     }
 
-    public void setMemory(ScreenMemory memory) {
-        this.memory = memory.getMemory();
+    public void setFrameBuffer(FrameBuffer frameBuffer) {
+        this.frameBuffer = frameBuffer;
+        redraw = true;
+    }
+
+    public FrameBuffer getFrameBuffer() {
+        return frameBuffer;
+    }
+
+    /**
+     * Returns the number of the frame that was drawn last
+     *
+     * @return The number of the frame, as returned by {@link FrameBuffer#read(long[])}
+     */
+    public long getDrawnFrame() {
+        return drawnFrame;
     }
 
     /**
@@ -107,11 +221,27 @@ public class ResizableCanvas extends Canvas {
         return getHeight();
     }
 
+    /**
+     * Sets how the screen is drawn, the next call to {@link #draw()} redraws the whole screen
+     *
+     * @param renderMode The {@link RenderMode} to use
+     */
+    public void setRenderMode(RenderMode renderMode) {
+        this.renderMode = renderMode;
+        redraw = true;
+    }
+
+    public RenderMode getRenderMode() {
+        return renderMode;
+    }
+
     public void setPaintOn(Paint paint) {
         this.paintOn = paint;
+        redraw = true;
     }
 
     public void setPaintOff(Paint paint) {
         this.paintOff = paint;
+        redraw = true;
     }
 }
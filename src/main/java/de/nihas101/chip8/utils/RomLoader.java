@@ -1,7 +1,6 @@
 package de.nihas101.chip8.utils;
 
 import de.nihas101.chip8.hardware.memory.Memory;
-import de.nihas101.chip8.unsignedDataTypes.UnsignedByte;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -43,6 +42,18 @@ public class RomLoader {
         else logger.info("No bytes were read");
     }
 
+    /**
+     * Loads a ROM that is already in memory into the {@link Memory} of the emulator
+     *
+     * @param rom    The bytes of the ROM
+     * @param memory The memory to load the ROM into
+     */
+    public void loadRom(byte[] rom, Memory memory) {
+        byte[] loadedRom = new byte[MEMORY_LENGTH - PROGRAM_COUNTER_START];
+        System.arraycopy(rom, 0, loadedRom, 0, Math.min(rom.length, loadedRom.length));
+        loadIntoMemory(memory, loadedRom);
+    }
+
     /**
      * Closes the {@link InputStream}
      *
@@ -65,8 +76,6 @@ public class RomLoader {
      * @param loadedRom The ROM to load
      */
     private void loadIntoMemory(Memory memory, byte[] loadedRom) {
-        int MAX_ROM_LENGTH = MEMORY_LENGTH - PROGRAM_COUNTER_START;
-        for (int i = 0; i < MAX_ROM_LENGTH; i++)
-            memory.write(PROGRAM_COUNTER_START + i, new UnsignedByte(loadedRom[i]));
+        memory.load(PROGRAM_COUNTER_START, loadedRom);
     }
 }
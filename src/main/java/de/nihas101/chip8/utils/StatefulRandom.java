@@ -0,0 +1,85 @@
+package de.nihas101.chip8.utils;
+
+import java.util.Random;
+
+/**
+ * A {@link Random} whose 48-bit state can be read and restored, e.g. to store it in a save state.
+ * It produces the same numbers as a {@link Random} created with the same seed
+ */
+public class StatefulRandom extends Random implements RandomNumberGenerator {
+    /* The one computed for the class so far, so text save states holding a serialized instance can still be read */
+    private static final long serialVersionUID = -2635044660202182458L;
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    /* Assigned by setSeed, which the constructor of Random calls before the fields of this class are initialised */
+    private long state;
+
+    public StatefulRandom() {
+        super();
+    }
+
+    public StatefulRandom(long seed) {
+        super(seed);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void setSeed(long seed) {
+        super.setSeed(seed);
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int nextByte() {
+        return nextInt(256);
+    }
+
+    /**
+     * {@inheritDoc}.
+     * The new generator is seeded by the next number of this one
+     */
+    @Override
+    public StatefulRandom fork() {
+        return new StatefulRandom(nextLong());
+    }
+
+    /**
+     * Returns the current state of the generator
+     *
+     * @return The 48-bit state
+     */
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * Sets the state of the generator, as returned by {@link #getState()}
+     *
+     * @param state The 48-bit state
+     */
+    public void setState(long state) {
+        this.state = state & MASK;
+    }
+
+    /* Random serializes its own seed, which next(int) doesn't advance, so it is brought up to date first */
+    private Object writeReplace() {
+        super.setSeed(state ^ MULTIPLIER);
+        return this;
+    }
+}
@@ -0,0 +1,122 @@
+package de.nihas101.chip8.utils;
+
+import java.util.Random;
+
+/**
+ * A {@link Random} using the xorshift128+ generator, whose state consists of two longs that can be read and
+ * restored, e.g. to store them in a save state. Generating a number neither allocates nor synchronizes.
+ * The state is derived from a seed by SplitMix64, so every seed gives a well-mixed state
+ */
+public class XorShiftRandom extends Random implements RandomNumberGenerator {
+    /* The one computed for the class so far, so text save states holding a serialized instance can still be read */
+    private static final long serialVersionUID = -3021032079588012103L;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /* Assigned by setSeed, which the constructor of Random calls before the fields of this class are initialised */
+    private long state0;
+    private long state1;
+
+    public XorShiftRandom() {
+        super();
+    }
+
+    public XorShiftRandom(long seed) {
+        super(seed);
+    }
+
+    /**
+     * Creates an {@link XorShiftRandom} with the given state
+     *
+     * @param state0 The first half of the state
+     * @param state1 The second half of the state
+     * @return The created {@link XorShiftRandom}
+     * @throws IllegalArgumentException If both halves are zero
+     */
+    public static XorShiftRandom createXorShiftRandom(long state0, long state1) {
+        XorShiftRandom xorShiftRandom = new XorShiftRandom(0);
+        xorShiftRandom.setState(state0, state1);
+
+        return xorShiftRandom;
+    }
+
+    /**
+     * {@inheritDoc}.
+     * Derives both halves of the state from the seed
+     */
+    @Override
+    public synchronized void setSeed(long seed) {
+        /* The seed of Random itself is never used, so it stays zero and serializing only stores the state */
+        state0 = splitMix(seed + GOLDEN_GAMMA);
+        state1 = splitMix(seed + 2 * GOLDEN_GAMMA);
+        /* The state must not be all zeros, which the two outputs of SplitMix64 practically never are */
+        if ((state0 | state1) == 0) state1 = GOLDEN_GAMMA;
+    }
+
+    private static long splitMix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long nextLong() {
+        long s1 = state0;
+        long s0 = state1;
+        state0 = s0;
+        s1 ^= s1 << 23;
+        state1 = s1 ^ s0 ^ (s1 >>> 18) ^ (s0 >>> 5);
+
+        return state1 + s0;
+    }
+
+    /**
+     * {@inheritDoc}.
+     * Uses the upper bits, which are the best ones of xorshift128+
+     */
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int nextByte() {
+        return (int) (nextLong() >>> 56);
+    }
+
+    /**
+     * {@inheritDoc}.
+     * The new generator is seeded by the next number of this one, which is cheaper than copying a {@link Random}
+     */
+    @Override
+    public XorShiftRandom fork() {
+        return new XorShiftRandom(nextLong());
+    }
+
+    public long getState0() {
+        return state0;
+    }
+
+    public long getState1() {
+        return state1;
+    }
+
+    /**
+     * Sets the state of the generator, as returned by {@link #getState0()} and {@link #getState1()}
+     *
+     * @param state0 The first half of the state
+     * @param state1 The second half of the state
+     * @throws IllegalArgumentException If both halves are zero
+     */
+    public void setState(long state0, long state1) {
+        if ((state0 | state1) == 0) throw new IllegalArgumentException("The state must not be all zeros");
+
+        this.state0 = state0;
+        this.state1 = state1;
+    }
+}
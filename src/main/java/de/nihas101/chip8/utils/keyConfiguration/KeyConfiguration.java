@@ -64,23 +64,23 @@ public class KeyConfiguration {
     private static HashMap<KeyCode, EmulatorKey> createStandardEmulatorKeyHashMap(CentralProcessingUnit centralProcessingUnit) {
         HashMap<KeyCode, EmulatorKey> emulatorKeyHashMap = new HashMap<>();
 
-        emulatorKeyHashMap.put(X, createEmulatorKey("0", () -> centralProcessingUnit.setKeyCode(KEY_0)));
-        emulatorKeyHashMap.put(DIGIT1, createEmulatorKey("1", () -> centralProcessingUnit.setKeyCode(KEY_1)));
-        emulatorKeyHashMap.put(DIGIT2, createEmulatorKey("2", () -> centralProcessingUnit.setKeyCode(KEY_2)));
-        emulatorKeyHashMap.put(DIGIT3, createEmulatorKey("3", () -> centralProcessingUnit.setKeyCode(KEY_3)));
-        emulatorKeyHashMap.put(Q, createEmulatorKey("4", () -> centralProcessingUnit.setKeyCode(KEY_4)));
-        emulatorKeyHashMap.put(W, createEmulatorKey("5", () -> centralProcessingUnit.setKeyCode(KEY_5)));
-        emulatorKeyHashMap.put(E, createEmulatorKey("6", () -> centralProcessingUnit.setKeyCode(KEY_6)));
-        emulatorKeyHashMap.put(A, createEmulatorKey("7", () -> centralProcessingUnit.setKeyCode(KEY_7)));
-        emulatorKeyHashMap.put(S, createEmulatorKey("8", () -> centralProcessingUnit.setKeyCode(KEY_8)));
-        emulatorKeyHashMap.put(D, createEmulatorKey("9", () -> centralProcessingUnit.setKeyCode(KEY_9)));
-
-        emulatorKeyHashMap.put(Z, createEmulatorKey("A", () -> centralProcessingUnit.setKeyCode(KEY_A)));
-        emulatorKeyHashMap.put(C, createEmulatorKey("B", () -> centralProcessingUnit.setKeyCode(KEY_B)));
-        emulatorKeyHashMap.put(DIGIT4, createEmulatorKey("C", () -> centralProcessingUnit.setKeyCode(KEY_C)));
-        emulatorKeyHashMap.put(R, createEmulatorKey("D", () -> centralProcessingUnit.setKeyCode(KEY_D)));
-        emulatorKeyHashMap.put(F, createEmulatorKey("E", () -> centralProcessingUnit.setKeyCode(KEY_E)));
-        emulatorKeyHashMap.put(V, createEmulatorKey("F", () -> centralProcessingUnit.setKeyCode(KEY_F)));
+        emulatorKeyHashMap.put(X, createEmulatorKey("0", KEY_0, centralProcessingUnit));
+        emulatorKeyHashMap.put(DIGIT1, createEmulatorKey("1", KEY_1, centralProcessingUnit));
+        emulatorKeyHashMap.put(DIGIT2, createEmulatorKey("2", KEY_2, centralProcessingUnit));
+        emulatorKeyHashMap.put(DIGIT3, createEmulatorKey("3", KEY_3, centralProcessingUnit));
+        emulatorKeyHashMap.put(Q, createEmulatorKey("4", KEY_4, centralProcessingUnit));
+        emulatorKeyHashMap.put(W, createEmulatorKey("5", KEY_5, centralProcessingUnit));
+        emulatorKeyHashMap.put(E, createEmulatorKey("6", KEY_6, centralProcessingUnit));
+        emulatorKeyHashMap.put(A, createEmulatorKey("7", KEY_7, centralProcessingUnit));
+        emulatorKeyHashMap.put(S, createEmulatorKey("8", KEY_8, centralProcessingUnit));
+        emulatorKeyHashMap.put(D, createEmulatorKey("9", KEY_9, centralProcessingUnit));
+
+        emulatorKeyHashMap.put(Z, createEmulatorKey("A", KEY_A, centralProcessingUnit));
+        emulatorKeyHashMap.put(C, createEmulatorKey("B", KEY_B, centralProcessingUnit));
+        emulatorKeyHashMap.put(DIGIT4, createEmulatorKey("C", KEY_C, centralProcessingUnit));
+        emulatorKeyHashMap.put(R, createEmulatorKey("D", KEY_D, centralProcessingUnit));
+        emulatorKeyHashMap.put(F, createEmulatorKey("E", KEY_E, centralProcessingUnit));
+        emulatorKeyHashMap.put(V, createEmulatorKey("F", KEY_F, centralProcessingUnit));
 
         return emulatorKeyHashMap;
     }
@@ -0,0 +1,48 @@
+package de.nihas101.chip8.debug;
+
+import org.junit.Test;
+
+import static de.nihas101.chip8.debug.TraceBuffer.createTraceBuffer;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TraceBufferTest {
+    @Test
+    public void recordReplacesOldestEntries() {
+        TraceBuffer traceBuffer = createTraceBuffer(2);
+
+        traceBuffer.record(0, 0x200, 0x6A02, 0x0, 0x02, 0x0);
+        traceBuffer.record(1, 0x202, 0xA300, 0x300, 0x0, 0x0);
+        traceBuffer.record(2, 0x204, 0x8AB4, 0x300, 0xFF, 0x1);
+
+        assertEquals(2, traceBuffer.getSize());
+        assertEquals(3, traceBuffer.getRecorded());
+        assertEquals(1, traceBuffer.getCycle(0));
+        assertEquals(0xA300, traceBuffer.getOpCode(0));
+        assertEquals(0x204, traceBuffer.getAddress(1));
+        assertEquals(0x300, traceBuffer.getAddressRegister(1));
+        assertEquals(0xFF, traceBuffer.getRegisterX(1));
+        assertEquals(0x1, traceBuffer.getRegisterF(1));
+    }
+
+    @Test
+    public void renderEntry() {
+        TraceBuffer traceBuffer = createTraceBuffer(4);
+        traceBuffer.record(12, 0x200, 0x6A02, 0x0, 0x02, 0x0);
+
+        assertEquals("12: 0x200 6a02 -> Va = 2 (I=0x0, Va=0x2, VF=0x0)", traceBuffer.toString(0));
+    }
+
+    @Test
+    public void readOutOfBounds() {
+        TraceBuffer traceBuffer = createTraceBuffer(4);
+        traceBuffer.record(0, 0x200, 0x6A02, 0x0, 0x02, 0x0);
+
+        try {
+            traceBuffer.getOpCode(1);
+        } catch (IndexOutOfBoundsException e) {
+            return;
+        }
+        fail("No Exception was thrown");
+    }
+}
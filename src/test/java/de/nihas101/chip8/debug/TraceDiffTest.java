@@ -0,0 +1,84 @@
+package de.nihas101.chip8.debug;
+
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
+import de.nihas101.chip8.opcodes.UnknownOPCodeException;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static de.nihas101.chip8.debug.TraceReader.openTraceReader;
+import static de.nihas101.chip8.debug.TraceRecorder.openTraceRecorder;
+import static de.nihas101.chip8.hardware.Emulator.createHeadlessEmulator;
+import static de.nihas101.chip8.hardware.TestPrograms.loadProgram;
+import static de.nihas101.chip8.utils.Constants.PROGRAM_COUNTER_START;
+import static org.junit.Assert.*;
+
+public class TraceDiffTest {
+    /* V0 = 1, V1 = 2, V0 += V1, I = 0x300, jump back to the start */
+    private static final int[] PROGRAM = {0x6001, 0x6102, 0x8014, 0xA300, 0x1200};
+
+    @Test
+    public void recordAndRead() throws IOException, UnknownOPCodeException {
+        File trace = recordTrace(PROGRAM, 7);
+
+        try (TraceReader traceReader = openTraceReader(trace)) {
+            for (int i = 0; i < 3; i++) assertTrue(traceReader.next());
+
+            assertEquals(2, traceReader.getCycle());
+            assertEquals(PROGRAM_COUNTER_START + 4, traceReader.getAddress());
+            assertEquals(0x8014, traceReader.getOpCode());
+            assertEquals(3, traceReader.getRegister(0));
+            assertEquals(0x1, traceReader.getChangedRegisters());
+
+            for (int i = 3; i < 7; i++) assertTrue(traceReader.next());
+            assertFalse(traceReader.next());
+            assertEquals(6, traceReader.getIndex());
+        }
+    }
+
+    @Test
+    public void identicalTraces() throws IOException, UnknownOPCodeException {
+        TraceDiff traceDiff = TraceDiff.compare(recordTrace(PROGRAM, 50000), recordTrace(PROGRAM, 50000));
+
+        assertFalse(traceDiff.isDivergent());
+        assertEquals(-1, traceDiff.getDivergentRecord());
+    }
+
+    @Test
+    public void firstDivergence() throws IOException, UnknownOPCodeException {
+        int[] program = PROGRAM.clone();
+        program[1] = 0x6103;
+
+        TraceDiff traceDiff = TraceDiff.compare(recordTrace(PROGRAM, 10), recordTrace(program, 10));
+
+        assertTrue(traceDiff.isDivergent());
+        assertEquals(1, traceDiff.getDivergentRecord());
+        assertTrue(traceDiff.toString().contains("V1 (0x2 != 0x3)"));
+        assertTrue(traceDiff.toString().contains("#0 cycle 0: 0x200 6001 -> V0 = 1"));
+    }
+
+    @Test
+    public void shorterTrace() throws IOException, UnknownOPCodeException {
+        TraceDiff traceDiff = TraceDiff.compare(recordTrace(PROGRAM, 10), recordTrace(PROGRAM, 8));
+
+        assertTrue(traceDiff.isDivergent());
+        assertEquals(8, traceDiff.getDivergentRecord());
+        assertTrue(traceDiff.toString().contains("Ends after 8 records"));
+    }
+
+    private File recordTrace(int[] program, int cycles) throws IOException, UnknownOPCodeException {
+        File trace = File.createTempFile("trace", ".c8trace");
+        trace.deleteOnExit();
+
+        CentralProcessingUnit cpu = createHeadlessEmulator().getCentralProcessingUnit();
+        loadProgram(cpu.getMemory(), program);
+
+        try (TraceRecorder traceRecorder = openTraceRecorder(trace)) {
+            cpu.setTraceRecorder(traceRecorder);
+            for (int i = 0; i < cycles; i++) cpu.decodeNextOpCode();
+        }
+
+        return trace;
+    }
+}
@@ -1,6 +1,7 @@
 package de.nihas101.chip8.hardware;
 
 import de.nihas101.chip8.hardware.keys.EmulatorKey;
+import de.nihas101.chip8.hardware.memory.FrameBuffer;
 import de.nihas101.chip8.utils.keyConfiguration.KeyConfiguration;
 import javafx.scene.input.KeyCode;
 import org.junit.Test;
@@ -10,7 +11,7 @@ import java.util.HashMap;
 import static de.nihas101.chip8.hardware.keys.EmulatorKey.createEmulatorKey;
 import static javafx.scene.input.KeyCode.DIGIT0;
 import static javafx.scene.input.KeyCode.DIGIT1;
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class EmulatorTest {
 
@@ -100,4 +101,19 @@ public class EmulatorTest {
                 emulator.getCentralProcessingUnit().getState()
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    public void frameBufferIsCreatedOnDemand() {
+        Emulator emulator = Emulator.createHeadlessEmulator();
+
+        emulator.executeCPUCycles(100);
+        assertNull(emulator.getCentralProcessingUnit().getFrameBuffer());
+
+        FrameBuffer frameBuffer = emulator.getFrameBuffer();
+        assertSame(frameBuffer, emulator.getCentralProcessingUnit().getFrameBuffer());
+        assertSame(frameBuffer, emulator.getFrameBuffer());
+
+        emulator.executeCPUCycles(1);
+        assertEquals(1, frameBuffer.getPublishedFrame());
+    }
+}
@@ -58,6 +58,14 @@ public class MemoryTest {
         assertEquals(0, memory.read(0).unsignedDataType);
     }
 
+    @Test
+    public void testReadUnsigned() {
+        Memory memory = new Memory();
+        memory.write(0x200, -2);
+
+        assertEquals(254, memory.readUnsigned(0x200));
+    }
+
     @Test
     public void testIndexOutOfBoundsPokeNeg() {
         Memory memory = new Memory();
@@ -128,4 +136,46 @@ public class MemoryTest {
 
         assertEquals(memory1.getState(), memory.getState());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLoad() {
+        Memory memory = new Memory();
+        final int[] written = new int[2];
+        memory.setWriteListener((index, length) -> {
+            written[0] = index;
+            written[1] = length;
+        });
+
+        memory.load(MEMORY_LENGTH - 3, new byte[]{1, 2, (byte) 255});
+
+        assertEquals(1, memory.readUnsigned(MEMORY_LENGTH - 3));
+        assertEquals(255, memory.readUnsigned(MEMORY_LENGTH - 1));
+        assertEquals(MEMORY_LENGTH - 3, written[0]);
+        assertEquals(3, written[1]);
+    }
+
+    @Test
+    public void testCopyTo() {
+        Memory memory = new Memory();
+        byte[] destination = new byte[6];
+
+        memory.copyTo(0, destination, 1, 5);
+
+        assertEquals(0, destination[0]);
+        assertEquals((byte) 240, destination[1]);
+        assertEquals((byte) 144, destination[2]);
+    }
+
+    @Test
+    public void testCopyOutOfBounds() {
+        Memory memory = new Memory();
+
+        try {
+            memory.copyFrom(new byte[4], 0, MEMORY_LENGTH - 3, 4);
+        } catch (IndexOutOfBoundsException e) {
+            assertEquals(0, memory.readUnsigned(MEMORY_LENGTH - 3));
+            return;
+        }
+        fail("No Exception was thrown");
+    }
+}
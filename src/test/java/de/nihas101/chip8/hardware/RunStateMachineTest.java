@@ -0,0 +1,79 @@
+package de.nihas101.chip8.hardware;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static de.nihas101.chip8.hardware.RunState.*;
+import static org.junit.Assert.*;
+
+public class RunStateMachineTest {
+    @Test
+    public void transitions() {
+        RunStateMachine runStateMachine = new RunStateMachine();
+        assertEquals(RUNNING, runStateMachine.getRunState());
+
+        runStateMachine.setStepping(true);
+        assertEquals(STEPPING, runStateMachine.getRunState());
+        runStateMachine.pause();
+        assertEquals(PAUSED, runStateMachine.getRunState());
+        runStateMachine.resume();
+        assertEquals(STEPPING, runStateMachine.getRunState());
+
+        runStateMachine.stop();
+        runStateMachine.resume();
+        assertEquals(STOPPED, runStateMachine.getRunState());
+        runStateMachine.setStepping(false);
+        runStateMachine.start();
+        assertEquals(RUNNING, runStateMachine.getRunState());
+    }
+
+    @Test
+    public void executeOneBatchPerStep() throws InterruptedException {
+        RunStateMachine runStateMachine = new RunStateMachine();
+        AtomicInteger batches = new AtomicInteger(0);
+        runStateMachine.setStepping(true);
+
+        Thread executingThread = new Thread(() -> {
+            while (runStateMachine.awaitExecution() != STOPPED) batches.incrementAndGet();
+        });
+        executingThread.start();
+
+        runStateMachine.step();
+        while (batches.get() == 0) Thread.yield();
+        /* Pausing waits for the executing thread, which then stays parked until resumed */
+        runStateMachine.pause();
+        runStateMachine.step();
+        assertEquals(1, batches.get());
+
+        runStateMachine.resume();
+        while (batches.get() == 1) Thread.yield();
+
+        /* Stopping waits until the parked thread noticed it */
+        runStateMachine.stop();
+        executingThread.join(1000);
+        assertFalse(executingThread.isAlive());
+        assertEquals(2, batches.get());
+    }
+
+    @Test
+    public void pauseWaitsForCurrentBatch() throws InterruptedException {
+        RunStateMachine runStateMachine = new RunStateMachine();
+        AtomicInteger batches = new AtomicInteger(0);
+
+        Thread executingThread = new Thread(() -> {
+            while (runStateMachine.awaitExecution() != STOPPED) batches.incrementAndGet();
+        });
+        executingThread.start();
+        while (batches.get() == 0) Thread.yield();
+
+        runStateMachine.pause();
+        int pausedBatches = batches.get();
+        Thread.sleep(20);
+        assertEquals(pausedBatches, batches.get());
+
+        runStateMachine.stop();
+        executingThread.join(1000);
+        assertFalse(executingThread.isAlive());
+    }
+}
@@ -0,0 +1,55 @@
+package de.nihas101.chip8.hardware;
+
+import de.nihas101.chip8.hardware.memory.*;
+import de.nihas101.chip8.hardware.timers.DelayTimer;
+import de.nihas101.chip8.hardware.timers.SoundTimer;
+
+import java.util.Random;
+import java.util.Timer;
+
+import static de.nihas101.chip8.utils.Constants.PROGRAM_COUNTER_START;
+
+/**
+ * A class loading small test programs, given as one opcode per int, into {@link CentralProcessingUnit}s
+ */
+public final class TestPrograms {
+    private TestPrograms() {
+    }
+
+    /**
+     * Writes a program into memory, starting at {@link de.nihas101.chip8.utils.Constants#PROGRAM_COUNTER_START}
+     *
+     * @param memory  The memory to write to
+     * @param program The opcodes of the program
+     */
+    public static void loadProgram(Memory memory, int... program) {
+        for (int i = 0; i < program.length; i++) {
+            memory.write(PROGRAM_COUNTER_START + 2 * i, program[i] >> 8);
+            memory.write(PROGRAM_COUNTER_START + 2 * i + 1, program[i]);
+        }
+    }
+
+    /**
+     * Creates a {@link CentralProcessingUnit} running a program, whose random numbers are seeded with 0,
+     * so two {@link CentralProcessingUnit}s running the same program draw the same numbers
+     *
+     * @param program The opcodes of the program
+     * @return The created {@link CentralProcessingUnit}
+     */
+    public static CentralProcessingUnit createCentralProcessingUnit(int... program) {
+        Memory memory = new Memory();
+        loadProgram(memory, program);
+
+        return new CentralProcessingUnit(
+                memory,
+                new ScreenMemory(),
+                new Registers(),
+                new AddressRegister(),
+                new ProgramCounter(PROGRAM_COUNTER_START),
+                new Chip8Stack(),
+                new Timer("Timer"),
+                new DelayTimer(),
+                new SoundTimer(),
+                new Random(0));
+    }
+}
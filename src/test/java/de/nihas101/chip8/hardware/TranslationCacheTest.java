@@ -0,0 +1,111 @@
+package de.nihas101.chip8.hardware;
+
+import de.nihas101.chip8.opcodes.UnknownOPCodeException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TranslationCacheTest {
+
+    @Test
+    public void endsBlock() {
+        assertEquals(false, TranslationCache.endsBlock(0x00E0));
+        assertEquals(true, TranslationCache.endsBlock(0x00EE));
+        assertEquals(true, TranslationCache.endsBlock(0x1200));
+        assertEquals(true, TranslationCache.endsBlock(0x3001));
+        assertEquals(false, TranslationCache.endsBlock(0x6001));
+        assertEquals(false, TranslationCache.endsBlock(0xD015));
+        assertEquals(true, TranslationCache.endsBlock(0xE09E));
+        assertEquals(true, TranslationCache.endsBlock(0xF00A));
+        assertEquals(false, TranslationCache.endsBlock(0xF055));
+    }
+
+    @Test
+    public void hitsAndMisses() throws UnknownOPCodeException {
+        CentralProcessingUnit cpu = createCentralProcessingUnit(0x6001, 0x7101, 0x1202);
+
+        /* Miss on the block at 0x200, miss on the loop at 0x202, then only hits */
+        for (int i = 0; i < 10; i++) cpu.executeCycles(100);
+
+        assertEquals(2, cpu.getTranslationCache().getMisses());
+        assertEquals(8, cpu.getTranslationCache().getHits());
+        assertEquals(10, cpu.getRegisters().peekUnsigned(1));
+    }
+
+    @Test
+    public void executeCyclesRespectsLimit() throws UnknownOPCodeException {
+        CentralProcessingUnit cpu = createCentralProcessingUnit(0x6001, 0x6102, 0x6203, 0x1200);
+
+        assertEquals(2, cpu.executeCycles(2));
+
+        assertEquals(2, cpu.getCycles());
+        assertEquals(0, cpu.getRegisters().peekUnsigned(2));
+        assertEquals(0x204, cpu.getProgramCounter().getCounterUnsigned());
+    }
+
+    @Test
+    public void sameResultAsInterpreter() throws UnknownOPCodeException {
+        int[] program = {0x6005, 0x6103, 0x8014, 0x8105, 0x8216, 0xA300, 0xF255, 0x7301, 0x3310, 0x120E, 0x1210};
+        CentralProcessingUnit interpreted = createCentralProcessingUnit(program);
+        CentralProcessingUnit cached = createCentralProcessingUnit(program);
+        interpreted.setExecutionMode(ExecutionMode.INTERPRETER);
+
+        for (int i = 0; i < 200; ) i += interpreted.executeCycles(200 - i);
+        for (int i = 0; i < 200; ) i += cached.executeCycles(200 - i);
+
+        assertEquals(interpreted.getState(), cached.getState());
+        assertEquals(interpreted.getMemory().getValues(), cached.getMemory().getValues());
+    }
+
+    @Test
+    public void invalidateOnWrite() throws UnknownOPCodeException {
+        CentralProcessingUnit cpu = createCentralProcessingUnit(0x6001, 0x1200);
+        cpu.executeCycles(2);
+
+        cpu.getMemory().write(0x201, 0x02);
+        cpu.executeCycles(2);
+
+        assertEquals(1, cpu.getTranslationCache().getInvalidations());
+        assertEquals(2, cpu.getRegisters().peekUnsigned(0));
+    }
+
+    @Test
+    public void selfModifyingCode() throws UnknownOPCodeException {
+        /* V0 = 0x70, V1 = 0x01, I = 0x208, dump V0 - V1 over the next instruction (6200 -> 7001) */
+        CentralProcessingUnit cpu = createCentralProcessingUnit(0x6070, 0x6101, 0xA208, 0xF155, 0x6200, 0x1200);
+
+        assertEquals(4, cpu.executeCycles(100));
+        cpu.executeCycles(100);
+
+        assertEquals(1, cpu.getTranslationCache().getInvalidations());
+        assertEquals(0x71, cpu.getRegisters().peekUnsigned(0));
+    }
+
+    @Test
+    public void cycleCountedTimersEndBlocks() throws UnknownOPCodeException {
+        /* delay_timer = 5 and V1 = 1 - 4 in a single block */
+        CentralProcessingUnit cpu = createCentralProcessingUnit(0x6005, 0xF015, 0x6101, 0x6102, 0x6103, 0x6104, 0x1204);
+        cpu.useCycleCountedTimers(3);
+
+        assertEquals(3, cpu.executeCycles(100));
+        assertEquals(1, cpu.getTimerTicks());
+        assertEquals(4, cpu.getDelayTimer().getValue());
+        assertEquals(1, cpu.getRegisters().peekUnsigned(1));
+
+        assertEquals(3, cpu.executeCycles(100));
+        assertEquals(2, cpu.getTimerTicks());
+        assertEquals(4, cpu.getRegisters().peekUnsigned(1));
+
+        for (int i = 0; i < 30; ) i += cpu.executeCycles(30 - i);
+
+        assertEquals(12, cpu.getTimerTicks());
+        assertEquals(0, cpu.getDelayTimer().getValue());
+    }
+
+    private CentralProcessingUnit createCentralProcessingUnit(int... program) {
+        CentralProcessingUnit cpu = TestPrograms.createCentralProcessingUnit(program);
+        cpu.setExecutionMode(ExecutionMode.TRANSLATION_CACHE);
+
+        return cpu;
+    }
+}
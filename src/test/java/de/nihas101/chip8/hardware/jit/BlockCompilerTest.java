@@ -0,0 +1,135 @@
+package de.nihas101.chip8.hardware.jit;
+
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
+import de.nihas101.chip8.hardware.ExecutionMode;
+import de.nihas101.chip8.hardware.TranslationCache;
+import de.nihas101.chip8.opcodes.UnknownOPCodeException;
+import org.junit.Test;
+
+import static de.nihas101.chip8.hardware.TestPrograms.createCentralProcessingUnit;
+import static de.nihas101.chip8.utils.Constants.PROGRAM_COUNTER_START;
+import static org.junit.Assert.*;
+
+public class BlockCompilerTest {
+
+    @Test
+    public void sameResultAsInterpreter() throws UnknownOPCodeException {
+        int[] program = {
+                0x7F17, 0x6A03, 0x8AF4, 0x8FA4, 0x7B25, 0x8B0E, 0x8C06, 0x8CB5, 0x8D57, 0x7CFF,
+                0x8DA1, 0x8EB2, 0x8EC3, 0x8F76, 0x8FDE, 0x8340, 0xA300, 0xFB1E, 0xFC33, 0xF265,
+                0x7001, 0xC1FF, 0x4000, 0x1200, 0x1200
+        };
+        CentralProcessingUnit interpreted = createCentralProcessingUnit(program);
+        CentralProcessingUnit compiled = createCentralProcessingUnit(program);
+        interpreted.setExecutionMode(ExecutionMode.INTERPRETER);
+        compiled.enableJit(1);
+
+        for (int i = 0; i < 2000; ) i += interpreted.executeCycles(2000 - i);
+        for (int i = 0; i < 2000; ) i += compiled.executeCycles(2000 - i);
+
+        assertEquals(interpreted.getCycles(), compiled.getCycles());
+        assertEquals(interpreted.getRegisters().getValues(), compiled.getRegisters().getValues());
+        assertEquals(interpreted.getAddressRegister().getAddressUnsigned(),
+                compiled.getAddressRegister().getAddressUnsigned());
+        assertEquals(interpreted.getProgramCounter().getCounterUnsigned(),
+                compiled.getProgramCounter().getCounterUnsigned());
+        assertEquals(interpreted.getMemory().getValues(), compiled.getMemory().getValues());
+        assertTrue(compiled.getBlockCompiler().getCompiledBlocks() > 0);
+    }
+
+    @Test
+    public void compileAfterThreshold() throws UnknownOPCodeException {
+        CentralProcessingUnit cpu = createCentralProcessingUnit(0x7001, 0x1200);
+        cpu.enableJit(3);
+        TranslationCache.Block block = cpu.getTranslationCache().lookup(PROGRAM_COUNTER_START);
+
+        cpu.executeCycles(100);
+        cpu.executeCycles(100);
+        assertNull(block.getCompiledBlock());
+
+        cpu.executeCycles(100);
+        assertNotNull(block.getCompiledBlock());
+        assertEquals(1, cpu.getBlockCompiler().getCompiledBlocks());
+
+        for (int i = 0; i < 10; i++) cpu.executeCycles(100);
+        assertEquals(13, cpu.getRegisters().peekUnsigned(0));
+        assertEquals(26, cpu.getCycles());
+    }
+
+    @Test
+    public void waitForKeyIsNotCompiled() throws UnknownOPCodeException {
+        CentralProcessingUnit cpu = createCentralProcessingUnit(0x7001, 0xF10A);
+        cpu.enableJit(1);
+
+        assertFalse(BlockCompiler.canCompile(cpu.getTranslationCache().lookup(PROGRAM_COUNTER_START)));
+        assertNull(cpu.getBlockCompiler().compile(cpu.getTranslationCache().lookup(PROGRAM_COUNTER_START)));
+    }
+
+    @Test
+    public void blockLargerThanRemainingCycles() throws UnknownOPCodeException {
+        CentralProcessingUnit cpu = createCentralProcessingUnit(0x6001, 0x6102, 0x6203, 0x1200);
+        cpu.enableJit(1);
+
+        assertEquals(2, cpu.executeCycles(2));
+
+        assertEquals(0, cpu.getRegisters().peekUnsigned(2));
+        assertEquals(0x204, cpu.getProgramCounter().getCounterUnsigned());
+    }
+
+    @Test
+    public void blockLargerThanFrameWithCycleCountedTimers() throws UnknownOPCodeException {
+        /*
+         * A block of 19 instructions reading the delay timer, which doesn't fit into a frame of 17 cycles,
+         * then delay_timer = 5 whenever it ran out
+         */
+        int[] program = {
+                0xF107, 0x8214, 0x7301, 0x7301, 0x7301, 0x7301, 0x7301, 0x7301, 0x7301, 0x7301,
+                0x7301, 0x7301, 0x7301, 0x7301, 0x7301, 0x7301, 0x7301, 0x7301, 0x3100, 0x1200,
+                0x6A05, 0xFA15, 0x1200
+        };
+        CentralProcessingUnit interpreted = createCentralProcessingUnit(program);
+        CentralProcessingUnit compiled = createCentralProcessingUnit(program);
+        interpreted.useCycleCountedTimers(17);
+        compiled.useCycleCountedTimers(17);
+        compiled.enableJit(1);
+
+        for (int i = 0; i < 1000; ) i += interpreted.executeCycles(1000 - i);
+        for (int i = 0; i < 1000; ) i += compiled.executeCycles(1000 - i);
+
+        assertEquals(interpreted.getTimerTicks(), compiled.getTimerTicks());
+        assertEquals(interpreted.getDelayTimer().getValue(), compiled.getDelayTimer().getValue());
+        assertEquals(interpreted.getRegisters().getValues(), compiled.getRegisters().getValues());
+        assertEquals(interpreted.getProgramCounter().getCounterUnsigned(),
+                compiled.getProgramCounter().getCounterUnsigned());
+        assertNotNull(compiled.getTranslationCache().lookup(PROGRAM_COUNTER_START).getCompiledBlock());
+    }
+
+    @Test
+    public void compiledBlockStopsAfterMaxCycles() throws UnknownOPCodeException {
+        CentralProcessingUnit cpu = createCentralProcessingUnit(0x6001, 0x6102, 0x6203, 0x1200);
+        cpu.enableJit(1);
+        TranslationCache.Block block = cpu.getTranslationCache().lookup(PROGRAM_COUNTER_START);
+        CompiledBlock compiledBlock = cpu.getBlockCompiler().compile(block);
+
+        assertEquals(2, compiledBlock.execute(cpu, cpu.getRegisters(), cpu.getAddressRegister(),
+                cpu.getProgramCounter(), block, 2));
+
+        assertEquals(2, cpu.getRegisters().peekUnsigned(1));
+        assertEquals(0, cpu.getRegisters().peekUnsigned(2));
+        assertEquals(0x204, cpu.getProgramCounter().getCounterUnsigned());
+    }
+
+    @Test
+    public void selfModifyingCode() throws UnknownOPCodeException {
+        /* V0 = 0x70, V1 = 0x01, I = 0x208, dump V0 - V1 over the next instruction (6200 -> 7001) */
+        CentralProcessingUnit cpu = createCentralProcessingUnit(0x6070, 0x6101, 0xA208, 0xF155, 0x6200, 0x1200);
+        cpu.enableJit(1);
+
+        assertEquals(4, cpu.executeCycles(100));
+        assertEquals(0x208, cpu.getProgramCounter().getCounterUnsigned());
+        cpu.executeCycles(100);
+
+        assertEquals(0x71, cpu.getRegisters().peekUnsigned(0));
+        assertEquals(0, cpu.getRegisters().peekUnsigned(2));
+    }
+}
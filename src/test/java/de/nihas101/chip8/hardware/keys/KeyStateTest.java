@@ -0,0 +1,70 @@
+package de.nihas101.chip8.hardware.keys;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static de.nihas101.chip8.utils.keyConfiguration.Keys.NO_KEY;
+import static org.junit.Assert.*;
+
+public class KeyStateTest {
+    @Test
+    public void pressSeveralKeys() {
+        KeyState keyState = new KeyState();
+
+        keyState.press(0x1);
+        keyState.press(0xF);
+        assertTrue(keyState.isPressed(0x1));
+        assertTrue(keyState.isPressed(0xF));
+        assertFalse(keyState.isPressed(0x2));
+        assertFalse(keyState.isPressed(NO_KEY));
+        assertEquals(0x8002, keyState.getPressedKeys());
+        assertEquals(0xF, keyState.getPressedKey());
+
+        keyState.release(0xF);
+        assertEquals(0x1, keyState.getPressedKey());
+        keyState.release(0x1);
+        assertEquals(NO_KEY, keyState.getPressedKey());
+    }
+
+    @Test
+    public void pressUnknownKey() {
+        try {
+            new KeyState().press(0x10);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        fail("No Exception was thrown");
+    }
+
+    @Test
+    public void awaitKeyPressWakesUpOnPress() throws InterruptedException {
+        KeyState keyState = new KeyState();
+        AtomicInteger pressedKey = new AtomicInteger(NO_KEY);
+        Thread waitingThread = new Thread(() -> pressedKey.set(keyState.awaitKeyPress(() -> false)));
+
+        waitingThread.start();
+        keyState.press(0xA);
+        waitingThread.join(1000);
+
+        assertFalse(waitingThread.isAlive());
+        assertEquals(0xA, pressedKey.get());
+    }
+
+    @Test
+    public void awaitKeyPressCancelled() throws InterruptedException {
+        KeyState keyState = new KeyState();
+        AtomicInteger pressedKey = new AtomicInteger(0);
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        Thread waitingThread = new Thread(() -> pressedKey.set(keyState.awaitKeyPress(cancelled::get)));
+
+        waitingThread.start();
+        cancelled.set(true);
+        keyState.wakeUp();
+        waitingThread.join(1000);
+
+        assertFalse(waitingThread.isAlive());
+        assertEquals(NO_KEY, pressedKey.get());
+    }
+}
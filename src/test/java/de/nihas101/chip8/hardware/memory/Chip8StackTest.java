@@ -3,20 +3,20 @@ package de.nihas101.chip8.hardware.memory;
 import de.nihas101.chip8.unsignedDataTypes.UnsignedShort;
 import org.junit.Test;
 
-import java.util.Stack;
+import java.nio.ByteBuffer;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class Chip8StackTest {
 
     @Test
     public void getState() {
-        assertEquals("Chip8Stack:\t[]", new Chip8Stack(new Stack<>()).getState());
+        assertEquals("Chip8Stack:\t[]", new Chip8Stack().getState());
     }
 
     @Test
     public void push() {
-        Chip8Stack chip8Stack = new Chip8Stack(new Stack<>());
+        Chip8Stack chip8Stack = new Chip8Stack();
 
         chip8Stack.push(new UnsignedShort(1));
         chip8Stack.push(new UnsignedShort(2));
@@ -27,7 +27,7 @@ public class Chip8StackTest {
 
     @Test
     public void pop() {
-        Chip8Stack chip8Stack = new Chip8Stack(new Stack<>());
+        Chip8Stack chip8Stack = new Chip8Stack();
 
         chip8Stack.push(new UnsignedShort(1));
         chip8Stack.push(new UnsignedShort(2));
@@ -38,7 +38,7 @@ public class Chip8StackTest {
 
     @Test
     public void getSize() {
-        Chip8Stack chip8Stack = new Chip8Stack(new Stack<>());
+        Chip8Stack chip8Stack = new Chip8Stack();
 
         chip8Stack.push(new UnsignedShort(1));
         chip8Stack.push(new UnsignedShort(2));
@@ -49,7 +49,7 @@ public class Chip8StackTest {
 
     @Test
     public void clear() {
-        Chip8Stack chip8Stack = new Chip8Stack(new Stack<>());
+        Chip8Stack chip8Stack = new Chip8Stack();
 
         chip8Stack.push(new UnsignedShort(1));
         chip8Stack.push(new UnsignedShort(2));
@@ -62,8 +62,97 @@ public class Chip8StackTest {
 
     @Test
     public void getValues() {
-        Chip8Stack chip8Stack = new Chip8Stack(new Stack<>());
+        Chip8Stack chip8Stack = new Chip8Stack();
 
         assertEquals("[]", chip8Stack.getValues());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void overflow() {
+        Chip8Stack chip8Stack = new Chip8Stack(2);
+
+        chip8Stack.push(1);
+        chip8Stack.push(2);
+
+        try {
+            chip8Stack.push(3);
+        } catch (StackFaultException e) {
+            assertTrue(e.isOverflow());
+            assertEquals(2, chip8Stack.getSize());
+            return;
+        }
+        fail("No Exception was thrown");
+    }
+
+    @Test
+    public void underflow() {
+        Chip8Stack chip8Stack = new Chip8Stack();
+
+        try {
+            chip8Stack.popAddress();
+        } catch (StackFaultException e) {
+            assertFalse(e.isOverflow());
+            return;
+        }
+        fail("No Exception was thrown");
+    }
+
+    @Test
+    public void dumpAndLoad() {
+        Chip8Stack chip8Stack = new Chip8Stack();
+        chip8Stack.push(0x202);
+        chip8Stack.push(0xFFFE);
+        ByteBuffer buffer = ByteBuffer.allocate(chip8Stack.getDumpSize());
+
+        chip8Stack.dump(buffer);
+        buffer.flip();
+        Chip8Stack loaded = new Chip8Stack();
+        loaded.push(0x300);
+        loaded.load(buffer);
+
+        assertFalse(buffer.hasRemaining());
+        assertEquals("[514, 65534]", loaded.getValues());
+        assertEquals(0xFFFE, loaded.popAddress());
+    }
+
+    @Test
+    public void loadFromDeeperStack() {
+        Chip8Stack chip8Stack = new Chip8Stack(32);
+        chip8Stack.push(0x202);
+        ByteBuffer buffer = ByteBuffer.allocate(chip8Stack.getDumpSize() + Short.BYTES);
+        chip8Stack.dump(buffer);
+        buffer.putShort((short) 0x1234).flip();
+
+        Chip8Stack loaded = new Chip8Stack(2);
+        loaded.load(buffer);
+
+        assertEquals("[514]", loaded.getValues());
+        assertEquals(0x1234, buffer.getShort());
+    }
+
+    @Test
+    public void loadCompact() {
+        ByteBuffer buffer = ByteBuffer.allocate(Short.BYTES * 3);
+        buffer.putShort((short) 2).putShort((short) 0x202).putShort((short) 0x204).flip();
+
+        Chip8Stack chip8Stack = new Chip8Stack();
+        chip8Stack.loadCompact(buffer);
+
+        assertFalse(buffer.hasRemaining());
+        assertEquals("[514, 516]", chip8Stack.getValues());
+    }
+
+    @Test
+    public void loadTooDeep() {
+        ByteBuffer buffer = ByteBuffer.allocate(Short.BYTES * 5);
+        buffer.putShort((short) 3).putShort((short) 3).putShort((short) 1).putShort((short) 2).putShort((short) 3)
+                .flip();
+
+        try {
+            new Chip8Stack(2).load(buffer);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        fail("No Exception was thrown");
+    }
+}
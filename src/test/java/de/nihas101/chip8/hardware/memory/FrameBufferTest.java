@@ -0,0 +1,50 @@
+package de.nihas101.chip8.hardware.memory;
+
+import org.junit.Test;
+
+import static de.nihas101.chip8.hardware.memory.ScreenMemory.SCREEN_HEIGHT;
+import static org.junit.Assert.*;
+
+public class FrameBufferTest {
+    @Test
+    public void publishOnlyChangedScreens() {
+        ScreenMemory screenMemory = new ScreenMemory();
+        FrameBuffer frameBuffer = new FrameBuffer();
+        long[] rows = new long[SCREEN_HEIGHT];
+
+        assertTrue(frameBuffer.publish(screenMemory));
+        assertFalse(frameBuffer.publish(screenMemory));
+        screenMemory.drawSpriteLine(0, 4, 0xFF);
+        assertTrue(frameBuffer.publish(screenMemory));
+
+        assertEquals(2, frameBuffer.read(rows));
+        assertEquals(screenMemory.getRow(4), rows[4]);
+        assertTrue(frameBuffer.getPublishTime() > 0);
+        assertEquals(2, frameBuffer.read(rows));
+    }
+
+    @Test
+    public void readNeverSeesTornOrOlderFrames() throws InterruptedException {
+        ScreenMemory screenMemory = new ScreenMemory();
+        FrameBuffer frameBuffer = new FrameBuffer();
+        Thread writer = new Thread(() -> {
+            for (int frame = 1; frame <= 20000; frame++) {
+                for (int y = 0; y < SCREEN_HEIGHT; y++) screenMemory.drawSpriteLine(0, y, frame ^ (frame - 1));
+                frameBuffer.publish(screenMemory);
+            }
+        });
+        long[] rows = new long[SCREEN_HEIGHT];
+        long lastFrame = 0;
+
+        writer.start();
+        while (writer.isAlive()) {
+            long frame = frameBuffer.read(rows);
+            assertTrue(frame >= lastFrame);
+            lastFrame = frame;
+            for (int y = 1; y < SCREEN_HEIGHT; y++) assertEquals(rows[0], rows[y]);
+        }
+        writer.join();
+
+        assertEquals(20000, frameBuffer.read(rows));
+    }
+}
@@ -26,6 +26,15 @@ public class ProgramCounterTest {
         assertEquals(10, programCounter.getCounter().unsignedDataType);
     }
 
+    @Test
+    public void incrementCounterWrapsAround() {
+        ProgramCounter programCounter = new ProgramCounter(0xFFFF);
+
+        programCounter.incrementCounterN(2);
+
+        assertEquals(1, programCounter.getCounterUnsigned());
+    }
+
     @Test
     public void getCounter() {
         assertEquals(0, new ProgramCounter().getCounter().unsignedDataType);
@@ -23,6 +23,14 @@ public class RegistersTest {
         assertEquals(123, registers.peek(10).unsignedDataType);
     }
 
+    @Test
+    public void peekUnsigned() {
+        Registers registers = new Registers();
+        registers.poke(3, 0x1FF);
+
+        assertEquals(0xFF, registers.peekUnsigned(3));
+    }
+
     @Test
     public void clear() {
         Registers registers = new Registers();
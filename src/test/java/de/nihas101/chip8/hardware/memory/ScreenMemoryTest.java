@@ -67,4 +67,53 @@ public class ScreenMemoryTest {
 
         assertEquals(false, readBoolean);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void drawSpriteLine() {
+        ScreenMemory screenMemory = new ScreenMemory();
+
+        assertEquals(false, screenMemory.drawSpriteLine(60, 33, 0b10100001));
+
+        assertEquals(true, screenMemory.read(60, 1));
+        assertEquals(false, screenMemory.read(61, 1));
+        assertEquals(true, screenMemory.read(62, 1));
+        assertEquals(true, screenMemory.read(3, 1));
+        assertEquals(0x1000_0000_0000_000AL, screenMemory.getRow(1));
+    }
+
+    @Test
+    public void drawSpriteLineCollision() {
+        ScreenMemory screenMemory = new ScreenMemory();
+
+        screenMemory.write(5, 0, true);
+
+        assertEquals(false, screenMemory.drawSpriteLine(0, 0, 0b11110000));
+        assertEquals(true, screenMemory.drawSpriteLine(0, 0, 0b00010000));
+        assertEquals(false, screenMemory.read(3, 0));
+        assertEquals(true, screenMemory.read(5, 0));
+    }
+
+    @Test
+    public void getValuesMatchesColumns() {
+        ScreenMemory screenMemory = new ScreenMemory();
+        screenMemory.write(1, 2, true);
+
+        assertEquals(true, screenMemory.getMemory()[1][2]);
+        assertEquals(screenMemory.getValues(), new ScreenMemory(screenMemory.getValues()
+                .substring(1, screenMemory.getValues().length() - 1).split("], ")).getValues());
+    }
+
+    @Test
+    public void generationCountsChanges() {
+        ScreenMemory screenMemory = new ScreenMemory();
+        long generation = screenMemory.getGeneration();
+
+        screenMemory.drawSpriteLine(0, 3, 0b1000_0000);
+        screenMemory.write(0, 31, true);
+        screenMemory.write(1, 5, false);
+        assertEquals(generation + 2, screenMemory.getGeneration());
+
+        screenMemory.reset();
+        assertEquals(generation + 3, screenMemory.getGeneration());
+    }
+}
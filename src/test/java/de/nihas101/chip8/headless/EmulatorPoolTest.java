@@ -0,0 +1,120 @@
+package de.nihas101.chip8.headless;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static de.nihas101.chip8.headless.EmulatorPool.createEmulatorPool;
+import static de.nihas101.chip8.headless.HeadlessRunner.createHeadlessRunner;
+import static org.junit.Assert.*;
+
+public class EmulatorPoolTest {
+    /* V0 += 1, loop forever */
+    private static final byte[] COUNTER_ROM = {0x70, 0x01, 0x12, 0x00};
+
+    private EmulatorPool emulatorPool;
+
+    @Before
+    public void setup() {
+        emulatorPool = createEmulatorPool(4, 100);
+    }
+
+    @After
+    public void tearDown() {
+        emulatorPool.close();
+    }
+
+    @Test
+    public void runManySessions() throws InterruptedException, ExecutionException {
+        List<EmulatorPool.Session> sessions = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            HeadlessRunner headlessRunner = createHeadlessRunner();
+            headlessRunner.loadRom(COUNTER_ROM);
+            sessions.add(emulatorPool.submit(headlessRunner, 1001));
+        }
+
+        for (EmulatorPool.Session session : sessions) {
+            HeadlessRunner headlessRunner = session.getCompletion().get();
+            assertEquals(1001, session.getExecutedCycles());
+            assertEquals(1001, headlessRunner.getCentralProcessingUnit().getCycles());
+            assertEquals(501 % 256, headlessRunner.getRegisters().peekUnsigned(0));
+        }
+
+        assertTrue(emulatorPool.awaitQuiescence(10, TimeUnit.SECONDS));
+        assertEquals(0, emulatorPool.getActiveSessions());
+    }
+
+    @Test
+    public void submitFrames() throws InterruptedException, ExecutionException {
+        HeadlessRunner headlessRunner = createHeadlessRunner(10);
+        headlessRunner.loadRom(COUNTER_ROM);
+
+        emulatorPool.submitFrames(headlessRunner, 25).getCompletion().get();
+
+        assertEquals(25, headlessRunner.getFrames());
+    }
+
+    @Test
+    public void failingSession() throws InterruptedException {
+        /* 0x0123 is not supported */
+        HeadlessRunner headlessRunner = createHeadlessRunner();
+        headlessRunner.loadRom(new byte[]{0x01, 0x23});
+
+        EmulatorPool.Session session = emulatorPool.submit(headlessRunner, 1000);
+
+        try {
+            session.getCompletion().get();
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals("RCA 1802 is not  supported: 123", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void failingSessionWithError() throws InterruptedException {
+        HeadlessRunner headlessRunner = createHeadlessRunner(10);
+        headlessRunner.loadRom(COUNTER_ROM);
+        headlessRunner.setFrameListener(runner -> {
+            throw new StackOverflowError("frame");
+        });
+
+        EmulatorPool.Session session = emulatorPool.submit(headlessRunner, 1000);
+
+        try {
+            session.getCompletion().get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof StackOverflowError);
+        }
+
+        assertTrue(emulatorPool.awaitQuiescence(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void closeCancelsSessions() {
+        List<EmulatorPool.Session> sessions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            HeadlessRunner headlessRunner = createHeadlessRunner();
+            headlessRunner.loadRom(COUNTER_ROM);
+            sessions.add(emulatorPool.submit(headlessRunner, Long.MAX_VALUE));
+        }
+
+        emulatorPool.close();
+
+        for (EmulatorPool.Session session : sessions) assertTrue(session.getCompletion().isCancelled());
+        assertEquals(0, emulatorPool.getActiveSessions());
+
+        try {
+            emulatorPool.submit(createHeadlessRunner(), 1000);
+            fail();
+        } catch (RejectedExecutionException e) {
+            assertEquals(0, emulatorPool.getActiveSessions());
+        }
+    }
+}
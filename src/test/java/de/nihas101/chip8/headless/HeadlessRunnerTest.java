@@ -0,0 +1,113 @@
+package de.nihas101.chip8.headless;
+
+import de.nihas101.chip8.opcodes.UnknownOPCodeException;
+import org.junit.Test;
+
+import static de.nihas101.chip8.headless.HeadlessRunner.createHeadlessRunner;
+import static de.nihas101.chip8.savestates.RewindBuffer.createRewindBuffer;
+import static org.junit.Assert.*;
+
+public class HeadlessRunnerTest {
+    /* V0 = 0x0A, delay_timer = V0, loop forever */
+    private static final byte[] DELAY_ROM = {0x60, 0x0A, (byte) 0xF0, 0x15, 0x12, 0x04};
+
+    @Test
+    public void timersTickEveryFrame() throws UnknownOPCodeException {
+        HeadlessRunner headlessRunner = createHeadlessRunner(10);
+        headlessRunner.loadRom(DELAY_ROM);
+
+        assertEquals(40, headlessRunner.runFrames(4));
+
+        assertEquals(4, headlessRunner.getFrames());
+        assertEquals(6, headlessRunner.getCentralProcessingUnit().getDelayTimer().getValue());
+    }
+
+    @Test
+    public void runFramesCompletesPartialFrame() throws UnknownOPCodeException {
+        HeadlessRunner headlessRunner = createHeadlessRunner(10);
+        headlessRunner.loadRom(DELAY_ROM);
+
+        assertEquals(3, headlessRunner.runCycles(3));
+        assertEquals(7, headlessRunner.runFrames(1));
+
+        assertEquals(1, headlessRunner.getFrames());
+        assertEquals(10, headlessRunner.getCentralProcessingUnit().getCycles());
+    }
+
+    @Test
+    public void frameListener() throws UnknownOPCodeException {
+        HeadlessRunner headlessRunner = createHeadlessRunner(5);
+        headlessRunner.loadRom(DELAY_ROM);
+        final int[] frames = {0};
+        headlessRunner.setFrameListener(runner -> frames[0]++);
+
+        headlessRunner.runCycles(52);
+
+        assertEquals(10, frames[0]);
+    }
+
+    @Test
+    public void waitForKeyDoesNotBlock() throws UnknownOPCodeException {
+        /* V1 = get_key(), loop forever */
+        HeadlessRunner headlessRunner = createHeadlessRunner(10);
+        headlessRunner.loadRom(new byte[]{(byte) 0xF1, 0x0A, 0x12, 0x02});
+
+        headlessRunner.runFrames(2);
+        assertEquals(0x200, headlessRunner.getCentralProcessingUnit().getProgramCounter().getCounterUnsigned());
+
+        headlessRunner.setKeyCode(0x7);
+        headlessRunner.runCycles(1);
+        assertEquals(0x7, headlessRunner.getRegisters().peekUnsigned(1));
+    }
+
+    @Test
+    public void rewindStepsBackOneFrameAtATime() throws UnknownOPCodeException {
+        /* V0 += 1, loop forever */
+        HeadlessRunner headlessRunner = createHeadlessRunner(10);
+        headlessRunner.loadRom(new byte[]{0x70, 0x01, 0x12, 0x00});
+        headlessRunner.setRewindBuffer(createRewindBuffer(64 * 1024));
+
+        headlessRunner.runCycles(32);
+        assertEquals(16, headlessRunner.getRegisters().peekUnsigned(0));
+        assertEquals(3, headlessRunner.getRewindBuffer().getSnapshots());
+
+        /* Back to the end of the current frame, then to the end of the one before */
+        assertTrue(headlessRunner.rewind());
+        assertEquals(15, headlessRunner.getRegisters().peekUnsigned(0));
+        assertEquals(3, headlessRunner.getFrames());
+        assertTrue(headlessRunner.rewind());
+        assertEquals(10, headlessRunner.getRegisters().peekUnsigned(0));
+        assertEquals(2, headlessRunner.getFrames());
+        assertEquals(0x200, headlessRunner.getCentralProcessingUnit().getProgramCounter().getCounterUnsigned());
+
+        /* The rewound frame is executed again and recorded in place of the discarded one */
+        assertEquals(10, headlessRunner.runFrames(1));
+        assertEquals(15, headlessRunner.getRegisters().peekUnsigned(0));
+        assertEquals(3, headlessRunner.getFrames());
+        assertEquals(3, headlessRunner.getRewindBuffer().getSnapshots());
+
+        /* Right at the end of a frame, every call still steps back one frame */
+        assertTrue(headlessRunner.rewind());
+        assertEquals(10, headlessRunner.getRegisters().peekUnsigned(0));
+        assertEquals(2, headlessRunner.getFrames());
+        assertTrue(headlessRunner.rewind());
+        assertEquals(5, headlessRunner.getRegisters().peekUnsigned(0));
+        assertEquals(1, headlessRunner.getFrames());
+        assertFalse(headlessRunner.rewind());
+        assertEquals(5, headlessRunner.getRegisters().peekUnsigned(0));
+    }
+
+    @Test
+    public void rewindStoresDeltasAtDefaultFrameRate() throws UnknownOPCodeException {
+        /* V0 += 1, loop forever, so frames end on either instruction */
+        HeadlessRunner headlessRunner = createHeadlessRunner();
+        headlessRunner.loadRom(new byte[]{0x70, 0x01, 0x12, 0x00});
+        headlessRunner.setRewindBuffer(createRewindBuffer(4 * 1024 * 1024));
+
+        headlessRunner.runFrames(600);
+
+        assertEquals(600, headlessRunner.getRewindBuffer().getSnapshots());
+        /* Ten keyframes of about 4.4 KB and small deltas in between */
+        assertTrue(headlessRunner.getRewindBuffer().getUsedBytes() < 600 * 200);
+    }
+}
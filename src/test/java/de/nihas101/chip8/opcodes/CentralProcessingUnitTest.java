@@ -1,5 +1,7 @@
 package de.nihas101.chip8.opcodes;
 
+import de.nihas101.chip8.debug.TraceBuffer;
+import de.nihas101.chip8.debug.TraceLevel;
 import de.nihas101.chip8.hardware.CentralProcessingUnit;
 import de.nihas101.chip8.hardware.memory.*;
 import de.nihas101.chip8.hardware.timers.DelayTimer;
@@ -10,7 +12,6 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Random;
-import java.util.Stack;
 import java.util.Timer;
 
 import static de.nihas101.chip8.hardware.memory.ScreenMemory.SCREEN_HEIGHT;
@@ -40,7 +41,7 @@ public class CentralProcessingUnitTest {
                 new Registers(),
                 new AddressRegister(),
                 new ProgramCounter(new UnsignedShort(0)),
-                new Chip8Stack(new Stack<>()),
+                new Chip8Stack(),
                 new Timer("Timer"),
                 new DelayTimer() {
                     @Override
@@ -104,6 +105,18 @@ public class CentralProcessingUnitTest {
         assertEquals(0x321, this.cpu.getProgramCounter().getCounter().unsignedDataType);
     }
 
+    @Test
+    public void test00EEEmptyStack() throws UnknownOPCodeException {   // return from subroutine without a call
+        setOpCode(0x00EE);
+
+        try {
+            cpu.decodeNextOpCode();
+        } catch (StackFaultException e) {
+            return;
+        }
+        fail("No Exception was thrown");
+    }
+
     @Test
     public void test1NNN() throws UnknownOPCodeException {   // jump to address NNN
         setOpCode(0x1123);
@@ -411,6 +424,21 @@ public class CentralProcessingUnitTest {
         checkIfCollisionOccurred(false);
     }
 
+    @Test
+    public void testDXYNPublishesFrame() throws UnknownOPCodeException {
+        FrameBuffer frameBuffer = new FrameBuffer();
+        long[] rows = new long[SCREEN_HEIGHT];
+        cpu.setFrameBuffer(frameBuffer);
+        setOpCode(0xD01A);
+        setMemoryForSpriteToDisplay();
+        cpu.getAddressRegister().setAddress(new UnsignedShort(0x200));
+
+        cpu.decodeNextOpCode();
+
+        assertEquals(1, frameBuffer.read(rows));
+        assertEquals(cpu.getScreenMemory().getRow(0), rows[0]);
+    }
+
     private void setMemoryForSpriteToDisplay() {
         memory.write(0x200, new UnsignedByte(0xFF));
         memory.write(0x201, new UnsignedByte(0xF0));
@@ -460,6 +488,19 @@ public class CentralProcessingUnitTest {
         assertEquals(new UnsignedShort(4), this.cpu.getProgramCounter().getCounter());
     }
 
+    @Test
+    public void testEX9ESeveralKeysPressed() throws UnknownOPCodeException {
+        setOpCode(0xEC9E);
+
+        cpu.pressKey(1);
+        cpu.pressKey(2);
+        cpu.getRegisters().poke(0xC, new UnsignedByte(1));
+
+        cpu.decodeNextOpCode();
+
+        assertEquals(new UnsignedShort(4), this.cpu.getProgramCounter().getCounter());
+    }
+
     @Test
     public void testFX07() throws UnknownOPCodeException {   // Sets VX to the value of the delay timer.
         setOpCode(0xF107);
@@ -480,6 +521,18 @@ public class CentralProcessingUnitTest {
         assertEquals(1, cpu.getRegisters().peek(3).unsignedDataType);
     }
 
+    @Test
+    public void testFX0AStopped() throws UnknownOPCodeException {
+        setOpCode(0xF30A);
+        cpu.setStop(true);
+
+        cpu.decodeNextOpCode();
+
+        /* The instruction is executed again once the CPU runs */
+        assertEquals(new UnsignedShort(0), cpu.getProgramCounter().getCounter());
+        assertEquals(0, cpu.getRegisters().peek(3).unsignedDataType);
+    }
+
     @Test
     public void testFX15() throws UnknownOPCodeException {   // Sets the delay timer to VX.
         setOpCode(0xF815);
@@ -749,6 +802,24 @@ public class CentralProcessingUnitTest {
         assertEquals("f865 -> reg_load(V8, &I)", cpu.getOpCodeString());
     }
 
+    @Test
+    public void traceBinary() throws UnknownOPCodeException {
+        cpu.setTraceLevel(TraceLevel.BINARY);
+        setOpCode(0x6A02);
+        setOpCode(2, 0xA300);
+
+        cpu.decodeNextOpCode();
+        cpu.decodeNextOpCode();
+
+        TraceBuffer traceBuffer = cpu.getTraceBuffer();
+        assertEquals(2, traceBuffer.getSize());
+        assertEquals(0x6A02, traceBuffer.getOpCode(0));
+        assertEquals(0x2, traceBuffer.getRegisterX(0));
+        assertEquals(0x2, traceBuffer.getAddress(1));
+        assertEquals(0x300, traceBuffer.getAddressRegister(1));
+        assertEquals("a300 -> I = 300", cpu.getOpCodeString());
+    }
+
     @Test
     public void setCycles() {
         cpu.setCycles(200);
@@ -773,6 +844,32 @@ public class CentralProcessingUnitTest {
         fail();
     }
 
+    @Test
+    public void unknownOpCodeMessageTest() {
+        setOpCode(0xF090);
+
+        try {
+            cpu.decodeNextOpCode();
+        } catch (UnknownOPCodeException e) {
+            assertEquals("Unknown OpCode encountered: f090", e.getMessage());
+            return;
+        }
+        fail();
+    }
+
+    @Test
+    public void unsupportedRCA1802Test() {
+        setOpCode(0x0123);
+
+        try {
+            cpu.decodeNextOpCode();
+        } catch (UnknownOPCodeException e) {
+            assertEquals("RCA 1802 is not  supported: 123", e.getMessage());
+            return;
+        }
+        fail();
+    }
+
     private void setOpCode(int index, int opCode) {
         int topByte = ((opCode & 0xff00) >> 8);
         int bottomByte = (opCode & 0x00ff);
@@ -0,0 +1,116 @@
+package de.nihas101.chip8.savestates;
+
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
+import de.nihas101.chip8.headless.HeadlessRunner;
+import de.nihas101.chip8.opcodes.UnknownOPCodeException;
+import de.nihas101.chip8.utils.XorShiftRandom;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static de.nihas101.chip8.hardware.Emulator.createHeadlessEmulator;
+import static de.nihas101.chip8.headless.HeadlessRunner.createHeadlessRunner;
+import static de.nihas101.chip8.headless.HeadlessRunner.replayMovie;
+import static de.nihas101.chip8.savestates.Movie.readMovie;
+import static de.nihas101.chip8.savestates.MovieRecorder.openMovieRecorder;
+import static de.nihas101.chip8.utils.Constants.REGISTER_LENGTH;
+import static org.junit.Assert.*;
+
+public class MovieTest {
+    /*
+     * V4 = get_key(), then loop: V0 = rand(), V5 += V0, V2 += 1 if key 0 is pressed,
+     * set the delay timer to 3 whenever it ran out
+     */
+    private static final byte[] ROM = {
+            (byte) 0xF4, 0x0A, (byte) 0xC0, (byte) 0xFF, (byte) 0x85, 0x04, (byte) 0xE1, (byte) 0x9E,
+            0x12, 0x0C, 0x72, 0x01, (byte) 0xF6, 0x07, 0x36, 0x00, 0x12, 0x02, 0x67, 0x03, (byte) 0xF7, 0x15,
+            0x12, 0x02};
+
+    @Test
+    public void replayReproducesRecording() throws IOException, UnknownOPCodeException {
+        File movieFile = File.createTempFile("movie", ".c8movie");
+        movieFile.deleteOnExit();
+
+        HeadlessRunner recording = createHeadlessRunner(10);
+        recording.loadRom(ROM);
+        recording.runCycles(7);
+        CentralProcessingUnit cpu = recording.getCentralProcessingUnit();
+        MovieRecorder movieRecorder = openMovieRecorder(movieFile, cpu);
+        cpu.setKeyInput(movieRecorder);
+
+        recording.runCycles(25);
+        recording.setPressedKeys(1 << 3);
+        recording.runCycles(30);
+        recording.setPressedKeys(1);
+        recording.runCycles(40);
+        recording.setPressedKeys(0);
+        recording.runCycles(53);
+        cpu.setKeyInput(null);
+        movieRecorder.close();
+
+        assertEquals(3, cpu.getRegisters().peekUnsigned(4));
+        assertNotEquals(0, cpu.getRegisters().peekUnsigned(2));
+        assertEquals(4, movieRecorder.getChanges());
+        assertEquals(148, movieRecorder.getLength());
+
+        Movie movie = readMovie(movieFile);
+        assertEquals(10, movie.getInstructionsPerFrame());
+        assertEquals(148, movie.getLength());
+        assertEquals(4, movie.getChanges());
+        assertEquals(1 << 3, movie.getPressedKeys(1));
+        assertEquals(3, movie.getLastPressedKey(1));
+
+        for (int i = 0; i < 3; i++) {
+            HeadlessRunner replay = replayMovie(movieFile);
+            CentralProcessingUnit replayed = replay.getCentralProcessingUnit();
+
+            for (int register = 0; register < REGISTER_LENGTH; register++)
+                assertEquals(cpu.getRegisters().peekUnsigned(register), replayed.getRegisters().peekUnsigned(register));
+            assertEquals(cpu.getProgramCounter().getCounterUnsigned(),
+                    replayed.getProgramCounter().getCounterUnsigned());
+            assertEquals(cpu.getDelayTimer().getValue(), replayed.getDelayTimer().getValue());
+            assertEquals(((XorShiftRandom) cpu.getRandom()).getState0(),
+                    ((XorShiftRandom) replayed.getRandom()).getState0());
+            assertEquals(((XorShiftRandom) cpu.getRandom()).getState1(),
+                    ((XorShiftRandom) replayed.getRandom()).getState1());
+            assertTrue(((MoviePlayer) replayed.getKeyInput()).isFinished(replayed));
+        }
+    }
+
+    @Test
+    public void replayIgnoresPressedKeys() throws IOException, UnknownOPCodeException {
+        File movieFile = File.createTempFile("movie", ".c8movie");
+        movieFile.deleteOnExit();
+
+        HeadlessRunner recording = createHeadlessRunner(10);
+        recording.loadRom(ROM);
+        CentralProcessingUnit cpu = recording.getCentralProcessingUnit();
+        try (MovieRecorder movieRecorder = openMovieRecorder(movieFile, cpu)) {
+            cpu.setKeyInput(movieRecorder);
+            recording.runCycles(20);
+            cpu.setKeyInput(null);
+        }
+
+        HeadlessRunner replay = createHeadlessRunner(readMovie(movieFile));
+        replay.setPressedKeys(1 << 5);
+        replay.runCycles(20);
+
+        /* No key was pressed while recording, so get_key() is still waiting */
+        assertEquals(0x200, replay.getCentralProcessingUnit().getProgramCounter().getCounterUnsigned());
+        assertEquals(0, replay.getRegisters().peekUnsigned(4));
+    }
+
+    @Test
+    public void recordingRequiresCycleCountedTimers() throws IOException {
+        File movieFile = File.createTempFile("movie", ".c8movie");
+        movieFile.deleteOnExit();
+
+        try {
+            openMovieRecorder(movieFile, createHeadlessEmulator().getCentralProcessingUnit());
+        } catch (IllegalStateException e) {
+            return;
+        }
+        fail("No Exception was thrown");
+    }
+}
@@ -0,0 +1,85 @@
+package de.nihas101.chip8.savestates;
+
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.nihas101.chip8.hardware.Emulator.createHeadlessEmulator;
+import static de.nihas101.chip8.savestates.RewindBuffer.createRewindBuffer;
+import static de.nihas101.chip8.savestates.SaveState.createSaveState;
+import static org.junit.Assert.*;
+
+public class RewindBufferTest {
+    @Test
+    public void stepBack() {
+        CentralProcessingUnit cpu = createHeadlessEmulator().getCentralProcessingUnit();
+        RewindBuffer rewindBuffer = createRewindBuffer(64 * 1024, 4);
+        List<String> states = new ArrayList<>();
+
+        for (int frame = 0; frame < 10; frame++) {
+            cpu.getMemory().write(0x300 + frame, frame + 1);
+            cpu.getScreenMemory().drawSpriteLine(frame * 3, frame, 0xFF);
+            cpu.getRegisters().poke(frame, frame * 7);
+            states.add(cpu.getState());
+            rewindBuffer.record(createSaveState(cpu));
+        }
+
+        assertEquals(10, rewindBuffer.getSnapshots());
+        /* Three keyframes and seven deltas of a few bytes each */
+        assertTrue(rewindBuffer.getUsedBytes() < 4 * createSaveState(cpu).getSize());
+
+        for (int frame = 9; frame >= 0; frame--)
+            assertEquals(states.get(frame), createSaveState(rewindBuffer.stepBack()).cpu.getState());
+
+        assertNull(rewindBuffer.stepBack());
+    }
+
+    @Test
+    public void evictsOldestKeyframe() {
+        CentralProcessingUnit cpu = createHeadlessEmulator().getCentralProcessingUnit();
+        int size = createSaveState(cpu).getSize();
+        RewindBuffer rewindBuffer = createRewindBuffer(size * 2 + 100, 3);
+
+        for (int frame = 0; frame < 20; frame++) {
+            cpu.getMemory().write(0x300, frame);
+            rewindBuffer.record(createSaveState(cpu));
+            assertTrue(rewindBuffer.getUsedBytes() <= rewindBuffer.getCapacity());
+        }
+
+        int snapshots = rewindBuffer.getSnapshots();
+        assertTrue(snapshots >= 3 && snapshots < 20);
+        for (int frame = 19; frame > 19 - snapshots; frame--)
+            assertEquals(frame, createSaveState(rewindBuffer.stepBack()).cpu.getMemory().readUnsigned(0x300));
+    }
+
+    @Test
+    public void recordAfterStepBack() {
+        CentralProcessingUnit cpu = createHeadlessEmulator().getCentralProcessingUnit();
+        RewindBuffer rewindBuffer = createRewindBuffer(64 * 1024, 2);
+
+        for (int frame = 0; frame < 5; frame++) {
+            cpu.getMemory().write(0x300, frame);
+            rewindBuffer.record(createSaveState(cpu));
+        }
+        rewindBuffer.stepBack();
+        rewindBuffer.stepBack();
+        cpu.getMemory().write(0x300, 42);
+        rewindBuffer.record(createSaveState(cpu));
+
+        assertEquals(42, createSaveState(rewindBuffer.stepBack()).cpu.getMemory().readUnsigned(0x300));
+        assertEquals(2, createSaveState(rewindBuffer.stepBack()).cpu.getMemory().readUnsigned(0x300));
+        assertEquals(2, rewindBuffer.getSnapshots());
+    }
+
+    @Test
+    public void snapshotTooLarge() {
+        try {
+            createRewindBuffer(100).record(createSaveState(createHeadlessEmulator().getCentralProcessingUnit()));
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        fail("No Exception was thrown");
+    }
+}
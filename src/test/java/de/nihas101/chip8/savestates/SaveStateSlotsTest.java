@@ -0,0 +1,71 @@
+package de.nihas101.chip8.savestates;
+
+import de.nihas101.chip8.hardware.CentralProcessingUnit;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static de.nihas101.chip8.hardware.Emulator.createHeadlessEmulator;
+import static de.nihas101.chip8.savestates.SaveState.createSaveState;
+import static de.nihas101.chip8.savestates.SaveStateSlots.openSaveStateSlots;
+import static org.junit.Assert.*;
+
+public class SaveStateSlotsTest {
+
+    @Test
+    public void saveAndLoad() throws IOException {
+        File file = createSlotFile();
+        CentralProcessingUnit cpu = createHeadlessEmulator().getCentralProcessingUnit();
+        cpu.getMemory().write(0x300, 0x12);
+        CentralProcessingUnit target = createHeadlessEmulator().getCentralProcessingUnit();
+
+        try (SaveStateSlots saveStateSlots = openSaveStateSlots(file, 3)) {
+            saveStateSlots.save(1, createSaveState(cpu));
+
+            assertTrue(saveStateSlots.isEmpty(0));
+            assertFalse(saveStateSlots.load(0, target));
+            assertTrue(saveStateSlots.load(1, target));
+        }
+
+        assertEquals(cpu.getState(), target.getState());
+    }
+
+    @Test
+    public void reopen() throws IOException {
+        File file = createSlotFile();
+        CentralProcessingUnit cpu = createHeadlessEmulator().getCentralProcessingUnit();
+        cpu.getRegisters().poke(0x2, 0x34);
+
+        try (SaveStateSlots saveStateSlots = openSaveStateSlots(file, 4)) {
+            saveStateSlots.save(3, createSaveState(cpu));
+        }
+
+        try (SaveStateSlots saveStateSlots = openSaveStateSlots(file, 10)) {
+            ByteBuffer saveState = saveStateSlots.read(3);
+
+            assertEquals(4, saveStateSlots.getSlots());
+            assertEquals(createSaveState(cpu).getSize(), saveState.remaining());
+            assertEquals(0x34, createSaveState(saveState).cpu.getRegisters().peekUnsigned(0x2));
+        }
+    }
+
+    @Test
+    public void slotOutOfBounds() throws IOException {
+        try (SaveStateSlots saveStateSlots = openSaveStateSlots(createSlotFile(), 2)) {
+            saveStateSlots.read(2);
+        } catch (IndexOutOfBoundsException e) {
+            return;
+        }
+        fail("No Exception was thrown");
+    }
+
+    private File createSlotFile() throws IOException {
+        File file = File.createTempFile("savestates", ".c8slots");
+        file.delete();
+        file.deleteOnExit();
+
+        return file;
+    }
+}
@@ -0,0 +1,27 @@
+package de.nihas101.chip8.utils;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class StatefulRandomTest {
+    @Test
+    public void sameNumbersAsRandom() {
+        Random random = new Random(42);
+        StatefulRandom statefulRandom = new StatefulRandom(42);
+
+        for (int i = 0; i < 100; i++) assertEquals(random.nextInt(256), statefulRandom.nextInt(256));
+    }
+
+    @Test
+    public void setState() {
+        StatefulRandom random = new StatefulRandom(7);
+        random.nextInt();
+        StatefulRandom restored = new StatefulRandom();
+        restored.setState(random.getState());
+
+        for (int i = 0; i < 10; i++) assertEquals(random.nextLong(), restored.nextLong());
+    }
+}
@@ -0,0 +1,56 @@
+package de.nihas101.chip8.utils;
+
+import org.junit.Test;
+
+import static de.nihas101.chip8.utils.XorShiftRandom.createXorShiftRandom;
+import static org.junit.Assert.*;
+
+public class XorShiftRandomTest {
+    @Test
+    public void sameSeedSameNumbers() {
+        XorShiftRandom random = new XorShiftRandom(42);
+        XorShiftRandom other = new XorShiftRandom(42);
+
+        for (int i = 0; i < 100; i++) assertEquals(random.nextByte(), other.nextByte());
+        assertNotEquals(new XorShiftRandom(43).nextLong(), new XorShiftRandom(42).nextLong());
+    }
+
+    @Test
+    public void setState() {
+        XorShiftRandom random = new XorShiftRandom(7);
+        random.nextInt();
+        XorShiftRandom restored = createXorShiftRandom(random.getState0(), random.getState1());
+
+        for (int i = 0; i < 10; i++) assertEquals(random.nextLong(), restored.nextLong());
+    }
+
+    @Test
+    public void setStateZero() {
+        try {
+            new XorShiftRandom().setState(0, 0);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        fail("No Exception was thrown");
+    }
+
+    @Test
+    public void nextByteCoversAllBytes() {
+        XorShiftRandom random = new XorShiftRandom(1);
+        boolean[] drawn = new boolean[256];
+
+        for (int i = 0; i < 10000; i++) drawn[random.nextByte()] = true;
+
+        for (int value = 0; value < drawn.length; value++) assertTrue("Never drew " + value, drawn[value]);
+    }
+
+    @Test
+    public void fork() {
+        XorShiftRandom random = new XorShiftRandom(3);
+        XorShiftRandom copy = createXorShiftRandom(random.getState0(), random.getState1());
+        XorShiftRandom fork = random.fork();
+
+        assertEquals(copy.fork().nextLong(), fork.nextLong());
+        assertNotEquals(random.nextLong(), fork.nextLong());
+    }
+}